@@ -0,0 +1,53 @@
+package com.example.courses.benchmark;
+
+import com.example.courses.CourseServiceApplication;
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.example.courses.service.CourseImportService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Boots the application against the embedded H2 test configuration and seeds a catalog of a known size
+final class BenchmarkCatalog {
+
+    static final int COURSES = 1_000;
+    static final int SUBJECTS_PER_COURSE = 8;
+
+    private BenchmarkCatalog() {
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CourseServiceApplication.class)
+                .web(webApplicationType)
+                .properties(
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+        context.getBean(CourseImportService.class).importCourses(courses("Benchmark course ", COURSES).iterator());
+        return context;
+    }
+
+    static List<Course> courses(String namePrefix, int count) {
+        List<Course> courses = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            courses.add(course(namePrefix + c, SUBJECTS_PER_COURSE));
+        }
+        return courses;
+    }
+
+    static Course course(String name, int subjects) {
+        Course course = new Course();
+        course.setName(name);
+        for (int s = 0; s < subjects; s++) {
+            Subject subject = new Subject();
+            subject.setTitle(name + " subject " + s);
+            course.addSubject(subject);
+        }
+        return course;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.courses.benchmark;
+
+import com.example.courses.CourseServiceApplication;
+import com.example.courses.service.CatalogArchiveJob;
+import com.example.courses.service.CatalogArchiveResult;
+import com.example.courses.service.CourseImportService;
+import com.example.courses.service.CourseService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves a catalog from one database to another through a catalog archive and reports the time and rows per second of
+ * the export and of the import, and the archive's size next to the same catalog as the newline-delimited JSON of
+ * GET /api/courses/stream.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.courses.benchmark.CatalogArchiveLoadTest -Dexec.args="200000"
+ * </pre>
+ * Argument: courses in the catalog (each with {@value BenchmarkCatalog#SUBJECTS_PER_COURSE} subjects). Both databases
+ * are embedded H2 databases in the same JVM, so give it a heap that holds them.
+ */
+public final class CatalogArchiveLoadTest {
+
+    private CatalogArchiveLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int courses = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long rows = (long) courses * (1 + BenchmarkCatalog.SUBJECTS_PER_COURSE);
+        Path archive = Files.createTempFile("catalog", ".ccat");
+        try {
+            long ndjsonBytes;
+            String export;
+            try (ConfigurableApplicationContext source = start("archive-source")) {
+                source.getBean(CourseImportService.class)
+                        .importCourses(BenchmarkCatalog.courses("Archive load course ", courses).iterator());
+                ndjsonBytes = ndjsonSize(source.getBean(CourseService.class));
+                long started = System.nanoTime();
+                CatalogArchiveResult exported = source.getBean(CatalogArchiveJob.class).exportTo(archive);
+                export = report("export", exported.courses() + exported.subjects(), started);
+            }
+            String imported;
+            try (ConfigurableApplicationContext target = start("archive-target")) {
+                long started = System.nanoTime();
+                CatalogArchiveResult result = target.getBean(CatalogArchiveJob.class).importFrom(archive);
+                imported = report("import", result.courses() + result.subjects(), started);
+            }
+            System.out.printf("%n%d courses of %d subjects (%d rows): archive %.1f MB, NDJSON stream %.1f MB%n",
+                    courses, BenchmarkCatalog.SUBJECTS_PER_COURSE, rows, Files.size(archive) / 1e6, ndjsonBytes / 1e6);
+            System.out.printf("%-8s %10s %12s%n", "", "seconds", "rows/s");
+            System.out.println(export);
+            System.out.println(imported);
+        } finally {
+            Files.deleteIfExists(archive);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(CourseServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        // Dropped when the pool closes, so the source database does not count in the target's heap
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL",
+                        "courses.seed.mode=off",
+                        "courses.cache.maximum-size=0",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example=WARN")
+                .run();
+    }
+
+    private static long ndjsonSize(CourseService courseService) throws Exception {
+        AtomicLong bytes = new AtomicLong();
+        OutputStream counter = new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes.incrementAndGet();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bytes.addAndGet(len);
+            }
+        };
+        ObjectMapper objectMapper = new ObjectMapper();
+        try (OutputStream out = new BufferedOutputStream(counter)) {
+            courseService.streamAllCourses(course -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(course));
+                    out.write('\n');
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+        }
+        return bytes.get();
+    }
+
+    private static String report(String phase, long rows, long started) {
+        double seconds = (System.nanoTime() - started) / 1e9;
+        return String.format("%-8s %10.2f %12.0f", phase, seconds, rows / seconds);
+    }
+}
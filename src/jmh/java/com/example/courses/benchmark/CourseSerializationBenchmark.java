@@ -0,0 +1,56 @@
+package com.example.courses.benchmark;
+
+import com.example.courses.model.Course;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Jackson round trips of Course graphs through the @JsonManagedReference/@JsonBackReference cycle
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourseSerializationBenchmark {
+
+    @Param({"5", "50", "500"})
+    private int subjects;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Course course;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        course = BenchmarkCatalog.course("Serialization course", subjects);
+        long id = 1;
+        course.setId(id);
+        for (var subject : course.getSubjects()) {
+            subject.setId(++id);
+        }
+        json = objectMapper.writeValueAsBytes(course);
+    }
+
+    @Benchmark
+    public byte[] serializeCourse() throws IOException {
+        return objectMapper.writeValueAsBytes(course);
+    }
+
+    @Benchmark
+    public Course deserializeCourse() throws IOException {
+        return objectMapper.readValue(json, Course.class);
+    }
+}
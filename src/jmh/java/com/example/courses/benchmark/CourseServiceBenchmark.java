@@ -0,0 +1,102 @@
+package com.example.courses.benchmark;
+
+import com.example.courses.dto.CourseView;
+import com.example.courses.dto.SubjectView;
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.example.courses.service.CatalogCache;
+import com.example.courses.service.CourseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// CourseService read and write paths against embedded H2
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourseServiceBenchmark {
+
+    private final AtomicLong names = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private CourseService courseService;
+    private CatalogCache catalogCache;
+    private List<Long> courseIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkCatalog.start(WebApplicationType.NONE);
+        courseService = context.getBean(CourseService.class);
+        catalogCache = context.getBean(CatalogCache.class);
+        courseIds = courseService.getCoursesAfter(null, BenchmarkCatalog.COURSES).stream().map(CourseView::id).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private Long randomCourseId() {
+        return courseIds.get(ThreadLocalRandom.current().nextInt(courseIds.size()));
+    }
+
+    @Benchmark
+    public CourseView getCourseByIdCached() {
+        return courseService.getCourseById(randomCourseId());
+    }
+
+    @Benchmark
+    public CourseView getCourseByIdUncached() {
+        catalogCache.evictAll();
+        return courseService.getCourseById(randomCourseId());
+    }
+
+    @Benchmark
+    public List<SubjectView> getSubjectsByCourseId() {
+        return courseService.getSubjectsByCourseId(randomCourseId());
+    }
+
+    @Benchmark
+    public List<CourseView> getCoursePage() {
+        return courseService.getCoursesAfter(randomCourseId(), 100);
+    }
+
+    @Benchmark
+    public boolean createAndDeleteCourse() {
+        Course created = courseService.createCourse(
+                BenchmarkCatalog.course("Benchmark write " + names.incrementAndGet(), BenchmarkCatalog.SUBJECTS_PER_COURSE));
+        return courseService.deleteCourse(created.getId(), null);
+    }
+
+    @Benchmark
+    public Subject addAndRenameSubject() {
+        Long courseId = randomCourseId();
+        Subject subject = new Subject();
+        subject.setTitle("Benchmark subject " + names.incrementAndGet());
+        Subject added = courseService.addSubjectToCourse(courseId, subject);
+        Subject renamed = new Subject();
+        renamed.setTitle(subject.getTitle() + " (renamed)");
+        Subject updated = courseService.updateSubjectInCourse(courseId, added.getId(), renamed, null);
+        courseService.deleteSubjectInCourse(courseId, added.getId(), null);
+        return updated;
+    }
+}
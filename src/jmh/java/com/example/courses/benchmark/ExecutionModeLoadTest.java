@@ -0,0 +1,178 @@
+package com.example.courses.benchmark;
+
+import com.example.courses.CourseServiceApplication;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop load test of GET /api/feign-test/courses/{id} in both execution modes. Each request blocks on a
+ * Feign call to a local stub that answers after a fixed delay, so the server's thread model is the bottleneck.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.courses.benchmark.ExecutionModeLoadTest -Dexec.args="400 15 100"
+ * </pre>
+ * Arguments: concurrent clients, measured seconds per mode, stub delay in milliseconds.
+ */
+public final class ExecutionModeLoadTest {
+
+    private static final byte[] STUB_COURSE = "{\"id\":1,\"name\":\"Stub course\",\"subjects\":[]}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private ExecutionModeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+        int delayMillis = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        HttpServer stub = startStub(delayMillis, inFlight, peakInFlight);
+        try {
+            List<String> report = new ArrayList<>();
+            for (boolean virtual : new boolean[] {false, true}) {
+                peakInFlight.set(0);
+                report.add(run(virtual, stub.getAddress().getPort(), clients, seconds, peakInFlight));
+            }
+            System.out.printf("%nclients=%d, stub delay=%dms, %ds per mode%n", clients, delayMillis, seconds);
+            System.out.printf("%-9s %10s %9s %9s %9s %16s %7s%n",
+                    "mode", "req/s", "p50 ms", "p99 ms", "max ms", "peak concurrent", "errors");
+            report.forEach(System.out::println);
+        } finally {
+            stub.stop(0);
+        }
+    }
+
+    private static String run(boolean virtual, int stubPort, int clients, int seconds, AtomicInteger peakInFlight)
+            throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CourseServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "course-service.url=http://localhost:" + stubPort,
+                        // Let every client reach the stub, so the request thread model stays the only limit
+                        "course-service.bulkhead.max-concurrent-calls=" + clients,
+                        "spring.cloud.openfeign.httpclient.max-connections=" + clients,
+                        "spring.cloud.openfeign.httpclient.max-connections-per-route=" + clients,
+                        "spring.cloud.openfeign.client.config.course-service.read-timeout=30000",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN")
+                .run()) {
+            String baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/feign-test/courses/";
+            load(baseUri, clients, Duration.ofSeconds(3));
+            peakInFlight.set(0);
+            long start = System.nanoTime();
+            Result result = load(baseUri, clients, Duration.ofSeconds(seconds));
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            long[] latencies = result.latencies();
+            Arrays.sort(latencies);
+            return String.format("%-9s %10.0f %9.1f %9.1f %9.1f %16d %7d",
+                    virtual ? "virtual" : "platform", latencies.length / elapsed,
+                    percentile(latencies, 50), percentile(latencies, 99), percentile(latencies, 100),
+                    peakInFlight.get(), result.errors());
+        }
+    }
+
+    private record Result(long[] latencies, int errors) {
+    }
+
+    // Every client sends its next request as soon as the previous one completes, until the deadline. Each client
+    // asks for its own course id, so concurrent requests are not coalesced into one downstream call.
+    private static Result load(String baseUri, int clients, Duration duration) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<long[]> perClient = new ArrayList<>();
+        AtomicInteger errors = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long[] samples = new long[1 << 16];
+                perClient.add(samples);
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + (c + 1)))
+                        .timeout(Duration.ofSeconds(30)).GET().build();
+                executor.submit(() -> {
+                    int n = 0;
+                    while (System.nanoTime() < deadline && n < samples.length - 1) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException ex) {
+                            errors.incrementAndGet();
+                            continue;
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        samples[++n] = System.nanoTime() - sent;
+                    }
+                    samples[0] = n;
+                });
+            }
+        }
+        int total = perClient.stream().mapToInt(samples -> (int) samples[0]).sum();
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (long[] samples : perClient) {
+            int n = (int) samples[0];
+            System.arraycopy(samples, 1, latencies, offset, n);
+            offset += n;
+        }
+        return new Result(latencies, errors.get());
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // Downstream stand-in: answers every course lookup after a fixed delay and tracks how many calls overlap
+    private static HttpServer startStub(int delayMillis, AtomicInteger inFlight, AtomicInteger peakInFlight)
+            throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/courses/", exchange -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(delayMillis);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, STUB_COURSE.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(STUB_COURSE);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.courses.benchmark;
+
+import com.example.courses.model.Course;
+import com.example.courses.model.NameKeys;
+import com.example.courses.repository.CourseRepository;
+import com.example.courses.service.CourseImportService;
+import com.example.courses.service.CourseService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Duplicate-name checks on a catalog of 20,000 courses: the pre-index check (an equality match on the unindexed
+ * name column) against the normalized-key lookup the unique index serves, and createCourse end to end with the
+ * in-memory name index off and on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NameCheckBenchmark {
+
+    private static final int EXTRA_COURSES = 19_000;
+
+    @Param({"false", "true"})
+    public boolean nameIndex;
+
+    private final AtomicLong names = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private CourseService courseService;
+    private CourseRepository courseRepository;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkCatalog.start(WebApplicationType.NONE, "courses.name-index.enabled=" + nameIndex);
+        List<Course> extra = BenchmarkCatalog.courses("Name check course ", EXTRA_COURSES);
+        extra.forEach(course -> course.getSubjects().clear());
+        context.getBean(CourseImportService.class).importCourses(extra.iterator());
+        courseService = context.getBean(CourseService.class);
+        courseRepository = context.getBean(CourseRepository.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String newName() {
+        return "New course " + names.incrementAndGet();
+    }
+
+    @Benchmark
+    public Course createCourse() {
+        Course course = new Course();
+        course.setName(newName());
+        return courseService.createCourse(course);
+    }
+
+    // The check createCourse used to run: findByName on a column with no index
+    @Benchmark
+    public List<Long> checkByNameColumn() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery("select c.id from Course c where c.name = :name", Long.class)
+                    .setParameter("name", newName())
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public Object checkByNameKey() {
+        return courseRepository.findIdByNameKey(NameKeys.normalize(newName()));
+    }
+}
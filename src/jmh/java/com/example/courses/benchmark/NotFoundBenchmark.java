@@ -0,0 +1,115 @@
+package com.example.courses.benchmark;
+
+import com.example.courses.service.NotFoundException;
+import jakarta.persistence.EntityNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// The 404 path: GET /api/courses/{id}, /api/courses/{id}/subjects and /api/subjects/{id} through MockMvc for ids
+// that have no course or subject, as a crawler probing ids would send them. throwAndCatch isolates the exception
+// itself: a message-built EntityNotFoundException with its stack trace against a NotFoundException, each thrown
+// from 'depth' frames down (about where the services sit below the servlet filters and MVC handler in a request)
+// and caught and read the way GlobalExceptionHandler does. The request benchmarks need a long warm-up on few cores.
+// Run with -prof gc for the heap allocated per operation (gc.alloc.rate.norm):
+// ./mvnw -Pbenchmark verify -DskipTests -Djmh.args="NotFoundBenchmark -prof gc"
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 15, time = 4)
+@Measurement(iterations = 5, time = 4)
+@Fork(1)
+public class NotFoundBenchmark {
+
+    private static final long MISSING_IDS_FROM = 1_000_000_000L;
+
+    @State(Scope.Benchmark)
+    public static class Web {
+
+        private ConfigurableApplicationContext context;
+        private MockMvc mockMvc;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = BenchmarkCatalog.start(WebApplicationType.SERVLET,
+                    "spring.jpa.show-sql=false",
+                    "logging.level.com.example=WARN",
+                    "logging.level.org.springframework.web=WARN");
+            mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Thrown {
+
+        @Param({"EntityNotFoundException", "NotFoundException"})
+        private String exception;
+
+        @Param({"128"})
+        private int depth;
+    }
+
+    private static long missingId() {
+        return MISSING_IDS_FROM + ThreadLocalRandom.current().nextInt(1_000_000);
+    }
+
+    @Benchmark
+    public byte[] getMissingCourse(Web web) throws Exception {
+        return web.mockMvc.perform(get("/api/courses/{id}", missingId()))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] getSubjectsOfMissingCourse(Web web) throws Exception {
+        return web.mockMvc.perform(get("/api/courses/{id}/subjects", missingId()))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] getMissingSubject(Web web) throws Exception {
+        return web.mockMvc.perform(get("/api/subjects/{id}", missingId()))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public String throwAndCatch(Thrown thrown) {
+        try {
+            return lookUp(thrown, missingId(), thrown.depth);
+        } catch (EntityNotFoundException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    private static String lookUp(Thrown thrown, long id, int depth) {
+        if (depth > 0) {
+            return lookUp(thrown, id, depth - 1);
+        }
+        throw thrown.exception.equals("NotFoundException")
+                ? NotFoundException.course(id)
+                : new EntityNotFoundException("Course not found with id: " + id);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.courses.benchmark;
+
+import com.example.courses.CourseServiceApplication;
+import com.example.courses.controller.ReactiveServer;
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.example.courses.service.CourseImportResult;
+import com.example.courses.service.CourseImportService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of GET /api/courses/{id} on the servlet stack (platform and virtual request threads)
+ * against GET /reactive/api/courses/{id} on the reactive read path. The catalog cache is switched off, so every
+ * request of either stack reads the course and its subjects from the database. Reported per stack: throughput,
+ * latency percentiles, the peak number of live JVM threads and the peak heap in use while under load (both include
+ * the load generator, which is the same for every stack).
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.courses.benchmark.ReactiveLoadTest -Dexec.args="1000 15 500"
+ * </pre>
+ * Arguments: concurrent clients, measured seconds per stack, courses in the catalog. Runs on the test H2 database
+ * unless -Dspring.datasource.url (and username/password) point at MySQL; the R2DBC H2 driver does its work on the
+ * calling thread, so only MySQL shows the reactive path with a truly non-blocking driver.
+ */
+public final class ReactiveLoadTest {
+
+    private static final int SUBJECTS_PER_COURSE = 10;
+
+    private ReactiveLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+        int courses = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        List<String> report = new ArrayList<>();
+        report.add(run("servlet", false, clients, seconds, courses));
+        report.add(run("virtual", true, clients, seconds, courses));
+        report.add(run("reactive", false, clients, seconds, courses));
+        System.out.printf("%nclients=%d, %ds per stack, %d courses of %d subjects%n",
+                clients, seconds, courses, SUBJECTS_PER_COURSE);
+        System.out.printf("%-9s %10s %9s %9s %9s %12s %13s %7s%n",
+                "stack", "req/s", "p50 ms", "p99 ms", "max ms", "peak threads", "peak heap MB", "errors");
+        report.forEach(System.out::println);
+    }
+
+    private static String run(String stack, boolean virtual, int clients, int seconds, int courses) throws Exception {
+        boolean reactive = stack.equals("reactive");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CourseServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "courses.reactive.enabled=" + reactive,
+                        "courses.reactive.port=0",
+                        "courses.reactive.pool.max-size=20",
+                        "spring.datasource.hikari.maximum-pool-size=20",
+                        "courses.cache.maximum-size=0",
+                        "courses.seed.mode=off",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example=WARN")
+                .run()) {
+            List<Long> ids = seed(context.getBean(CourseImportService.class), courses);
+            String baseUri = reactive
+                    ? "http://localhost:" + context.getBean(ReactiveServer.class).getPort() + "/reactive/api/courses/"
+                    : "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/courses/";
+            load(baseUri, ids, clients, Duration.ofSeconds(3), null);
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            System.gc();
+            threads.resetPeakThreadCount();
+            AtomicLong peakHeap = new AtomicLong();
+            long start = System.nanoTime();
+            Result result = load(baseUri, ids, clients, Duration.ofSeconds(seconds),
+                    () -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max));
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            long[] latencies = result.latencies();
+            Arrays.sort(latencies);
+            return String.format("%-9s %10.0f %9.1f %9.1f %9.1f %12d %13d %7d",
+                    stack, latencies.length / elapsed,
+                    percentile(latencies, 50), percentile(latencies, 99), percentile(latencies, 100),
+                    threads.getPeakThreadCount(), peakHeap.get() >> 20, result.errors());
+        }
+    }
+
+    private static List<Long> seed(CourseImportService importService, int courses) {
+        List<Course> rows = new ArrayList<>();
+        for (int c = 0; c < courses; c++) {
+            Course course = new Course();
+            course.setName("Load course " + c);
+            for (int s = 0; s < SUBJECTS_PER_COURSE; s++) {
+                Subject subject = new Subject();
+                subject.setTitle("Load course " + c + " subject " + s);
+                course.addSubject(subject);
+            }
+            rows.add(course);
+        }
+        return importService.importCourses(rows.iterator()).stream()
+                .map(CourseImportResult::id)
+                .toList();
+    }
+
+    private record Result(long[] latencies, int errors) {
+    }
+
+    // Every client sends its next request as soon as the previous one completes, until the deadline, cycling
+    // through the course ids; 'sample' runs every 100 ms while the load lasts
+    private static Result load(String baseUri, List<Long> ids, int clients, Duration duration, Runnable sample)
+            throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<long[]> perClient = new ArrayList<>();
+        AtomicInteger errors = new AtomicInteger();
+        Thread sampler = sample == null ? null : Thread.ofVirtual().start(() -> {
+            while (System.nanoTime() < deadline) {
+                sample.run();
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        });
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long[] samples = new long[1 << 16];
+                perClient.add(samples);
+                int first = c;
+                executor.submit(() -> {
+                    int n = 0;
+                    int next = first;
+                    while (System.nanoTime() < deadline && n < samples.length - 1) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + ids.get(next++ % ids.size())))
+                                .timeout(Duration.ofSeconds(30)).GET().build();
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException ex) {
+                            errors.incrementAndGet();
+                            continue;
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        samples[++n] = System.nanoTime() - sent;
+                    }
+                    samples[0] = n;
+                });
+            }
+        }
+        if (sampler != null) {
+            sampler.join();
+        }
+        int total = perClient.stream().mapToInt(samples -> (int) samples[0]).sum();
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (long[] samples : perClient) {
+            int n = (int) samples[0];
+            System.arraycopy(samples, 1, latencies, offset, n);
+            offset += n;
+        }
+        return new Result(latencies, errors.get());
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.courses.benchmark;
+
+import com.example.courses.dto.CourseView;
+import com.example.courses.model.Course;
+import com.example.courses.repository.CourseRepository;
+import com.example.courses.service.CatalogCache;
+import com.example.courses.service.CourseService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity read path (managed Course graphs serialized by Jackson) against the DTO projection read path, for a single
+ * course and a 100-course page. Run with {@code -prof gc} for allocation per operation; payload sizes are printed
+ * during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadModelBenchmark {
+
+    private static final int PAGE = 100;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private CourseService courseService;
+    private CatalogCache catalogCache;
+    private ObjectMapper objectMapper;
+    private List<Long> courseIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkCatalog.start(WebApplicationType.NONE);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        courseService = context.getBean(CourseService.class);
+        catalogCache = context.getBean(CatalogCache.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        courseIds = context.getBean(CourseRepository.class).findAllWithSubjects().stream().map(Course::getId).toList();
+        System.out.printf("%npayload bytes: course entity=%d view=%d, page entity=%d view=%d%n",
+                entityCourse(courseIds.get(0)).length, viewCourse(courseIds.get(0)).length,
+                entityPage(courseIds.get(0)).length, viewPage(courseIds.get(0)).length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private Long randomStart() {
+        return courseIds.get(ThreadLocalRandom.current().nextInt(courseIds.size() - PAGE));
+    }
+
+    @Benchmark
+    public byte[] courseEntity() throws IOException {
+        return entityCourse(randomStart());
+    }
+
+    @Benchmark
+    public byte[] courseView() throws IOException {
+        return viewCourse(randomStart());
+    }
+
+    @Benchmark
+    public byte[] pageEntity() throws IOException {
+        return entityPage(randomStart());
+    }
+
+    @Benchmark
+    public byte[] pageView() throws IOException {
+        return viewPage(randomStart());
+    }
+
+    // What the endpoints did before: a request-scoped EntityManager, a fetch join, and Jackson walking the entities
+    private byte[] entityCourse(Long id) throws IOException {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            Course course = entityManager.createQuery(
+                            "select c from Course c left join fetch c.subjects where c.id = :id", Course.class)
+                    .setParameter("id", id)
+                    .getSingleResult();
+            return objectMapper.writeValueAsBytes(course);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private byte[] entityPage(Long afterId) throws IOException {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Long> ids = entityManager.createQuery(
+                            "select c.id from Course c where c.id > :afterId order by c.id", Long.class)
+                    .setParameter("afterId", afterId)
+                    .setMaxResults(PAGE)
+                    .getResultList();
+            List<Course> courses = entityManager.createQuery(
+                            "select distinct c from Course c left join fetch c.subjects where c.id in :ids order by c.id",
+                            Course.class)
+                    .setParameter("ids", ids)
+                    .getResultList();
+            return objectMapper.writeValueAsBytes(courses);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    // The projection path the endpoints use now; the cache is bypassed so both paths hit the database
+    private byte[] viewCourse(Long id) throws IOException {
+        catalogCache.evictAll();
+        CourseView course = courseService.getCourseById(id);
+        return objectMapper.writeValueAsBytes(course);
+    }
+
+    private byte[] viewPage(Long afterId) throws IOException {
+        return objectMapper.writeValueAsBytes(courseService.getCoursesAfter(afterId, PAGE));
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.courses.benchmark;
+
+import com.example.courses.dto.SearchHit;
+import com.example.courses.dto.SubjectView;
+import com.example.courses.model.NameKeys;
+import com.example.courses.service.SearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency over 1,000,000 subjects (10,000 courses of 100, titled with three words from a 2,000-word
+ * vocabulary): the inverted index behind /api/search against a LIKE '%term%' query on the subject table.
+ * The catalog is inserted over JDBC and then loaded into the index with a rebuild, as at startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SearchBenchmark {
+
+    private static final int COURSES = 10_000;
+    private static final int SUBJECTS_PER_COURSE = 100;
+    private static final int VOCABULARY = 2_000;
+    private static final long FIRST_ID = 10_000_000L;
+    private static final int INSERT_BATCH = 10_000;
+    private static final String[] SYLLABLES = {
+            "ba", "be", "ca", "co", "da", "de", "fa", "fi", "ga", "go", "ha", "hi", "ka", "ko", "la", "le",
+            "ma", "mi", "na", "no", "pa", "pe", "ra", "ri", "sa", "se", "ta", "ti", "va", "vo", "za", "zu"};
+
+    // A whole word, a three-letter prefix, a two-word phrase ending in a prefix, a two-letter prefix that matches
+    // many words, and a term that matches nothing
+    @Param({"learning", "lea", "machine lea", "ma", "xyzzy"})
+    public String query;
+
+    private ConfigurableApplicationContext context;
+    private SearchIndex searchIndex;
+    private EntityManagerFactory entityManagerFactory;
+    private String likePattern;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkCatalog.start(WebApplicationType.NONE);
+        insertCatalog(context.getBean(JdbcTemplate.class));
+        searchIndex = context.getBean(SearchIndex.class);
+        searchIndex.rebuild();
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        likePattern = "%" + query + "%";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SearchHit> searchIndex() {
+        return searchIndex.search(query, 0, 20);
+    }
+
+    // What a search on the subject table amounts to without the index: an unanchored LIKE that no index can serve
+    @Benchmark
+    public List<SubjectView> likeScan() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery("select new com.example.courses.dto.SubjectView(s.id, s.title, s.course.id, s.version) "
+                            + "from Subject s where lower(s.title) like :pattern order by s.id", SubjectView.class)
+                    .setParameter("pattern", likePattern)
+                    .setMaxResults(20)
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static void insertCatalog(JdbcTemplate jdbc) {
+        Random random = new Random(42);
+        List<String> words = vocabulary(random);
+        Set<String> titles = new HashSet<>();
+        List<Object[]> courses = new ArrayList<>(COURSES);
+        List<Object[]> subjects = new ArrayList<>(INSERT_BATCH);
+        long subjectId = FIRST_ID;
+        for (int c = 0; c < COURSES; c++) {
+            long courseId = FIRST_ID + c;
+            String name = capitalize(words.get(random.nextInt(VOCABULARY))) + " track " + c;
+            courses.add(new Object[]{courseId, name, NameKeys.normalize(name)});
+            for (int s = 0; s < SUBJECTS_PER_COURSE; s++) {
+                String title;
+                do {
+                    title = capitalize(words.get(random.nextInt(VOCABULARY))) + " "
+                            + words.get(random.nextInt(VOCABULARY)) + " " + words.get(random.nextInt(VOCABULARY));
+                } while (!titles.add(title));
+                subjects.add(new Object[]{subjectId++, title, NameKeys.normalize(title), courseId});
+            }
+            if (subjects.size() >= INSERT_BATCH) {
+                flush(jdbc, courses, subjects);
+            }
+        }
+        flush(jdbc, courses, subjects);
+    }
+
+    private static void flush(JdbcTemplate jdbc, List<Object[]> courses, List<Object[]> subjects) {
+        jdbc.batchUpdate("insert into course (id, name, name_key) values (?, ?, ?)", courses);
+        jdbc.batchUpdate("insert into subject (id, title, title_key, course_id) values (?, ?, ?, ?)", subjects);
+        courses.clear();
+        subjects.clear();
+    }
+
+    // Real words the queries look for, padded with made-up words of two to four syllables
+    private static List<String> vocabulary(Random random) {
+        Set<String> words = new HashSet<>(List.of("machine", "learning", "data", "systems", "networks", "theory",
+                "design", "analysis", "leadership", "learned", "mathematics", "management"));
+        while (words.size() < VOCABULARY) {
+            StringBuilder word = new StringBuilder();
+            for (int i = 2 + random.nextInt(3); i > 0; i--) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words.add(word.toString());
+        }
+        List<String> sorted = new ArrayList<>(words);
+        sorted.sort(null);
+        return sorted;
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
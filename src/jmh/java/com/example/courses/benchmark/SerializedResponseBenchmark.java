@@ -0,0 +1,88 @@
+package com.example.courses.benchmark;
+
+import com.example.courses.dto.CourseView;
+import com.example.courses.service.CourseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// GET /api/courses/{id} and /api/courses/{id}/subjects through MockMvc with the views cached and serialized per
+// request (serializedResponses=false), and with the serialized JSON cached (true), plain and gzipped. The whole
+// catalog fits the cache, so after warm-up every request is a hit. Run with -prof gc for the heap allocated per
+// request (gc.alloc.rate.norm):
+// ./mvnw -Pbenchmark verify -DskipTests -Djmh.args="SerializedResponseBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializedResponseBenchmark {
+
+    @Param({"false", "true"})
+    private boolean serializedResponses;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private List<Long> courseIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkCatalog.start(WebApplicationType.SERVLET,
+                "courses.cache.serialized-responses=" + serializedResponses,
+                "spring.jpa.show-sql=false",
+                "logging.level.com.example=WARN");
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        courseIds = context.getBean(CourseService.class).getCoursesAfter(null, BenchmarkCatalog.COURSES)
+                .stream().map(CourseView::id).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private Long randomCourseId() {
+        return courseIds.get(ThreadLocalRandom.current().nextInt(courseIds.size()));
+    }
+
+    @Benchmark
+    public byte[] getCourseById() throws Exception {
+        return mockMvc.perform(get("/api/courses/{id}", randomCourseId()))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] getCourseByIdGzip() throws Exception {
+        return mockMvc.perform(get("/api/courses/{id}", randomCourseId()).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] getSubjectsByCourseId() throws Exception {
+        return mockMvc.perform(get("/api/courses/{id}/subjects", randomCourseId()))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.courses.benchmark;
+
+import com.example.courses.CourseServiceApplication;
+import com.example.courses.service.CatalogCache;
+import com.example.courses.service.CourseImportResult;
+import com.example.courses.service.CourseImportService;
+import com.example.courses.service.CourseService;
+import com.sun.management.ThreadMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop load test of GET /api/courses/{id} served three ways: by JPA with the catalog cache off, by JPA with
+ * the catalog cache on (the default), and from the off-heap catalog snapshot (courses.snapshot.enabled). Reported
+ * per mode: throughput, latency percentiles, the stop-the-world collections during the measured window (count, and
+ * collection time per 10,000 requests), heap allocated per request, the heap the catalog cache keeps (what evicting it frees after a full
+ * collection; the snapshot keeps only a few objects on the heap) and the off-heap bytes of the snapshot. Allocation
+ * includes the load generator, which is the same for every mode.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.courses.benchmark.SnapshotLoadTest -Dexec.args="64 15 30000"
+ * </pre>
+ * Arguments: concurrent clients, measured seconds per mode, courses in the catalog. The embedded H2 database lives
+ * in the same heap, so keep the heap well above the catalog's size or full collections of the database dominate.
+ */
+public final class SnapshotLoadTest {
+
+    private SnapshotLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+        int courses = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+
+        List<String> report = new ArrayList<>();
+        report.add(run("jpa", clients, seconds, courses, "courses.cache.maximum-size=0"));
+        report.add(run("jpa+cache", clients, seconds, courses, "courses.cache.maximum-size=" + courses * 2));
+        report.add(run("snapshot", clients, seconds, courses, "courses.cache.maximum-size=0",
+                "courses.snapshot.enabled=true"));
+        System.out.printf("%nclients=%d, %ds per mode, %d courses of %d subjects%n",
+                clients, seconds, courses, BenchmarkCatalog.SUBJECTS_PER_COURSE);
+        System.out.printf("%-10s %9s %8s %8s %6s %10s %10s %13s %12s %7s%n",
+                "mode", "req/s", "p50 ms", "p99 ms", "GCs", "GC ms/10k", "KB/req", "cache heap MB", "off-heap MB", "errors");
+        report.forEach(System.out::println);
+    }
+
+    private static String run(String mode, int clients, int seconds, int courses, String... properties)
+            throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CourseServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        // Dropped when the pool closes, so one mode's database does not count in the next one's heap
+                        "spring.datasource.url=jdbc:h2:mem:snapshot-load;MODE=MySQL",
+                        "courses.seed.mode=off",
+                        "courses.snapshot.rebuild-delay=0ms",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example=WARN")
+                .properties(properties)
+                .run()) {
+            List<Long> ids = seed(context.getBean(CourseImportService.class), courses);
+            String baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/courses/";
+            // Every course in the cache (when it is on), then warm up, which also lets the snapshot catch up
+            for (int from = 0; from < ids.size(); from += 1000) {
+                context.getBean(CourseService.class).getCoursesByIds(ids.subList(from, Math.min(ids.size(), from + 1000)));
+            }
+            load(baseUri, ids, clients, Duration.ofSeconds(5));
+
+            ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+            System.gc();
+            long[] gcBefore = pauses();
+            long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+            long start = System.nanoTime();
+            Result result = load(baseUri, ids, clients, Duration.ofSeconds(seconds));
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+            long[] gcAfter = pauses();
+
+            // Heap the catalog cache keeps: what evicting it frees
+            long cached = liveHeap();
+            context.getBean(CatalogCache.class).evictAll();
+            double cacheHeap = cached - liveHeap();
+            Gauge offHeap = context.getBean(MeterRegistry.class).find("courses.snapshot.bytes").gauge();
+            long[] latencies = result.latencies();
+            Arrays.sort(latencies);
+            return String.format("%-10s %9.0f %8.1f %8.1f %6d %10.1f %10.1f %13.1f %12.1f %7d",
+                    mode, latencies.length / elapsed, percentile(latencies, 50), percentile(latencies, 99),
+                    gcAfter[0] - gcBefore[0], (gcAfter[1] - gcBefore[1]) * 10_000.0 / latencies.length,
+                    latencies.length == 0 ? Double.NaN : allocated / 1024.0 / latencies.length,
+                    cacheHeap / (1 << 20), offHeap != null ? offHeap.value() / (1 << 20) : 0.0, result.errors());
+        }
+    }
+
+    private static long liveHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // Collection count and time of the stop-the-world collectors (G1's concurrent cycles are left out)
+    private static long[] pauses() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!collector.getName().contains("Concurrent")) {
+                count += collector.getCollectionCount();
+                millis += collector.getCollectionTime();
+            }
+        }
+        return new long[]{count, millis};
+    }
+
+    private static List<Long> seed(CourseImportService importService, int courses) {
+        return importService.importCourses(BenchmarkCatalog.courses("Snapshot load course ", courses).iterator())
+                .stream()
+                .map(CourseImportResult::id)
+                .toList();
+    }
+
+    private record Result(long[] latencies, int errors) {
+    }
+
+    // Every client sends its next request as soon as the previous one completes, until the deadline, cycling
+    // through the course ids
+    private static Result load(String baseUri, List<Long> ids, int clients, Duration duration)
+            throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<long[]> perClient = new ArrayList<>();
+        AtomicInteger errors = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long[] samples = new long[1 << 18];
+                perClient.add(samples);
+                int first = c * (ids.size() / clients);
+                executor.submit(() -> {
+                    int n = 0;
+                    int next = first;
+                    while (System.nanoTime() < deadline && n < samples.length - 1) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + ids.get(next++ % ids.size())))
+                                .timeout(Duration.ofSeconds(30)).GET().build();
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException ex) {
+                            errors.incrementAndGet();
+                            continue;
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        samples[++n] = System.nanoTime() - sent;
+                    }
+                    samples[0] = n;
+                });
+            }
+        }
+        int total = perClient.stream().mapToInt(samples -> (int) samples[0]).sum();
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (long[] samples : perClient) {
+            int n = (int) samples[0];
+            System.arraycopy(samples, 1, latencies, offset, n);
+            offset += n;
+        }
+        return new Result(latencies, errors.get());
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
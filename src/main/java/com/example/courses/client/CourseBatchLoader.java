@@ -0,0 +1,88 @@
+package com.example.courses.client;
+
+import com.example.courses.dto.BatchEntry;
+import com.example.courses.model.Course;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Gathers the course ids looked up within a short window into one batch-get. The first caller opens a batch and
+// sends it once the window has passed or max-size ids have joined; later callers just join and wait for the same
+// answer, so one id asked for by many callers is also fetched once.
+final class CourseBatchLoader {
+
+    private final Function<List<Long>, Map<Long, BatchEntry<Course>>> fetch;
+    private final Duration window;
+    private final int maxSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch open;
+
+    CourseBatchLoader(Function<List<Long>, Map<Long, BatchEntry<Course>>> fetch, Duration window, int maxSize) {
+        this.fetch = fetch;
+        this.window = window;
+        this.maxSize = maxSize;
+    }
+
+    // The answer of the batch the id went into (keyed by id)
+    CompletableFuture<Map<Long, BatchEntry<Course>>> load(Long id) {
+        Batch batch;
+        boolean leader = false;
+        lock.lock();
+        try {
+            if (open == null) {
+                open = new Batch();
+                leader = true;
+            }
+            batch = open;
+            batch.ids.add(id);
+            if (batch.ids.size() >= maxSize) {
+                open = null;
+                batch.full.countDown();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (leader) {
+            dispatch(batch);
+        }
+        return batch.result;
+    }
+
+    private void dispatch(Batch batch) {
+        try {
+            batch.full.await(window.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            // Send what has gathered so far; the caller sees its interrupt afterwards
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            if (open == batch) {
+                open = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Closed: nobody adds to the ids any more
+        try {
+            batch.result.complete(fetch.apply(List.copyOf(batch.ids)));
+        } catch (RuntimeException ex) {
+            batch.result.completeExceptionally(ex);
+        }
+    }
+
+    private static final class Batch {
+
+        private final Set<Long> ids = new LinkedHashSet<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+        private final CompletableFuture<Map<Long, BatchEntry<Course>>> result = new CompletableFuture<>();
+    }
+}
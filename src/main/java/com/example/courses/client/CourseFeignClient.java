@@ -1,32 +1,35 @@
 package com.example.courses.client;
 
+import com.example.courses.dto.BatchEntry;
 import com.example.courses.model.Course;
 
 import org.springframework.cloud.openfeign.FeignClient; // Correct import
-import org.springframework.stereotype.Component;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
+import java.util.Map;
 
-@FeignClient(name = "course-service", url = "http://localhost:8081") // Defines the Feign client for the course service
+// Defines the Feign client for the course service; call it through ResilientCourseClient, which adds the
+// circuit breaker, bulkhead, fallbacks and request coalescing
+@FeignClient(name = "course-service", url = "${course-service.url:http://localhost:8081}")
 public interface CourseFeignClient {
 
+    // One keyset page; the X-Next-Cursor header of the answer is the cursor of the next page, absent on the last
     @GetMapping("/api/courses")
-    List<Course> getAllCourses();
+    ResponseEntity<List<Course>> getCoursePage(@RequestParam(value = "cursor", required = false) String cursor,
+                                               @RequestParam("limit") int limit);
 
     @GetMapping("/api/courses/{id}")
     Course getCourseById(@PathVariable("id") Long id);
+
+    @PostMapping("/api/courses/batch-get")
+    Map<Long, BatchEntry<Course>> getCoursesByIds(@RequestBody List<Long> ids);
     
     @GetMapping("/names")
     List<String> getNames();
-    
-    @Component
-	abstract
-    class CourseFeignFallback implements CourseFeignClient {
-        @Override
-        public List<String> getNames() {
-            return List.of("Fallback Name");
-        }
-    }
-}
\ No newline at end of file
+}
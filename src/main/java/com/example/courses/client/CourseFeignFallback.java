@@ -0,0 +1,60 @@
+package com.example.courses.client;
+
+import com.example.courses.model.Course;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.List;
+
+// Last known good answers from course-service, served while it is failing, too slow or shedding load
+class CourseFeignFallback {
+
+    private final Cache<Long, Course> coursesById;
+    private volatile List<Course> allCourses;
+    private volatile List<String> names = List.of("Fallback Name");
+
+    CourseFeignFallback(long maximumSize) {
+        this.coursesById = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    // --- Recording successful answers ---
+
+    void rememberCourse(Course course) {
+        if (course != null && course.getId() != null) {
+            coursesById.put(course.getId(), course);
+        }
+    }
+
+    void rememberAllCourses(List<Course> courses) {
+        allCourses = courses;
+        courses.forEach(this::rememberCourse);
+    }
+
+    void rememberNames(List<String> names) {
+        this.names = names;
+    }
+
+    // --- Serving them (nothing known yet means the failure surfaces as 503) ---
+
+    Course getCourseById(Long id, Throwable cause) {
+        Course course = coursesById.getIfPresent(id);
+        if (course == null) {
+            throw new CourseServiceUnavailableException("course-service unavailable and course " + id
+                    + " has not been seen before", cause);
+        }
+        return course;
+    }
+
+    List<Course> getAllCourses(Throwable cause) {
+        List<Course> courses = allCourses;
+        if (courses == null) {
+            throw new CourseServiceUnavailableException("course-service unavailable and no course list has been "
+                    + "seen before", cause);
+        }
+        return courses;
+    }
+
+    List<String> getNames(Throwable cause) {
+        return names;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.courses.client;
+
+// course-service could not answer (open circuit, full bulkhead, timeout or 5xx) and no fallback value exists
+public class CourseServiceUnavailableException extends RuntimeException {
+
+    public CourseServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.courses.client;
+
+import com.example.courses.dto.BatchEntry;
+import com.example.courses.metrics.RequestMetrics;
+import com.example.courses.model.Course;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Guarded entry point for course-service. Every call passes a bulkhead (bounded concurrency, no queueing) and a
+// circuit breaker before reaching the pooled Feign client; failures are answered from the last known good value.
+// Concurrent lookups of the same course share one outbound request; with batching enabled, lookups of different
+// courses within a short window also share one (a batch-get). Returned courses are shared between callers and must
+// be treated as read-only.
+@Component
+public class ResilientCourseClient {
+
+    static final String NAME = "course-service";
+
+    // The largest page course-service hands out, and the header carrying the cursor of the next one
+    static final int PAGE_SIZE = 1000;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilientCourseClient.class);
+
+    private final CourseFeignClient courseFeignClient;
+    private final CourseFeignFallback fallback;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final ConcurrentMap<Long, CompletableFuture<Course>> inFlightById = new ConcurrentHashMap<>();
+    private final CourseBatchLoader batchLoader;
+
+    public ResilientCourseClient(CourseFeignClient courseFeignClient, MeterRegistry meterRegistry,
+                                 @Value("${course-service.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                                 @Value("${course-service.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+                                 @Value("${course-service.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                                 @Value("${course-service.circuit-breaker.wait-in-open-state:10s}") Duration waitInOpenState,
+                                 @Value("${course-service.bulkhead.max-concurrent-calls:25}") int maxConcurrentCalls,
+                                 @Value("${course-service.fallback.maximum-size:10000}") long fallbackSize,
+                                 @Value("${course-service.batching.enabled:false}") boolean batching,
+                                 @Value("${course-service.batching.window:2ms}") Duration batchWindow,
+                                 @Value("${course-service.batching.max-size:100}") int batchMaxSize) {
+        this.courseFeignClient = courseFeignClient;
+        this.fallback = new CourseFeignFallback(fallbackSize);
+
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(waitInOpenState)
+                // A 4xx answer means course-service is up; it neither opens nor closes the circuit
+                .ignoreExceptions(FeignException.FeignClientException.class)
+                .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker(NAME);
+        this.bulkhead = bulkheads.bulkhead(NAME);
+        // Exposes resilience4j.circuitbreaker.* and resilience4j.bulkhead.* under /actuator/metrics
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        this.batchLoader = batching ? new CourseBatchLoader(this::fetchBatch, batchWindow, batchMaxSize) : null;
+    }
+
+    public Course getCourseById(Long id) {
+        return RequestMetrics.timeFeign(() -> batchLoader != null ? batched(id) : coalesced(id));
+    }
+
+    // Every course: /api/courses is paginated, so this follows X-Next-Cursor until the last page. The walk counts
+    // as one call for the bulkhead and circuit breaker, and a failure on any page falls back to the last full list
+    public List<Course> getAllCourses() {
+        return RequestMetrics.timeFeign(() ->
+                guarded(this::fetchAllCourses, fallback::rememberAllCourses, fallback::getAllCourses));
+    }
+
+    public List<String> getNames() {
+        return RequestMetrics.timeFeign(() ->
+                guarded(courseFeignClient::getNames, fallback::rememberNames, fallback::getNames));
+    }
+
+    CircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    // Followers of an in-flight lookup for the same id wait for the leader's answer (or failure)
+    private Course coalesced(Long id) {
+        CompletableFuture<Course> call = new CompletableFuture<>();
+        CompletableFuture<Course> leader = inFlightById.putIfAbsent(id, call);
+        if (leader != null) {
+            return await(leader);
+        }
+        try {
+            Course course = guarded(() -> courseFeignClient.getCourseById(id), fallback::rememberCourse,
+                    cause -> fallback.getCourseById(id, cause));
+            call.complete(course);
+            return course;
+        } catch (RuntimeException ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlightById.remove(id, call);
+        }
+    }
+
+    // The id's entry from the batch it joined; a failed batch is answered per id from the last known good course
+    private Course batched(Long id) {
+        Map<Long, BatchEntry<Course>> entries;
+        try {
+            entries = await(batchLoader.load(id));
+        } catch (FeignException.FeignClientException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            logger.debug("course-service batch failed, using fallback: {}", ex.toString());
+            return fallback.getCourseById(id, ex);
+        }
+        BatchEntry<Course> entry = entries.get(id);
+        if (entry == null || !entry.found()) {
+            // Same answer a single lookup of a missing course gets
+            Request request = Request.create(Request.HttpMethod.GET, "/api/courses/" + id, Map.of(), null,
+                    StandardCharsets.UTF_8, null);
+            throw new FeignException.NotFound("Course not found with id " + id, request, null, Map.of());
+        }
+        return entry.item();
+    }
+
+    // One batch-get for the ids gathered by the batch loader (run by the batch's first caller)
+    private Map<Long, BatchEntry<Course>> fetchBatch(List<Long> ids) {
+        Map<Long, BatchEntry<Course>> entries = protect(() -> courseFeignClient.getCoursesByIds(ids));
+        entries.values().stream().filter(BatchEntry::found).forEach(entry -> fallback.rememberCourse(entry.item()));
+        return entries;
+    }
+
+    private List<Course> fetchAllCourses() {
+        List<Course> courses = new ArrayList<>();
+        String cursor = null;
+        do {
+            ResponseEntity<List<Course>> page = courseFeignClient.getCoursePage(cursor, PAGE_SIZE);
+            if (page.getBody() != null) {
+                courses.addAll(page.getBody());
+            }
+            cursor = page.getHeaders().getFirst(NEXT_CURSOR_HEADER);
+        } while (cursor != null && !cursor.isEmpty());
+        return List.copyOf(courses);
+    }
+
+    // Downstream 4xx answers (e.g. 404) are passed through; everything else is a course-service failure
+    private <T> T guarded(Supplier<T> remote, Consumer<T> onSuccess, Function<Throwable, T> onFailure) {
+        T result;
+        try {
+            result = protect(remote);
+        } catch (FeignException.FeignClientException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            logger.debug("course-service call failed, using fallback: {}", ex.toString());
+            return onFailure.apply(ex);
+        }
+        onSuccess.accept(result);
+        return result;
+    }
+
+    private <T> T protect(Supplier<T> remote) {
+        return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, remote)).get();
+    }
+
+    private static <T> T await(CompletableFuture<T> call) {
+        try {
+            return call.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.courses.config;
+
+import com.example.courses.service.ChangeOutbox;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.Duration;
+
+// Connection pools and read/write routing. The DataSource JPA runs on is a lazy proxy: a transaction takes a
+// pooled connection only when it runs its first statement (a read answered from the catalog cache takes none),
+// and a read-only transaction (@Transactional(readOnly = true)) gets it from the replica pool when
+// courses.datasource.replica.url is set. Everything else, including reads inside write transactions, uses the
+// primary. Both pools are Hikari pools (spring.datasource.hikari.*, courses.datasource.replica.hikari.*) and publish
+// hikaricp.* metrics tagged with their pool name.
+@Configuration(proxyBeanMethods = false)
+public class DataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // The replica's connection settings are bound here rather than published as a second DataSourceProperties bean,
+    // which would leave the ones Spring Boot binds from spring.datasource.* ambiguous
+    @Bean
+    @ConfigurationProperties("courses.datasource.replica.hikari")
+    @ConditionalOnProperty("courses.datasource.replica.url")
+    public HikariDataSource replicaDataSource(Environment environment) throws Exception {
+        DataSourceProperties properties = Binder.get(environment)
+                .bindOrCreate("courses.datasource.replica", DataSourceProperties.class);
+        properties.afterPropertiesSet();
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty("courses.datasource.replica.url")
+    public ReadReplicaDataSource readReplicaDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${courses.datasource.replica.max-lag:1s}") Duration maxLag) {
+        return new ReadReplicaDataSource(primaryDataSource, replicaDataSource, maxLag.toNanos());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 ObjectProvider<ReadReplicaDataSource> readReplicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        readReplicaDataSource.ifAvailable(dataSource::setReadOnlyDataSource);
+        return dataSource;
+    }
+
+    // Every commit that changes the catalog sends this instance's reads to the primary for max-lag
+    @Bean
+    @ConditionalOnProperty("courses.datasource.replica.url")
+    public InitializingBean replicaReadYourWrites(ChangeOutbox changeOutbox, ReadReplicaDataSource readReplicaDataSource) {
+        return () -> changeOutbox.addCommitListener(readReplicaDataSource::recordWrite);
+    }
+
+    // On MySQL, starts the id sequence tables past the ids already in use (SequenceTables). Takes the
+    // EntityManagerFactory so it runs after ddl-auto has created them, and before the catalog is seeded
+    @Bean
+    public InitializingBean sequenceTablesAlignment(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            if (!"MySQL".equals(database)) {
+                return;
+            }
+            try {
+                SequenceTables.alignAll(new JdbcTemplate(dataSource));
+            } catch (BadSqlGrammarException ex) {
+                logger.warn("Id sequence tables not aligned, apply db/schema-mysql.sql first: {}", ex.getMessage());
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.courses.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Where read-only transactions get their connection: the replica, except for max-lag after this instance last
+// committed a catalog change, when the replica may not have it yet and the read goes to the primary instead
+// (so a client reads its own writes and the catalog cache is not refilled with what the write replaced)
+public class ReadReplicaDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagNanos;
+    private volatile long lastWrite = System.nanoTime();
+
+    public ReadReplicaDataSource(DataSource primary, DataSource replica, long maxLagNanos) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagNanos = maxLagNanos;
+    }
+
+    public void recordWrite() {
+        lastWrite = System.nanoTime();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    private DataSource target() {
+        return System.nanoTime() - lastWrite < maxLagNanos ? primary : replica;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.courses.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// On MySQL, Hibernate emulates the course and subject id sequences with one-row tables (course_seq, subject_seq).
+// A database whose ids came from IDENTITY columns gets those tables from ddl-auto=update starting at 1, and the
+// first insert would collide with an existing id. align() moves a table past the ids already in use: the pooled
+// optimizer takes a value v as the block v - ALLOCATION_SIZE + 1 .. v, so next_val must be at least
+// max(id) + ALLOCATION_SIZE. It never moves a sequence backwards, so running it again changes nothing.
+final class SequenceTables {
+
+    // The allocationSize of the @SequenceGenerator on Course and Subject
+    static final int ALLOCATION_SIZE = 50;
+
+    static final String[] ENTITY_TABLES = {"course", "subject"};
+
+    private SequenceTables() {
+    }
+
+    static void alignAll(JdbcTemplate jdbc) {
+        for (String table : ENTITY_TABLES) {
+            align(jdbc, table);
+        }
+    }
+
+    static void align(JdbcTemplate jdbc, String table) {
+        String sequence = table + "_seq";
+        String firstFree = "(select coalesce(max(id), 0) + " + ALLOCATION_SIZE + " from " + table + ")";
+        jdbc.update("insert into " + sequence + " (next_val) select " + firstFree + " from dual"
+                + " where not exists (select 1 from " + sequence + ")");
+        jdbc.update("update " + sequence + " set next_val = greatest(next_val, " + firstFree + ")");
+    }
+}
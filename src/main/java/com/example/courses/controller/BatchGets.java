@@ -0,0 +1,42 @@
+package com.example.courses.controller;
+
+import com.example.courses.dto.BatchEntry;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Request checks and response shape shared by the batch-get endpoints
+final class BatchGets {
+
+    static final int MAX_IDS = 1000;
+
+    private BatchGets() {
+    }
+
+    // The requested ids without repeats, in request order
+    static Set<Long> distinctIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("A batch-get needs a JSON array of ids");
+        }
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        if (distinct.contains(null)) {
+            throw new IllegalArgumentException("Batch-get ids cannot be null");
+        }
+        if (distinct.size() > MAX_IDS) {
+            throw new IllegalArgumentException("A batch-get takes at most " + MAX_IDS + " ids");
+        }
+        return distinct;
+    }
+
+    // Every requested id, in request order, with its item or a not-found marker
+    static <T> Map<Long, BatchEntry<T>> keyed(Set<Long> ids, Map<Long, T> found) {
+        Map<Long, BatchEntry<T>> entries = new LinkedHashMap<>();
+        for (Long id : ids) {
+            entries.put(id, BatchEntry.of(found.get(id)));
+        }
+        return entries;
+    }
+}
@@ -1,52 +1,185 @@
 package com.example.courses.controller;
 
+import com.example.courses.dto.BatchEntry;
+import com.example.courses.dto.CoursePatch;
+import com.example.courses.dto.CourseStats;
+import com.example.courses.dto.CourseView;
+import com.example.courses.dto.SubjectView;
 import com.example.courses.model.Course;
 import com.example.courses.model.Subject;
+import com.example.courses.service.CatalogArchiveResult;
+import com.example.courses.service.CatalogArchiveService;
+import com.example.courses.service.CatalogCache;
+import com.example.courses.service.CatalogSnapshot;
+import com.example.courses.service.CatalogStats;
+import com.example.courses.service.ChangeFeed;
+import com.example.courses.service.CourseImportResult;
+import com.example.courses.service.CourseImportService;
 import com.example.courses.service.CourseService;
+import com.example.courses.service.SubjectOperation;
+import com.example.courses.service.SubjectWriteQueue;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/courses")
 public class CourseController {
 
+    static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+    static final String CATALOG_ARCHIVE_VALUE = "application/vnd.courses.catalog-archive";
+
     @Autowired
     private CourseService courseService;
 
-    // Get all courses
+    @Autowired
+    private CourseImportService courseImportService;
+
+    @Autowired
+    private CatalogArchiveService catalogArchiveService;
+
+    @Autowired
+    private SubjectWriteQueue subjectWriteQueue;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private CatalogStats catalogStats;
+
+    // Answers the GET endpoints below instead of CourseService while it is serving (courses.snapshot.enabled)
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    // Otherwise the course and subject-list responses are written from their cached JSON when it is on
+    // (courses.cache.serialized-responses)
+    @Autowired
+    private CatalogCache catalogCache;
+
+    // Get courses one keyset page at a time; the next page's cursor comes back in the X-Next-Cursor header
     @GetMapping
-    public ResponseEntity<List<Course>> getAllCourses() {
-        List<Course> courses = courseService.getAllCourses();
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<List<CourseView>> getAllCourses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPages.DEFAULT_LIMIT) int limit) {
+        CursorPages.checkLimit(limit);
+        Long afterId = CursorPages.decode(cursor);
+        List<CourseView> courses = catalogSnapshot.isServing()
+                ? catalogSnapshot.getCoursesAfter(afterId, limit + 1)
+                : courseService.getCoursesAfter(afterId, limit + 1);
+        return CursorPages.page(courses, limit, CourseView::id);
+    }
+
+    // Stream every course as newline-delimited JSON straight off the database cursor (or the catalog snapshot)
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllCourses() {
+        return catalogSnapshot.isServing()
+                ? NdjsonResponses.stream(objectMapper, catalogSnapshot::streamAllCourses)
+                : NdjsonResponses.stream(objectMapper, courseService::streamAllCourses);
+    }
+
+    // Course and subject totals, the 'top' courses with the most subjects and the subject count of every course
+    @GetMapping("/stats")
+    public ResponseEntity<CourseStats> getCourseStats(@RequestParam(defaultValue = "10") int top) {
+        return ResponseEntity.ok(catalogStats.getStats(top));
     }
 
-    // Get a single course by its ID
+    // Stream course and subject changes as server-sent events, resuming after offset 'since' or after the
+    // Last-Event-ID a reconnecting client sends (neither: from the current end of the feed)
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (since == null && lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                since = Long.valueOf(lastEventId.strip());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Last-Event-ID must be a change offset");
+            }
+        }
+        return changeFeed.subscribe(since);
+    }
+
+    // Get a single course by its ID; If-None-Match is answered with 304 from the course version alone
+    // (a null return means checkNotModified has already written the 304)
     @GetMapping("/{id}")
-    public ResponseEntity<Course> getCourseById(@PathVariable Long id) {
-        Course course = courseService.getCourseById(id);
-        return course != null ? ResponseEntity.ok(course) : ResponseEntity.notFound().build();
+    public ResponseEntity<?> getCourseById(@PathVariable Long id, WebRequest request) {
+        boolean fromSnapshot = catalogSnapshot.isServing();
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && ETags.notModified(request,
+                fromSnapshot ? catalogSnapshot.getCourseVersion(id) : courseService.getCourseVersion(id))) {
+            return null;
+        }
+        if (!fromSnapshot && catalogCache.isServingSerializedResponses()) {
+            return JsonResponses.ok(catalogCache.getCourseJson(id, courseService::getCourseById), request);
+        }
+        CourseView course = fromSnapshot ? catalogSnapshot.getCourseById(id) : courseService.getCourseById(id);
+        return ResponseEntity.ok().eTag(ETags.of(course.version())).body(course);
+    }
+
+    // Get many courses (with their subjects) in one call: a JSON array of up to 1000 ids in, an object keyed by id out,
+    // in request order, with found=false for ids that have no course
+    @PostMapping("/batch-get")
+    public ResponseEntity<Map<Long, BatchEntry<CourseView>>> getCoursesByIds(@RequestBody List<Long> ids) {
+        Set<Long> distinct = BatchGets.distinctIds(ids);
+        return ResponseEntity.ok(BatchGets.keyed(distinct, catalogSnapshot.isServing()
+                ? catalogSnapshot.getCoursesByIds(distinct)
+                : courseService.getCoursesByIds(distinct)));
     }
 
-    // Get all subjects for a specific course
+    // Get all subjects for a specific course; the list shares the course's ETag, which every subject change bumps
     @GetMapping("/{courseId}/subjects")
-    public ResponseEntity<List<Subject>> getSubjectsByCourseId(@PathVariable Long courseId) {
-        Course course = courseService.getCourseById(courseId);
-        return course != null ? ResponseEntity.ok(course.getSubjects()) : ResponseEntity.notFound().build();
+    public ResponseEntity<?> getSubjectsByCourseId(@PathVariable Long courseId, WebRequest request) {
+        // Read the version before the list, so a concurrent change can only make the ETag older than the body
+        boolean fromSnapshot = catalogSnapshot.isServing();
+        long version = fromSnapshot
+                ? catalogSnapshot.getCourseVersion(courseId)
+                : courseService.getCourseVersion(courseId);
+        if (ETags.notModified(request, version)) {
+            return null;
+        }
+        if (!fromSnapshot && catalogCache.isServingSerializedResponses()) {
+            return JsonResponses.ok(catalogCache.getCourseSubjectsJson(courseId, version,
+                    courseService::getSubjectsByCourseId), request);
+        }
+        List<SubjectView> subjects = fromSnapshot
+                ? catalogSnapshot.getSubjectsByCourseId(courseId)
+                : courseService.getSubjectsByCourseId(courseId);
+        return ResponseEntity.ok().eTag(ETags.of(version)).body(subjects);
     }
 
     // Get a specific subject by its ID within a specific course
     @GetMapping("/{courseId}/subjects/{subjectId}")
-    public ResponseEntity<Subject> getSubjectByCourseAndSubjectId(
+    public ResponseEntity<SubjectView> getSubjectByCourseAndSubjectId(
             @PathVariable Long courseId,
-            @PathVariable Long subjectId) {
-        Subject subject = courseService.getSubjectByCourseAndSubjectId(courseId, subjectId);
-        return subject != null ? ResponseEntity.ok(subject) : ResponseEntity.notFound().build();
+            @PathVariable Long subjectId,
+            WebRequest request) {
+        SubjectView subject = catalogSnapshot.isServing()
+                ? catalogSnapshot.getSubjectByCourseAndSubjectId(courseId, subjectId)
+                : courseService.getSubjectByCourseAndSubjectId(courseId, subjectId);
+        if (ETags.notModified(request, subject.version())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(ETags.of(subject.version())).body(subject);
     }
 
     // Create a new course
@@ -60,11 +193,45 @@ public class CourseController {
         return ResponseEntity.created(location).body(createdCourse);
     }
 
-    // Add a subject to a course
+    // Bulk-create courses (with their subjects) from a JSON array; returns one result per row
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<CourseImportResult>> importCourses(@RequestBody List<Course> courses) {
+        return ResponseEntity.ok(courseImportService.importCourses(courses.iterator()));
+    }
+
+    // Bulk-create courses from newline-delimited JSON, parsing rows as the upload is read
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<CourseImportResult>> importCoursesNdjson(InputStream body) throws IOException {
+        try (MappingIterator<Course> rows = objectMapper.readerFor(Course.class).readValues(body)) {
+            return ResponseEntity.ok(courseImportService.importCourses(rows));
+        }
+    }
+
+    // Load a binary catalog archive (see GET /export) as it is uploaded, in batched chunks; courses and subjects that
+    // already exist are skipped and counted, so an interrupted load can be sent again
+    @PostMapping(value = "/import", consumes = CATALOG_ARCHIVE_VALUE)
+    public ResponseEntity<CatalogArchiveResult> importCatalogArchive(InputStream body) throws IOException {
+        return ResponseEntity.ok(catalogArchiveService.importFrom(Channels.newChannel(body)));
+    }
+
+    // Export every course and subject as a binary catalog archive, written straight off the database cursor
+    @GetMapping(value = "/export", produces = CATALOG_ARCHIVE_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCatalogArchive() {
+        StreamingResponseBody body = out -> catalogArchiveService.exportTo(Channels.newChannel(out));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(CATALOG_ARCHIVE_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"catalog.ccat\"")
+                .body(body);
+    }
+
+    // Add a subject to a course (202 with an operation to poll in write-behind mode)
     @PostMapping("/{courseId}/subjects")
-    public ResponseEntity<Subject> addSubjectToCourse(
+    public ResponseEntity<?> addSubjectToCourse(
             @PathVariable Long courseId,
             @Validated @RequestBody Subject subjectDetails) {
+        if (subjectWriteQueue.isEnabled()) {
+            return accepted(subjectWriteQueue.submit(SubjectOperation.add(courseId, subjectDetails.getTitle())));
+        }
         Subject newSubject = courseService.addSubjectToCourse(courseId, subjectDetails);
         if (newSubject != null) {
             URI location = ServletUriComponentsBuilder.fromCurrentRequest()
@@ -76,38 +243,79 @@ public class CourseController {
         return ResponseEntity.notFound().build();
     }
 
-    // Update an existing course
+    // Update an existing course, replacing its name and subjects (unchanged subjects keep their rows and ids; 412
+    // when If-Match names a version that is no longer current)
     @PutMapping("/{id}")
     public ResponseEntity<Course> updateCourse(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Validated @RequestBody Course courseDetails) {
-        Course updatedCourse = courseService.updateCourse(id, courseDetails);
-        return updatedCourse != null ? ResponseEntity.ok(updatedCourse) : ResponseEntity.notFound().build();
+        Course updatedCourse = courseService.updateCourse(id, courseDetails, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updatedCourse.getVersion())).body(updatedCourse);
+    }
+
+    // Partially update a course with a JSON Merge Patch: only the fields it names change, and a subjects array is
+    // reconciled against the current subjects (412 when If-Match names a version that is no longer current)
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Course> patchCourse(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        CoursePatch coursePatch = CoursePatch.fromMergePatch(patch, objectMapper);
+        Course patchedCourse = courseService.patchCourse(id, coursePatch, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(patchedCourse.getVersion())).body(patchedCourse);
     }
 
-    // Update a subject in a course
+    // Update a subject in a course (202 with an operation to poll in write-behind mode)
     @PutMapping("/{courseId}/subjects/{subjectId}")
-    public ResponseEntity<Subject> updateSubjectInCourse(
+    public ResponseEntity<?> updateSubjectInCourse(
             @PathVariable Long courseId,
             @PathVariable Long subjectId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Validated @RequestBody Subject subjectDetails) {
-        Subject updatedSubject = courseService.updateSubjectInCourse(courseId, subjectId, subjectDetails);
-        return updatedSubject != null ? ResponseEntity.ok(updatedSubject) : ResponseEntity.notFound().build();
+        Long expectedVersion = ETags.expectedVersion(ifMatch);
+        if (subjectWriteQueue.isEnabled()) {
+            return accepted(subjectWriteQueue.submit(
+                    SubjectOperation.update(courseId, subjectId, subjectDetails.getTitle(), expectedVersion)));
+        }
+        Subject updatedSubject = courseService.updateSubjectInCourse(courseId, subjectId, subjectDetails, expectedVersion);
+        return ResponseEntity.ok().eTag(ETags.of(updatedSubject.getVersion())).body(updatedSubject);
     }
 
-    // Delete a course by its ID
+    // Delete a course by its ID (412 when If-Match names a version that is no longer current)
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteCourse(@PathVariable Long id) {
-        boolean deleted = courseService.deleteCourse(id);
+    public ResponseEntity<Void> deleteCourse(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        boolean deleted = courseService.deleteCourse(id, ETags.expectedVersion(ifMatch));
         return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
 
-    // Delete a subject from a course
+    // Delete a subject from a course (202 with an operation to poll in write-behind mode)
     @DeleteMapping("/{courseId}/subjects/{subjectId}")
-    public ResponseEntity<Void> deleteSubjectInCourse(
+    public ResponseEntity<?> deleteSubjectInCourse(
             @PathVariable Long courseId,
-            @PathVariable Long subjectId) {
-        boolean deleted = courseService.deleteSubjectInCourse(courseId, subjectId);
+            @PathVariable Long subjectId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.expectedVersion(ifMatch);
+        if (subjectWriteQueue.isEnabled()) {
+            return accepted(subjectWriteQueue.submit(SubjectOperation.delete(courseId, subjectId, expectedVersion)));
+        }
+        boolean deleted = courseService.deleteSubjectInCourse(courseId, subjectId, expectedVersion);
         return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
+
+    // Get the status of a write-behind subject operation
+    @GetMapping("/operations/{operationId}")
+    public ResponseEntity<SubjectOperation> getOperation(@PathVariable String operationId) {
+        return ResponseEntity.ok(subjectWriteQueue.getOperation(operationId));
+    }
+
+    private static ResponseEntity<SubjectOperation> accepted(SubjectOperation operation) {
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/courses/operations/{operationId}")
+                .buildAndExpand(operation.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(operation);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.example.courses.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Opaque keyset cursors shared by the paginated list endpoints
+final class CursorPages {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorPages() {
+    }
+
+    // Decode a cursor token back into the last id seen (null means start from the beginning)
+    static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Encode the last id of a page as an opaque cursor token
+    static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    // Build the page response from 'limit + 1' fetched rows; the extra row only signals that a next page exists
+    static <T> ResponseEntity<List<T>> page(List<T> rows, int limit, Function<T, Long> idOf) {
+        if (rows.size() <= limit) {
+            return ResponseEntity.ok(rows);
+        }
+        List<T> items = rows.subList(0, limit);
+        return withNext(items, limit, encode(idOf.apply(items.get(limit - 1))));
+    }
+
+    // Build a page of ranked results fetched as 'limit + 1' rows from 'offset'; there is no stable id to key on,
+    // so the cursor carries the offset of the next page instead
+    static <T> ResponseEntity<List<T>> offsetPage(List<T> rows, int offset, int limit) {
+        if (rows.size() <= limit) {
+            return ResponseEntity.ok(rows);
+        }
+        return withNext(rows.subList(0, limit), limit, encode((long) offset + limit));
+    }
+
+    private static <T> ResponseEntity<List<T>> withNext(List<T> items, int limit, String next) {
+        String nextLink = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", next)
+                .replaceQueryParam("limit", limit)
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, next)
+                .header(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"")
+                .body(items);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.courses.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+// Strong ETags built from entity versions, and the version a conditional write names in If-Match. A gzip-coded
+// body is a different representation from the identity one (RFC 9110 8.8.3), so it gets a tag of its own,
+// "<version>-gzip"; both forms name the same version in If-None-Match and If-Match.
+final class ETags {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String ofGzip(long version) {
+        return "\"" + version + GZIP_SUFFIX + "\"";
+    }
+
+    // Whether If-None-Match names the version in either form; on a match the 304 is written with the tag the
+    // client holds. Without one the response is left alone, so the representation sent sets its own ETag.
+    static boolean notModified(WebRequest request, long version) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.strip();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*")) {
+                return request.checkNotModified(of(version));
+            }
+            if (tag.equals(of(version)) || tag.equals(ofGzip(version))) {
+                return request.checkNotModified(tag);
+            }
+        }
+        return false;
+    }
+
+    // The version an If-Match header asks for, or null when there is no header or it is '*' (any current version)
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.strip();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new IllegalArgumentException("If-Match must be '*' or a single strong ETag");
+        }
+        String version = tag.substring(1, tag.length() - 1);
+        if (version.endsWith(GZIP_SUFFIX)) {
+            version = version.substring(0, version.length() - GZIP_SUFFIX.length());
+        }
+        try {
+            return Long.valueOf(version);
+        } catch (NumberFormatException ex) {
+            // Not one of ours, so it cannot match the current version
+            return -1L;
+        }
+    }
+}
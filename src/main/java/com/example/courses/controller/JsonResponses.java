@@ -0,0 +1,45 @@
+package com.example.courses.controller;
+
+import com.example.courses.service.SerializedView;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+// Answers with an already serialized body: the cached bytes are handed to the byte-array converter, which writes
+// them to the servlet output stream as they are, with no Jackson pass. The gzip variant goes to clients that accept
+// it, under its own ETag (ETags.ofGzip); either tag names the version for If-None-Match and If-Match.
+final class JsonResponses {
+
+    private JsonResponses() {
+    }
+
+    static ResponseEntity<byte[]> ok(SerializedView view, WebRequest request) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        byte[] gzip = acceptsGzip(request) ? view.gzip() : null;
+        if (gzip != null) {
+            return response.eTag(ETags.ofGzip(view.version()))
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(gzip.length)
+                    .body(gzip);
+        }
+        return response.eTag(ETags.of(view.version())).contentLength(view.json().length).body(view.json());
+    }
+
+    // Accept-Encoding lists gzip without ruling it out with q=0
+    private static boolean acceptsGzip(WebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].strip().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.courses.controller;
+
+import com.example.courses.dto.CourseView;
+import com.example.courses.dto.SubjectView;
+import com.example.courses.repository.ReactiveCatalogRepository;
+import com.example.courses.service.NotFoundException;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+import java.util.function.Function;
+
+// Non-blocking counterparts of the GET endpoints of CourseController and SubjectController, under /reactive and
+// served by ReactiveServer. Same paths below the prefix, same bodies, cursors, ETags and status codes; the
+// /stream endpoints are backpressured end to end, from the socket's write demand down to the R2DBC row fetch.
+final class ReactiveRoutes {
+
+    static final String PREFIX = "/reactive";
+
+    private final ReactiveCatalogRepository catalog;
+
+    private ReactiveRoutes(ReactiveCatalogRepository catalog) {
+        this.catalog = catalog;
+    }
+
+    static RouterFunction<ServerResponse> of(ReactiveCatalogRepository catalog) {
+        ReactiveRoutes routes = new ReactiveRoutes(catalog);
+        return RouterFunctions.route()
+                .path(PREFIX + "/api/courses", courses -> courses
+                        .GET("", deferred(routes::getAllCourses))
+                        .GET("/stream", deferred(routes::streamAllCourses))
+                        .GET("/{id}", deferred(routes::getCourseById))
+                        .GET("/{courseId}/subjects", deferred(routes::getSubjectsByCourseId))
+                        .GET("/{courseId}/subjects/{subjectId}", deferred(routes::getSubjectByCourseAndSubjectId)))
+                .path(PREFIX + "/api/subjects", subjects -> subjects
+                        .GET("", deferred(routes::getAllSubjects))
+                        .GET("/stream", deferred(routes::streamAllSubjects))
+                        .GET("/{id}", deferred(routes::getSubjectById)))
+                .onError(EntityNotFoundException.class,
+                        (ex, request) -> problem(request, HttpStatus.NOT_FOUND, ex.getMessage()))
+                .onError(IllegalArgumentException.class,
+                        (ex, request) -> problem(request, HttpStatus.BAD_REQUEST, ex.getMessage()))
+                .build();
+    }
+
+    // The same problem-detail bodies as GlobalExceptionHandler on the servlet stack
+    private static Mono<ServerResponse> problem(ServerRequest request, HttpStatus status, String detail) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, detail);
+        problem.setInstance(URI.create(request.path()));
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_PROBLEM_JSON).bodyValue(problem);
+    }
+
+    // Argument checks throw while the handler runs; deferring turns them into error signals that onError maps
+    private static HandlerFunction<ServerResponse> deferred(HandlerFunction<ServerResponse> handler) {
+        return request -> Mono.defer(() -> handler.handle(request));
+    }
+
+    // Get courses one keyset page at a time; the next page's cursor comes back in the X-Next-Cursor header
+    private Mono<ServerResponse> getAllCourses(ServerRequest request) {
+        int limit = limit(request);
+        return page(request, catalog.findCoursesAfter(after(request), limit + 1), limit, CourseView::id);
+    }
+
+    private Mono<ServerResponse> streamAllCourses(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(catalog.streamAllCourses(), CourseView.class);
+    }
+
+    private Mono<ServerResponse> getCourseById(ServerRequest request) {
+        long id = id(request, "id");
+        return catalog.findCourseById(id)
+                .switchIfEmpty(Mono.error(() -> NotFoundException.course(id)))
+                .flatMap(course -> withETag(request, course.version(), course));
+    }
+
+    // The list shares the course's ETag, which every subject change bumps
+    private Mono<ServerResponse> getSubjectsByCourseId(ServerRequest request) {
+        long courseId = id(request, "courseId");
+        return catalog.findCourseVersionById(courseId)
+                .switchIfEmpty(Mono.error(() -> NotFoundException.course(courseId)))
+                .flatMap(version -> request.checkNotModified(ETags.of(version))
+                        .switchIfEmpty(Mono.defer(() -> ServerResponse.ok().eTag(ETags.of(version))
+                                .body(catalog.findSubjectsByCourseId(courseId), SubjectView.class))));
+    }
+
+    private Mono<ServerResponse> getSubjectByCourseAndSubjectId(ServerRequest request) {
+        long courseId = id(request, "courseId");
+        long subjectId = id(request, "subjectId");
+        return catalog.findSubjectById(subjectId)
+                .filter(subject -> subject.courseId() != null && subject.courseId() == courseId)
+                .switchIfEmpty(Mono.error(() -> NotFoundException.subjectOfCourse(subjectId, courseId)))
+                .flatMap(subject -> withETag(request, subject.version(), subject));
+    }
+
+    private Mono<ServerResponse> getAllSubjects(ServerRequest request) {
+        int limit = limit(request);
+        return page(request, catalog.findSubjectsAfter(after(request), limit + 1), limit, SubjectView::id);
+    }
+
+    private Mono<ServerResponse> streamAllSubjects(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(catalog.streamAllSubjects(), SubjectView.class);
+    }
+
+    private Mono<ServerResponse> getSubjectById(ServerRequest request) {
+        long id = id(request, "id");
+        if (id < 1) {
+            throw new IllegalArgumentException("id must be positive");
+        }
+        return catalog.findSubjectById(id)
+                .switchIfEmpty(Mono.error(() -> NotFoundException.subject(id)))
+                .flatMap(subject -> withETag(request, subject.version(), subject));
+    }
+
+    // 304 when If-None-Match still names the version
+    private static Mono<ServerResponse> withETag(ServerRequest request, long version, Object body) {
+        return request.checkNotModified(ETags.of(version))
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.ok().eTag(ETags.of(version)).bodyValue(body)));
+    }
+
+    // Same page shape as CursorPages.page: 'limit + 1' rows fetched, the extra one only signals a next page
+    private static <T> Mono<ServerResponse> page(ServerRequest request, Flux<T> rows, int limit, Function<T, Long> idOf) {
+        return rows.collectList().flatMap(fetched -> {
+            if (fetched.size() <= limit) {
+                return ServerResponse.ok().bodyValue(fetched);
+            }
+            List<T> items = fetched.subList(0, limit);
+            String next = CursorPages.encode(idOf.apply(items.get(limit - 1)));
+            String nextLink = UriComponentsBuilder.fromUri(request.uri())
+                    .replaceQueryParam("cursor", next)
+                    .replaceQueryParam("limit", limit)
+                    .toUriString();
+            return ServerResponse.ok()
+                    .header(CursorPages.NEXT_CURSOR_HEADER, next)
+                    .header(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"")
+                    .bodyValue(items);
+        });
+    }
+
+    private static long after(ServerRequest request) {
+        Long after = CursorPages.decode(request.queryParam("cursor").orElse(null));
+        return after != null ? after : 0L;
+    }
+
+    private static int limit(ServerRequest request) {
+        return CursorPages.checkLimit(request.queryParam("limit").map(ReactiveRoutes::parseInt)
+                .orElse(CursorPages.DEFAULT_LIMIT));
+    }
+
+    private static long id(ServerRequest request, String name) {
+        try {
+            return Long.parseLong(request.pathVariable(name));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("limit must be a number");
+        }
+    }
+}
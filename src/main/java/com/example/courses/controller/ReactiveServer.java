@@ -0,0 +1,128 @@
+package com.example.courses.controller;
+
+import com.example.courses.repository.ReactiveCatalogRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+
+// Reactive read path (courses.reactive.enabled): the ReactiveRoutes GET endpoints on a Reactor Netty server of
+// their own (courses.reactive.port), next to the servlet stack rather than inside it, reading the tables over an
+// R2DBC connection pool. The pool is private to this server, so the JPA DataSource stays the only one Spring Boot
+// configures; its URL is derived from spring.datasource.url unless courses.reactive.r2dbc-url is set.
+@Component
+public class ReactiveServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveServer.class);
+
+    private final ObjectMapper objectMapper;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final int port;
+    private final String r2dbcUrl;
+    private final int poolMaxSize;
+    private ConnectionPool connectionPool;
+    private DisposableServer server;
+
+    public ReactiveServer(ObjectMapper objectMapper, DataSourceProperties dataSourceProperties,
+                          @Value("${courses.reactive.enabled:false}") boolean enabled,
+                          @Value("${courses.reactive.port:8082}") int port,
+                          @Value("${courses.reactive.r2dbc-url:}") String r2dbcUrl,
+                          @Value("${courses.reactive.pool.max-size:20}") int poolMaxSize) {
+        this.objectMapper = objectMapper;
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.port = port;
+        this.r2dbcUrl = r2dbcUrl;
+        this.poolMaxSize = poolMaxSize;
+    }
+
+    // The port the server listens on (the bound one when courses.reactive.port is 0)
+    public int getPort() {
+        return server != null ? server.port() : port;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || server != null) {
+            return;
+        }
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(
+                r2dbcUrl.isBlank() ? r2dbcUrl(dataSourceProperties.determineUrl()) : r2dbcUrl);
+        ConnectionFactoryOptions.Builder credentials = options.mutate();
+        if (!options.hasOption(ConnectionFactoryOptions.USER) && dataSourceProperties.determineUsername() != null) {
+            credentials.option(ConnectionFactoryOptions.USER, dataSourceProperties.determineUsername());
+        }
+        if (!options.hasOption(ConnectionFactoryOptions.PASSWORD) && dataSourceProperties.determinePassword() != null) {
+            credentials.option(ConnectionFactoryOptions.PASSWORD, dataSourceProperties.determinePassword());
+        }
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(credentials.build()))
+                .name("reactive-read")
+                .maxSize(poolMaxSize)
+                .build());
+
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        HttpHandler handler = RouterFunctions.toHttpHandler(
+                ReactiveRoutes.of(new ReactiveCatalogRepository(DatabaseClient.create(connectionPool))), strategies);
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(handler))
+                .bindNow();
+        logger.info("Reactive read path listening on port {} under {}", server.port(), ReactiveRoutes.PREFIX);
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.disposeNow(Duration.ofSeconds(10));
+            server = null;
+        }
+        if (connectionPool != null) {
+            connectionPool.dispose();
+            connectionPool = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    // The R2DBC counterpart of a JDBC URL for the databases this service runs on. JDBC-only query options (driver
+    // tuning such as useCursorFetch) have no R2DBC meaning and are dropped for MySQL.
+    static String r2dbcUrl(String jdbcUrl) {
+        if (jdbcUrl.startsWith("jdbc:h2:mem:")) {
+            return "r2dbc:h2:mem:///" + jdbcUrl.substring("jdbc:h2:mem:".length());
+        }
+        if (jdbcUrl.startsWith("jdbc:mysql:")) {
+            String url = "r2dbc:" + jdbcUrl.substring("jdbc:".length());
+            int query = url.indexOf('?');
+            return query < 0 ? url : url.substring(0, query);
+        }
+        throw new IllegalStateException("Cannot derive an R2DBC URL from " + jdbcUrl + "; set courses.reactive.r2dbc-url");
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.courses.controller;
+
+import com.example.courses.dto.SearchHit;
+import com.example.courses.service.SearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    // Ranked search over course names and subject titles ("learn" finds "Machine Learning"); the next page's
+    // cursor comes back in the X-Next-Cursor header
+    @GetMapping
+    public ResponseEntity<List<SearchHit>> search(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit) {
+        CursorPages.checkLimit(limit);
+        Long offset = CursorPages.decode(cursor);
+        if (offset != null && (offset < 0 || offset > SearchIndex.MAX_OFFSET)) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        int from = offset != null ? offset.intValue() : 0;
+        return CursorPages.offsetPage(searchIndex.search(q, from, limit + 1), from, limit);
+    }
+}
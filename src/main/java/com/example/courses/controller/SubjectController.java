@@ -1,17 +1,28 @@
 package com.example.courses.controller;
 
+import com.example.courses.dto.BatchEntry;
+import com.example.courses.dto.SubjectView;
 import com.example.courses.model.Subject;
+import com.example.courses.service.CatalogCache;
+import com.example.courses.service.CatalogSnapshot;
+import com.example.courses.service.SerializedView;
 import com.example.courses.service.SubjectService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import jakarta.validation.constraints.Positive; 
 
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/subjects")
@@ -21,20 +32,69 @@ public class SubjectController {
     @Autowired
     private SubjectService subjectService;
 
-    // Get all subjects
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Answers the GET endpoints below instead of SubjectService while it is serving (courses.snapshot.enabled)
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    // Otherwise a subject response is written from its cached JSON when it is on (courses.cache.serialized-responses)
+    @Autowired
+    private CatalogCache catalogCache;
+
+    // Get subjects one keyset page at a time; the next page's cursor comes back in the X-Next-Cursor header
     @GetMapping
-    public ResponseEntity<List<Subject>> getAllSubjects() {
-        return ResponseEntity.ok(subjectService.getAllSubjects());
+    public ResponseEntity<List<SubjectView>> getAllSubjects(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPages.DEFAULT_LIMIT) int limit) {
+        CursorPages.checkLimit(limit);
+        Long afterId = CursorPages.decode(cursor);
+        List<SubjectView> subjects = catalogSnapshot.isServing()
+                ? catalogSnapshot.getSubjectsAfter(afterId, limit + 1)
+                : subjectService.getSubjectsAfter(afterId, limit + 1);
+        return CursorPages.page(subjects, limit, SubjectView::id);
     }
 
-    // Get a single subject by its ID
+    // Stream every subject as newline-delimited JSON straight off the database cursor (or the catalog snapshot)
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllSubjects() {
+        return catalogSnapshot.isServing()
+                ? NdjsonResponses.stream(objectMapper, catalogSnapshot::streamAllSubjects)
+                : NdjsonResponses.stream(objectMapper, subjectService::streamAllSubjects);
+    }
+
+    // Get a single subject by its ID (304 when If-None-Match still names its version; a null return means
+    // checkNotModified has already written the 304)
     @GetMapping("/{id}")
-    public ResponseEntity<Subject> getSubjectById(@PathVariable @Positive Long id) {
-        Subject subject = subjectService.getSubjectById(id);
-        return subject != null ? ResponseEntity.ok(subject) : ResponseEntity.notFound().build();
+    public ResponseEntity<?> getSubjectById(@PathVariable @Positive Long id, WebRequest request) {
+        if (!catalogSnapshot.isServing() && catalogCache.isServingSerializedResponses()) {
+            SerializedView json = catalogCache.getSubjectJson(id, subjectService::getSubjectById);
+            if (ETags.notModified(request, json.version())) {
+                return null;
+            }
+            return JsonResponses.ok(json, request);
+        }
+        SubjectView subject = catalogSnapshot.isServing()
+                ? catalogSnapshot.getSubjectById(id)
+                : subjectService.getSubjectById(id);
+        if (ETags.notModified(request, subject.version())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(ETags.of(subject.version())).body(subject);
     }
 
 
+    // Get many subjects in one call: a JSON array of up to 1000 ids in, an object keyed by id out, in request order,
+    // with found=false for ids that have no subject
+    @PostMapping("/batch-get")
+    public ResponseEntity<Map<Long, BatchEntry<SubjectView>>> getSubjectsByIds(@RequestBody List<Long> ids) {
+        Set<Long> distinct = BatchGets.distinctIds(ids);
+        return ResponseEntity.ok(BatchGets.keyed(distinct, catalogSnapshot.isServing()
+                ? catalogSnapshot.getSubjectsByIds(distinct)
+                : subjectService.getSubjectsByIds(distinct)));
+    }
+
     // Create a new subject
     @PostMapping
     public ResponseEntity<Subject> createSubject(@Validated @RequestBody Subject subject) {
@@ -46,19 +106,22 @@ public class SubjectController {
         return ResponseEntity.created(location).body(createdSubject);
     }
 
-    // Update an existing subject
+    // Update an existing subject (412 when If-Match names a version that is no longer current)
     @PutMapping("/{id}")
     public ResponseEntity<Subject> updateSubject(
             @PathVariable @Positive Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Validated @RequestBody Subject subjectDetails) {
-        Subject updatedSubject = subjectService.updateSubject(id, subjectDetails);
-        return updatedSubject != null ? ResponseEntity.ok(updatedSubject) : ResponseEntity.notFound().build();
+        Subject updatedSubject = subjectService.updateSubject(id, subjectDetails, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updatedSubject.getVersion())).body(updatedSubject);
     }
 
-    // Delete a subject by its ID
+    // Delete a subject by its ID (412 when If-Match names a version that is no longer current)
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteSubject(@PathVariable @Positive Long id) {
-        subjectService.deleteSubject(id);
+    public ResponseEntity<Void> deleteSubject(
+            @PathVariable @Positive Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        subjectService.deleteSubject(id, ETags.expectedVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.example.courses.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One id's answer in a batch-get response: the item, or found=false when there is nothing with that id
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchEntry<T>(boolean found, T item) {
+
+    public static <T> BatchEntry<T> of(T item) {
+        return item != null ? new BatchEntry<>(true, item) : new BatchEntry<>(false, null);
+    }
+}
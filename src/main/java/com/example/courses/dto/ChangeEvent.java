@@ -0,0 +1,18 @@
+package com.example.courses.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+// One entry of the change feed: what happened to which course or subject, with the state after the change (name
+// for courses, title and courseId for subjects; nothing but the ids for deletes). offset is the resume position.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChangeEvent(Long offset, String type, String operation, Long id, Long courseId, Long version,
+                          String name, String title, Instant at) {
+
+    // Outbox projection: the outbox keeps the time as epoch milliseconds
+    public ChangeEvent(Long offset, String type, String operation, Long id, Long courseId, Long version,
+                       String name, String title, long atEpochMilli) {
+        this(offset, type, operation, id, courseId, version, name, title, Instant.ofEpochMilli(atEpochMilli));
+    }
+}
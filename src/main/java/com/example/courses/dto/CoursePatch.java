@@ -0,0 +1,43 @@
+package com.example.courses.dto;
+
+import com.example.courses.model.Subject;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.List;
+
+// Changes a JSON Merge Patch (RFC 7396) asks of a course: a null field is left as it is. A patched subjects array
+// replaces the list as a whole (an explicit null empties it); subjects in it are matched to existing ones by id or
+// title, so only the ones that differ are written.
+public record CoursePatch(String name, List<Subject> subjects) {
+
+    private static final TypeReference<List<Subject>> SUBJECT_LIST = new TypeReference<>() {
+    };
+
+    public static CoursePatch fromMergePatch(JsonNode patch, ObjectMapper objectMapper) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("A merge patch for a course must be a JSON object");
+        }
+        String name = null;
+        JsonNode nameNode = patch.get("name");
+        if (nameNode != null) {
+            if (!nameNode.isTextual() || nameNode.asText().trim().isEmpty()) {
+                throw new IllegalArgumentException("Course name cannot be null or empty");
+            }
+            name = nameNode.asText();
+        }
+        List<Subject> subjects = null;
+        JsonNode subjectsNode = patch.get("subjects");
+        if (subjectsNode != null) {
+            if (subjectsNode.isNull()) {
+                subjects = List.of();
+            } else if (subjectsNode.isArray()) {
+                subjects = objectMapper.convertValue(subjectsNode, SUBJECT_LIST);
+            } else {
+                throw new IllegalArgumentException("Course subjects must be an array or null");
+            }
+        }
+        return new CoursePatch(name, subjects);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.courses.dto;
+
+// One row of the course/subject left join: a course with no subjects yields a single row with null subject columns
+public record CourseRow(Long courseId, String courseName, Long courseVersion,
+                        Long subjectId, String subjectTitle, Long subjectVersion) {
+}
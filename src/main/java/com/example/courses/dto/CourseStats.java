@@ -0,0 +1,8 @@
+package com.example.courses.dto;
+
+import java.util.List;
+
+// Catalog totals, the courses with the most subjects (ties by id) and the subject count of every course (by id)
+public record CourseStats(long courses, long subjects, List<CourseSubjectCount> topCourses,
+                          List<CourseSubjectCount> subjectCounts) {
+}
@@ -0,0 +1,5 @@
+package com.example.courses.dto;
+
+// A course and the number of subjects it has
+public record CourseSubjectCount(Long id, String name, long subjects) {
+}
@@ -0,0 +1,10 @@
+package com.example.courses.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+// Read-side view of a course with its subjects; serialized in place of the Course entity (the version travels as
+// the ETag, not in the body)
+public record CourseView(Long id, String name, List<SubjectView> subjects, @JsonIgnore Long version) {
+}
@@ -0,0 +1,5 @@
+package com.example.courses.dto;
+
+// A normalized course name or subject title and the id of the row that holds it
+public record NameKeyRow(String key, Long id) {
+}
@@ -0,0 +1,8 @@
+package com.example.courses.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One ranked search result: a course (courseId/courseName omitted) or a subject together with its course
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SearchHit(String type, Long id, String text, Long courseId, String courseName, double score) {
+}
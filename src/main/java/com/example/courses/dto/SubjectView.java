@@ -0,0 +1,8 @@
+package com.example.courses.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// Read-side view of a subject; the owning course id is kept for lookups and the version for the ETag, but
+// neither is serialized
+public record SubjectView(Long id, String title, @JsonIgnore Long courseId, @JsonIgnore Long version) {
+}
@@ -0,0 +1,5 @@
+package com.example.courses.dto;
+
+// A course or subject row written before its normalized key column existed: its id and its name or title
+public record UnkeyedRow(Long id, String value) {
+}
@@ -1,28 +1,74 @@
 package com.example.courses.exception;
 
+import com.example.courses.client.CourseServiceUnavailableException;
+import com.example.courses.service.SubjectWriteRejectedException;
+import com.example.courses.service.VersionMismatchException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+// Errors are answered as RFC 7807 problem details (application/problem+json): status, title, detail, and the
+// request path as instance
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
-    // Handle entity not found exceptions (404)
+    // Handle entity not found exceptions (404); the services throw the stackless NotFoundException
     @ExceptionHandler(EntityNotFoundException.class)
-    public ResponseEntity<Void> handleEntityNotFound(EntityNotFoundException ex) {
-        return ResponseEntity.notFound().build();
+    public ResponseEntity<ProblemDetail> handleEntityNotFound(EntityNotFoundException ex) {
+        return problem(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
     // Handle illegal argument exceptions (400)
     @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
-        return ResponseEntity.badRequest().body(ex.getMessage());
+    public ResponseEntity<ProblemDetail> handleIllegalArgument(IllegalArgumentException ex) {
+        return problem(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    // Handle unique-constraint violations, e.g. a concurrent write that took the same course name first (409)
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ProblemDetail> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        return problem(HttpStatus.CONFLICT, "The change conflicts with existing data");
+    }
+
+    // Handle conditional writes whose If-Match version is no longer current (412)
+    @ExceptionHandler(VersionMismatchException.class)
+    public ResponseEntity<ProblemDetail> handleVersionMismatch(VersionMismatchException ex) {
+        return problem(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    // Handle a concurrent write that committed between this request's read and its own write (409)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return problem(HttpStatus.CONFLICT, "The resource was modified concurrently; reload it and retry");
+    }
+
+    // Handle downstream course-service outages that no fallback could answer (503)
+    @ExceptionHandler(CourseServiceUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleCourseServiceUnavailable(CourseServiceUnavailableException ex) {
+        return problem(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
+    // Handle write-behind backpressure: the subject write queue is full or shutting down (503, retry shortly)
+    @ExceptionHandler(SubjectWriteRejectedException.class)
+    public ResponseEntity<ProblemDetail> handleSubjectWriteRejected(SubjectWriteRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
     }
 
     // Handle general exceptions (500)
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<String> handleGeneralException(Exception ex) {
-        return ResponseEntity.internalServerError().body("An unexpected error occurred: " + ex.getMessage());
+    public ResponseEntity<ProblemDetail> handleGeneralException(Exception ex) {
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred: " + ex.getMessage());
+    }
+
+    // Spring MVC fills in the instance (the request path) when it writes the body
+    private static ResponseEntity<ProblemDetail> problem(HttpStatus status, String detail) {
+        return ResponseEntity.status(status).body(ProblemDetail.forStatusAndDetail(status, detail));
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.example.courses.metrics;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+// Hooks RequestMetrics into Hibernate: statement timing through a session event listener, entity loads through
+// a post-load event listener
+@Configuration(proxyBeanMethods = false)
+public class HibernateRequestMetrics {
+
+    @Bean
+    public HibernatePropertiesCustomizer requestMetricsSessionListener() {
+        return (Map<String, Object> properties) ->
+                properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, RequestMetricsSessionListener.class.getName());
+    }
+
+    @Bean
+    public PostLoadEventListener requestMetricsPostLoadListener(EntityManagerFactory entityManagerFactory) {
+        PostLoadEventListener listener = (PostLoadEvent event) -> RequestMetrics.recordEntityLoad();
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, listener);
+        return listener;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.courses.metrics;
+
+import java.util.function.Supplier;
+
+// Per-request totals (SQL statements, JDBC execution time, entities loaded, course-service time), collected on the
+// request thread between RequestMetricsFilter's begin and end. Work on other threads, such as streaming responses
+// and write-behind writers, is not attributed to a request.
+public final class RequestMetrics {
+
+    private static final ThreadLocal<RequestMetrics> current = new ThreadLocal<>();
+
+    private long statements;
+    private long jdbcNanos;
+    private long entitiesLoaded;
+    private long feignNanos;
+
+    private RequestMetrics() {
+    }
+
+    static RequestMetrics begin() {
+        RequestMetrics metrics = new RequestMetrics();
+        current.set(metrics);
+        return metrics;
+    }
+
+    static void end() {
+        current.remove();
+    }
+
+    // --- Recording (no-ops outside a request) ---
+
+    static void recordStatement(long nanos) {
+        RequestMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.statements++;
+            metrics.jdbcNanos += nanos;
+        }
+    }
+
+    static void recordEntityLoad() {
+        RequestMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.entitiesLoaded++;
+        }
+    }
+
+    // Run a downstream course-service call, adding its wall time to the current request
+    public static <T> T timeFeign(Supplier<T> call) {
+        RequestMetrics metrics = current.get();
+        if (metrics == null) {
+            return call.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            metrics.feignNanos += System.nanoTime() - start;
+        }
+    }
+
+    long statements() {
+        return statements;
+    }
+
+    long jdbcNanos() {
+        return jdbcNanos;
+    }
+
+    long entitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    long feignNanos() {
+        return feignNanos;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.courses.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Publishes each request's RequestMetrics, tagged by endpoint (method and URI template) like http.server.requests:
+// courses.request.sql.statements, courses.request.jdbc, courses.request.entities.loaded and courses.request.feign
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestMetrics metrics = RequestMetrics.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestMetrics.end();
+            record(request, metrics);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestMetrics metrics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+        DistributionSummary.builder("courses.request.sql.statements")
+                .description("SQL statements executed per request")
+                .baseUnit("statements")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.statements());
+        Timer.builder("courses.request.jdbc")
+                .description("JDBC statement execution time per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.jdbcNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("courses.request.entities.loaded")
+                .description("JPA entities loaded into the persistence context per request")
+                .baseUnit("entities")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.entitiesLoaded());
+        Timer.builder("courses.request.feign")
+                .description("Time spent waiting on course-service per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.feignNanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.courses.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+// Hibernate creates one of these per session (hibernate.session.events.auto); it times every statement and
+// batch the session executes and adds them to the current request
+public class RequestMetricsSessionListener extends BaseSessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestMetrics.recordStatement(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestMetrics.recordStatement(System.nanoTime() - batchStart);
+    }
+}
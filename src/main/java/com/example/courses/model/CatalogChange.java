@@ -0,0 +1,88 @@
+package com.example.courses.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+// One row of the change outbox: a course or subject insert, update or delete, written in the transaction that made
+// it (see ChangeOutbox) and read back by the change feed. Rows are written over JDBC, never through this entity.
+@Entity
+@Table(name = "catalog_change", indexes = @Index(name = "idx_catalog_change_created_at", columnList = "created_at"))
+public class CatalogChange {
+
+    // The feed offset: auto-increment, so the row gets its id as it is inserted, just before its transaction commits
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Epoch milliseconds, so every database and driver stores the same instant
+    @Column(name = "created_at", nullable = false)
+    private long createdAt;
+
+    // COURSE or SUBJECT
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private String entityType;
+
+    // CREATED, UPDATED or DELETED
+    @Column(nullable = false, length = 16)
+    private String operation;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "course_id")
+    private Long courseId;
+
+    private Long version;
+
+    // Course name (COURSE rows) or subject title (SUBJECT rows) after the change
+    private String name;
+
+    private String title;
+
+    // Default constructor for JPA
+    public CatalogChange() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Instant getCreatedAt() {
+        return Instant.ofEpochMilli(createdAt);
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+}
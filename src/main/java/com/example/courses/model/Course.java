@@ -1,29 +1,56 @@
 package com.example.courses.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_course_name_key", columnNames = "name_key"))
 public class Course {
 
+    // Pooled sequence ids (a table on MySQL) so inserts can be JDBC-batched; IDENTITY disables batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "course_seq")
+    @SequenceGenerator(name = "course_seq", sequenceName = "course_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Course name cannot be null")
     @NotBlank(message = "Course name cannot be empty")
     private String name;
 
+    // Normalized name (see NameKeys) behind the unique constraint; kept in step by setName
+    @JsonIgnore
+    @Column(name = "name_key")
+    private String nameKey;
+
+    // Optimistic-lock version behind the course ETag; also bumped by every change to the course's subjects
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Manages subjects with cascade and orphan removal
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
@@ -49,6 +76,15 @@ public class Course {
 
     public void setName(String name) {
         this.name = name;
+        this.nameKey = NameKeys.normalize(name);
+    }
+
+    public String getNameKey() {
+        return nameKey;
+    }
+
+    public Long getVersion() {
+        return version;
     }
 
     public List<Subject> getSubjects() {
@@ -66,6 +102,50 @@ public class Course {
         }
     }
 
+    // Brings the subjects in line with the desired list, touching only the ones that differ: a desired subject is
+    // matched to an existing one by id, or failing that by normalized title. Matches are retitled when their title
+    // changed, unmatched existing subjects are removed (orphan removal deletes them) and unmatched desired ones are
+    // added. Returns whether anything changed.
+    public boolean reconcileSubjects(List<Subject> desired) {
+        Map<Long, Subject> byId = new HashMap<>();
+        Map<String, Subject> byTitleKey = new HashMap<>();
+        for (Subject subject : subjects) {
+            byId.put(subject.getId(), subject);
+            byTitleKey.put(subject.getTitleKey(), subject);
+        }
+        Set<Subject> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Subject> added = new ArrayList<>();
+        boolean changed = false;
+        for (Subject wanted : desired) {
+            if (wanted == null || wanted.getTitle() == null || wanted.getTitle().trim().isEmpty()) {
+                throw new IllegalArgumentException("Subject title cannot be null or empty");
+            }
+            Subject match;
+            if (wanted.getId() != null) {
+                match = byId.get(wanted.getId());
+                if (match == null) {
+                    throw new IllegalArgumentException("Subject " + wanted.getId() + " does not belong to course " + id);
+                }
+            } else {
+                match = byTitleKey.get(NameKeys.normalize(wanted.getTitle()));
+            }
+            if (match == null) {
+                added.add(wanted);
+            } else if (!kept.add(match)) {
+                throw new IllegalArgumentException("Subject '" + match.getTitle() + "' is listed more than once");
+            } else if (!match.getTitle().equals(wanted.getTitle())) {
+                match.setTitle(wanted.getTitle());
+                changed = true;
+            }
+        }
+        changed |= subjects.removeIf(subject -> !kept.contains(subject));
+        for (Subject subject : added) {
+            addSubject(subject);
+            changed = true;
+        }
+        return changed;
+    }
+
     // Adds a single subject, maintaining bidirectional relationship
     public void addSubject(Subject subject) {
         if (subject != null) {
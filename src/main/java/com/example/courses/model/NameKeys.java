@@ -0,0 +1,15 @@
+package com.example.courses.model;
+
+import java.util.Locale;
+
+// Normalized form of course names and subject titles used for uniqueness: surrounding whitespace stripped and
+// case folded, so "Java", "java " and "JAVA" are the same name
+public final class NameKeys {
+
+    private NameKeys() {
+    }
+
+    public static String normalize(String value) {
+        return value == null ? null : value.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,28 +1,51 @@
 package com.example.courses.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 import java.util.Objects;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_subject_title_key", columnNames = "title_key"))
 public class Subject {
 
+    // Pooled sequence ids (a table on MySQL) so inserts can be JDBC-batched; IDENTITY disables batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subject_seq")
+    @SequenceGenerator(name = "subject_seq", sequenceName = "subject_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Subject title cannot be null")
     @NotBlank(message = "Subject title cannot be empty")
     private String title;
 
-    // Bidirectional relationship with Course
-    @ManyToOne
+    // Normalized title (see NameKeys) behind the unique constraint; kept in step by setTitle
+    @JsonIgnore
+    @Column(name = "title_key")
+    private String titleKey;
+
+    // Optimistic-lock version behind the subject's ETag
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    // Bidirectional relationship with Course (lazy so subject reads don't pull in a course each)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
     private Course course;
 
@@ -46,6 +69,15 @@ public class Subject {
 
     public void setTitle(String title) {
         this.title = title;
+        this.titleKey = NameKeys.normalize(title);
+    }
+
+    public String getTitleKey() {
+        return titleKey;
+    }
+
+    public Long getVersion() {
+        return version;
     }
 
     public Course getCourse() {
@@ -0,0 +1,114 @@
+package com.example.courses.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Concurrency limit that follows observed latency (a gradient limit): requests past the current limit are turned
+// away at once instead of queueing for a Tomcat thread or a pooled connection. Once per window, the window's average
+// latency is compared with a slowly moving long-term average; while latency stays within 'tolerance' of it the limit
+// grows by about its square root, and as latency climbs the limit shrinks in proportion. The limit only grows when
+// requests actually press against it, and it stays within [min, max].
+final class AdaptiveConcurrencyLimit {
+
+    private static final int MIN_SAMPLES = 10;
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_TERM_WEIGHT = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long windowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rttSum = new LongAdder();
+    private final LongAdder rttCount = new LongAdder();
+    private final LongAccumulator peakInFlight = new LongAccumulator(Math::max, 0);
+    private final AtomicLong windowEnd;
+    private volatile double limit;
+    private volatile double longRttNanos;
+    private volatile double shortRttNanos;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, Duration window,
+                             long nowNanos) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits need 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowNanos = window.toNanos();
+        this.limit = initialLimit;
+        this.windowEnd = new AtomicLong(nowNanos + windowNanos);
+    }
+
+    boolean tryAcquire() {
+        int running = inFlight.incrementAndGet();
+        if (running > (int) limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        peakInFlight.accumulate(running);
+        return true;
+    }
+
+    // A request admitted by tryAcquire has finished after rttNanos; long-lived requests (streams, server-sent events)
+    // pass sample=false, as their duration says nothing about load
+    void release(long rttNanos, boolean sample, long nowNanos) {
+        inFlight.decrementAndGet();
+        if (sample) {
+            rttSum.add(rttNanos);
+            rttCount.increment();
+        }
+        long end = windowEnd.get();
+        if (nowNanos >= end && windowEnd.compareAndSet(end, nowNanos + windowNanos)) {
+            update();
+        }
+    }
+
+    // Run by whichever request closed the window. Samples that land while the adders are read and reset may go to
+    // either window, which an average does not mind.
+    private void update() {
+        long count = rttCount.sumThenReset();
+        long sum = rttSum.sumThenReset();
+        long peak = peakInFlight.getThenReset();
+        if (count < MIN_SAMPLES) {
+            return;
+        }
+        double shortRtt = (double) sum / count;
+        double longRtt = longRttNanos == 0 ? shortRtt : longRttNanos * (1 - LONG_TERM_WEIGHT) + shortRtt * LONG_TERM_WEIGHT;
+        if (longRtt > 2 * shortRtt) {
+            // Latency has been low for a while since a slow period: let the baseline catch up faster
+            longRtt *= 0.95;
+        }
+        longRttNanos = longRtt;
+        shortRttNanos = shortRtt;
+
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        if (target > current && peak < current / 2) {
+            // Far from the limit: nothing shows the service could take more
+            return;
+        }
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    double shortRttMillis() {
+        return shortRttNanos / 1e6;
+    }
+
+    double longRttMillis() {
+        return longRttNanos / 1e6;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.courses.ratelimit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-client token buckets, kept as the generic cell rate algorithm: a client's whole bucket is one long, the
+// theoretical arrival time (TAT) of its next request, advanced by one emission interval per admitted request with a
+// compare-and-set, so admitting a request takes no lock. A client may run 'burst' requests ahead of its steady
+// 'rate'. A bucket whose TAT has passed is full again, no different from a new one, so the map is swept of those
+// once per refill period by whichever request finds the sweep due. Past maximumClients, new clients share a fixed
+// set of overflow buckets picked by hash instead of growing the map.
+final class ClientRateLimiter {
+
+    private static final int OVERFLOW_STRIPES = 1024;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final long sweepIntervalNanos;
+    private final long maximumClients;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Bucket[] overflow = new Bucket[OVERFLOW_STRIPES];
+    private final AtomicLong nextSweep;
+
+    ClientRateLimiter(double ratePerSecond, int burst, long maximumClients, long nowNanos) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit needs a positive rate and a burst of at least 1");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.sweepIntervalNanos = Math.max(burstToleranceNanos, 1_000_000_000L);
+        this.maximumClients = maximumClients;
+        for (int i = 0; i < overflow.length; i++) {
+            overflow[i] = new Bucket(nowNanos);
+        }
+        this.nextSweep = new AtomicLong(nowNanos + sweepIntervalNanos);
+    }
+
+    // 0 when the request is admitted, otherwise the nanoseconds until this client's next request would be
+    long tryAcquire(String client, long nowNanos) {
+        long sweep = nextSweep.get();
+        if (nowNanos - sweep >= 0 && nextSweep.compareAndSet(sweep, nowNanos + sweepIntervalNanos)) {
+            sweep(nowNanos);
+        }
+        Bucket bucket = buckets.get(client);
+        if (bucket == null) {
+            bucket = buckets.size() < maximumClients
+                    ? buckets.computeIfAbsent(client, key -> new Bucket(nowNanos))
+                    : overflow[client.hashCode() & (OVERFLOW_STRIPES - 1)];
+        }
+        return bucket.tryAcquire(nowNanos, emissionIntervalNanos, burstToleranceNanos);
+    }
+
+    long clients() {
+        return buckets.size();
+    }
+
+    // Drop buckets that have refilled. A request racing the removal updates a bucket that is no longer in the map,
+    // and its client starts over with a full one: at most one request more than the rate allows.
+    private void sweep(long nowNanos) {
+        buckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+    }
+
+    private static final class Bucket {
+
+        private static final VarHandle TAT;
+
+        static {
+            try {
+                TAT = MethodHandles.lookup().findVarHandle(Bucket.class, "tat", long.class);
+            } catch (ReflectiveOperationException ex) {
+                throw new ExceptionInInitializerError(ex);
+            }
+        }
+
+        @SuppressWarnings("unused") // accessed through TAT
+        private volatile long tat;
+
+        Bucket(long nowNanos) {
+            this.tat = nowNanos;
+        }
+
+        long tryAcquire(long now, long interval, long tolerance) {
+            while (true) {
+                long current = (long) TAT.getVolatile(this);
+                long next = Math.max(current, now) + interval;
+                long waitNanos = next - tolerance - now;
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (TAT.compareAndSet(this, current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return (long) TAT.getVolatile(this) - now <= 0;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.courses.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+
+// Admission control for /api/courses, /api/subjects and /api/feign-test, before any controller, transaction or
+// connection is involved. A client past its rate (ClientRateLimiter, keyed by the remote address, or by the client
+// header when a trusted gateway sets it) gets 429 with the seconds until it may retry; a request past the
+// latency-driven concurrency limit (AdaptiveConcurrencyLimit) gets 503 with Retry-After: 1. Both are off by default.
+// Both answers are problem details, like every other error. Ordered after the http.server.requests observation, so
+// shed requests show there with their status.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private static final String[] LIMITED_PATHS = {"/api/courses", "/api/subjects", "/api/feign-test"};
+
+    // Null unless the header is set by a trusted gateway: a client choosing its own key could dodge its bucket
+    private final String clientHeader;
+    private final ObjectMapper objectMapper;
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Counter rateRejected;
+    private final Counter concurrencyRejected;
+
+    public LoadSheddingFilter(MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                              @Value("${courses.rate-limit.enabled:false}") boolean rateLimitEnabled,
+                              @Value("${courses.rate-limit.trust-client-header:false}") boolean trustClientHeader,
+                              @Value("${courses.rate-limit.client-header:X-Client-Id}") String clientHeader,
+                              @Value("${courses.rate-limit.requests-per-second:20}") double requestsPerSecond,
+                              @Value("${courses.rate-limit.burst:40}") int burst,
+                              @Value("${courses.rate-limit.max-clients:200000}") long maxClients,
+                              @Value("${courses.concurrency-limit.enabled:false}") boolean concurrencyLimitEnabled,
+                              @Value("${courses.concurrency-limit.initial:20}") int initialLimit,
+                              @Value("${courses.concurrency-limit.min:5}") int minLimit,
+                              @Value("${courses.concurrency-limit.max:200}") int maxLimit,
+                              @Value("${courses.concurrency-limit.tolerance:1.5}") double tolerance,
+                              @Value("${courses.concurrency-limit.window:1s}") Duration window) {
+        this.clientHeader = trustClientHeader ? clientHeader : null;
+        this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimitEnabled
+                ? new ClientRateLimiter(requestsPerSecond, burst, maxClients, System.nanoTime())
+                : null;
+        this.concurrencyLimit = concurrencyLimitEnabled
+                ? new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, window, System.nanoTime())
+                : null;
+        this.rateRejected = Counter.builder("courses.rate_limit.rejected")
+                .description("Requests answered 429 because their client was over its rate")
+                .register(meterRegistry);
+        this.concurrencyRejected = Counter.builder("courses.concurrency_limit.rejected")
+                .description("Requests answered 503 because the concurrency limit was reached")
+                .register(meterRegistry);
+        if (rateLimiter != null) {
+            Gauge.builder("courses.rate_limit.clients", rateLimiter, ClientRateLimiter::clients)
+                    .description("Clients with a rate limit bucket")
+                    .register(meterRegistry);
+        }
+        if (concurrencyLimit != null) {
+            Gauge.builder("courses.concurrency_limit.limit", concurrencyLimit, AdaptiveConcurrencyLimit::limit)
+                    .description("Current adaptive concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder("courses.concurrency_limit.in_flight", concurrencyLimit, AdaptiveConcurrencyLimit::inFlight)
+                    .description("Requests currently admitted under the concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder("courses.concurrency_limit.latency", concurrencyLimit, AdaptiveConcurrencyLimit::shortRttMillis)
+                    .description("Average request latency of the last window")
+                    .tag("window", "short")
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("courses.concurrency_limit.latency", concurrencyLimit, AdaptiveConcurrencyLimit::longRttMillis)
+                    .description("Long-term average request latency the limit is measured against")
+                    .tag("window", "long")
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (rateLimiter == null && concurrencyLimit == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String limited : LIMITED_PATHS) {
+            if (path.startsWith(limited) && (path.length() == limited.length() || path.charAt(limited.length()) == '/')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long started = System.nanoTime();
+        if (rateLimiter != null) {
+            long waitNanos = rateLimiter.tryAcquire(client(request), started);
+            if (waitNanos > 0) {
+                rateRejected.increment();
+                long seconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+                reject(request, response, HttpStatus.TOO_MANY_REQUESTS, seconds, "Rate limit exceeded");
+                return;
+            }
+        }
+        if (concurrencyLimit == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            concurrencyRejected.increment();
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Service is at its concurrency limit");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // A streaming or server-sent events request hands over to an async task here: its slot is given back,
+            // but its duration is not a latency sample
+            long now = System.nanoTime();
+            concurrencyLimit.release(now - started, !request.isAsyncStarted(), now);
+        }
+    }
+
+    private String client(HttpServletRequest request) {
+        if (clientHeader == null) {
+            return request.getRemoteAddr();
+        }
+        String client = request.getHeader(clientHeader);
+        return client != null && !client.isBlank() ? client : request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                        long retryAfterSeconds, String detail) throws IOException {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, detail);
+        problem.setInstance(URI.create(request.getRequestURI()));
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), problem);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.courses.repository;
+
+import com.example.courses.dto.ChangeEvent;
+import com.example.courses.model.CatalogChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+// Read side of the change outbox (rows are appended by ChangeOutbox). Reads run in read-write transactions so they
+// always go to the primary: a lagging replica would hold back the feed and show id gaps that are not there.
+@Transactional
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+    // Changes after an offset, in offset order, as feed events
+    @Query("select new com.example.courses.dto.ChangeEvent(c.id, c.entityType, c.operation, c.entityId, c.courseId, "
+            + "c.version, c.name, c.title, c.createdAt) from CatalogChange c where c.id > :since order by c.id")
+    List<ChangeEvent> findAfter(@Param("since") long since, Limit limit);
+
+    // Changes within an offset range, in offset order: looks for late commits in a range the feed skipped as a gap
+    @Query("select new com.example.courses.dto.ChangeEvent(c.id, c.entityType, c.operation, c.entityId, c.courseId, "
+            + "c.version, c.name, c.title, c.createdAt) from CatalogChange c "
+            + "where c.id between :from and :to order by c.id")
+    List<ChangeEvent> findBetween(@Param("from") long from, @Param("to") long to);
+
+    // Offset of the newest change written before the cutoff (0 when there is none)
+    @Query("select coalesce(max(c.id), 0) from CatalogChange c where c.createdAt < :cutoff")
+    long findLastOffsetCreatedBefore(@Param("cutoff") long cutoffEpochMilli);
+
+    // Offset of the oldest change still kept
+    @Query("select min(c.id) from CatalogChange c")
+    Optional<Long> findFirstOffset();
+
+    // Drop changes older than the retention period
+    @Modifying
+    @Query("delete from CatalogChange c where c.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") long cutoffEpochMilli);
+}
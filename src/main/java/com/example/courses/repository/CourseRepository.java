@@ -1,13 +1,93 @@
 package com.example.courses.repository;
 
+import com.example.courses.dto.CourseRow;
+import com.example.courses.dto.CourseSubjectCount;
+import com.example.courses.dto.NameKeyRow;
+import com.example.courses.dto.UnkeyedRow;
 import com.example.courses.model.Course;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 // Repository for managing Course entities with basic CRUD operations
 public interface CourseRepository extends JpaRepository<Course, Long> {
 
-    // Find a course by its name to support duplicate checks
-    Optional<Course> findByName(String name);
-}
\ No newline at end of file
+    // Id of the course whose normalized name (see NameKeys) matches, served by the unique index
+    @Query("select c.id from Course c where c.nameKey = :nameKey")
+    Optional<Long> findIdByNameKey(@Param("nameKey") String nameKey);
+
+    // Which of the given normalized names already exist, checked in one set-based query
+    @Query("select c.nameKey from Course c where c.nameKey in :nameKeys")
+    List<String> findExistingNameKeys(@Param("nameKeys") Collection<String> nameKeys);
+
+    // Every normalized name with its course id, for the in-memory name index
+    @Query("select new com.example.courses.dto.NameKeyRow(c.nameKey, c.id) from Course c where c.nameKey is not null")
+    List<NameKeyRow> findAllNameKeys();
+
+    // Keyset page of the rows written before the name_key column existed; NameKeyBackfill computes their keys
+    @Query("select new com.example.courses.dto.UnkeyedRow(c.id, c.name) from Course c "
+            + "where c.nameKey is null and c.id > :afterId order by c.id")
+    List<UnkeyedRow> findWithoutNameKeyAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Modifying
+    @Query("update Course c set c.nameKey = :nameKey where c.id = :id and c.nameKey is null")
+    int updateNameKey(@Param("id") Long id, @Param("nameKey") String nameKey);
+
+    // Current version of a course (its ETag), without loading the aggregate
+    @Query("select c.version from Course c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Lock the course row and bump its version before one of its subjects changes: the subjects are part of the
+    // course representation, so its ETag has to move with them. Concurrent subject writes on one course queue here.
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    @Query("select c from Course c where c.id = :id")
+    Optional<Course> lockForSubjectChange(@Param("id") Long id);
+
+    // Load a course together with its subjects in a single query
+    @EntityGraph(attributePaths = "subjects")
+    Optional<Course> findWithSubjectsById(Long id);
+
+    // Load every course together with its subjects in a single query
+    @Query("select distinct c from Course c left join fetch c.subjects order by c.id")
+    List<Course> findAllWithSubjects();
+
+    // Keyset page of course ids greater than the cursor; paging ids first keeps LIMIT out of the fetch join
+    @Query("select c.id from Course c where c.id > :afterId order by c.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // --- Read-model projections (id, name and title columns only, no managed entities) ---
+
+    // Course/subject rows for a single course
+    @Query("select new com.example.courses.dto.CourseRow(c.id, c.name, c.version, s.id, s.title, s.version) "
+            + "from Course c left join c.subjects s where c.id = :id order by s.id")
+    List<CourseRow> findRowsById(@Param("id") Long id);
+
+    // Course/subject rows for the given courses, grouped by course
+    @Query("select new com.example.courses.dto.CourseRow(c.id, c.name, c.version, s.id, s.title, s.version) "
+            + "from Course c left join c.subjects s where c.id in :ids order by c.id, s.id")
+    List<CourseRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Subject count of every course, counted by the database
+    @Query("select new com.example.courses.dto.CourseSubjectCount(c.id, c.name, count(s.id)) "
+            + "from Course c left join c.subjects s group by c.id, c.name order by c.id")
+    List<CourseSubjectCount> countSubjectsPerCourse();
+
+    // Stream every course/subject row, grouped by course, straight off the JDBC cursor (requires an open transaction)
+    @Query("select new com.example.courses.dto.CourseRow(c.id, c.name, c.version, s.id, s.title, s.version) "
+            + "from Course c left join c.subjects s order by c.id, s.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<CourseRow> streamAllRows();
+}
@@ -0,0 +1,106 @@
+package com.example.courses.repository;
+
+import com.example.courses.dto.CourseRow;
+import com.example.courses.dto.CourseView;
+import com.example.courses.dto.SubjectView;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Non-blocking reads of the course and subject tables over R2DBC, for the reactive read path. The queries name the
+// tables and columns the JPA mappings of Course and Subject create, and map rows straight into the read-side views.
+// Courses come from a course/subject left join ordered by course id and are folded one course at a time, so a
+// stream holds a single course in memory and fetches rows only as fast as the client takes them.
+public class ReactiveCatalogRepository {
+
+    private static final String COURSE_ROWS = "select c.id as course_id, c.name as course_name, "
+            + "c.version as course_version, s.id as subject_id, s.title as subject_title, s.version as subject_version ";
+    private static final String SUBJECT_VIEWS = "select id, title, course_id, version from subject ";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCatalogRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<CourseView> findCourseById(long id) {
+        return courses(databaseClient.sql(COURSE_ROWS
+                        + "from course c left join subject s on s.course_id = c.id where c.id = :id order by s.id")
+                .bind("id", id))
+                .next();
+    }
+
+    public Mono<Long> findCourseVersionById(long id) {
+        return databaseClient.sql("select version from course where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    // Keyset page of courses with ids greater than the cursor; the page of ids is taken first (in a derived table,
+    // as MySQL allows no LIMIT in an IN subquery) so LIMIT counts courses, not join rows
+    public Flux<CourseView> findCoursesAfter(long afterId, int limit) {
+        return courses(databaseClient.sql(COURSE_ROWS
+                        + "from (select id from course where id > :afterId order by id limit :limit) page "
+                        + "join course c on c.id = page.id left join subject s on s.course_id = c.id "
+                        + "order by c.id, s.id")
+                .bind("afterId", afterId)
+                .bind("limit", limit));
+    }
+
+    public Flux<CourseView> streamAllCourses() {
+        return courses(databaseClient.sql(COURSE_ROWS
+                + "from course c left join subject s on s.course_id = c.id order by c.id, s.id"));
+    }
+
+    public Mono<SubjectView> findSubjectById(long id) {
+        return subjects(databaseClient.sql(SUBJECT_VIEWS + "where id = :id").bind("id", id)).next();
+    }
+
+    public Flux<SubjectView> findSubjectsByCourseId(long courseId) {
+        return subjects(databaseClient.sql(SUBJECT_VIEWS + "where course_id = :courseId order by id")
+                .bind("courseId", courseId));
+    }
+
+    public Flux<SubjectView> findSubjectsAfter(long afterId, int limit) {
+        return subjects(databaseClient.sql(SUBJECT_VIEWS + "where id > :afterId order by id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit));
+    }
+
+    public Flux<SubjectView> streamAllSubjects() {
+        return subjects(databaseClient.sql(SUBJECT_VIEWS + "order by id"));
+    }
+
+    private static Flux<CourseView> courses(DatabaseClient.GenericExecuteSpec query) {
+        return query.map(ReactiveCatalogRepository::courseRow)
+                .all()
+                .bufferUntilChanged(CourseRow::courseId)
+                .map(ReactiveCatalogRepository::course);
+    }
+
+    private static Flux<SubjectView> subjects(DatabaseClient.GenericExecuteSpec query) {
+        return query.map(row -> new SubjectView(row.get("id", Long.class), row.get("title", String.class),
+                        row.get("course_id", Long.class), row.get("version", Long.class)))
+                .all();
+    }
+
+    private static CourseRow courseRow(Readable row) {
+        return new CourseRow(row.get("course_id", Long.class), row.get("course_name", String.class),
+                row.get("course_version", Long.class), row.get("subject_id", Long.class),
+                row.get("subject_title", String.class), row.get("subject_version", Long.class));
+    }
+
+    // All the rows of one course; a course with no subjects has a single row with null subject columns
+    private static CourseView course(List<CourseRow> rows) {
+        CourseRow first = rows.get(0);
+        List<SubjectView> subjects = rows.stream()
+                .filter(row -> row.subjectId() != null)
+                .map(row -> new SubjectView(row.subjectId(), row.subjectTitle(), row.courseId(), row.subjectVersion()))
+                .toList();
+        return new CourseView(first.courseId(), first.courseName(), subjects, first.courseVersion());
+    }
+}
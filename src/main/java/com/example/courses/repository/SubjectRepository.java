@@ -1,10 +1,22 @@
 package com.example.courses.repository;
 
+import com.example.courses.dto.NameKeyRow;
+import com.example.courses.dto.SubjectView;
+import com.example.courses.dto.UnkeyedRow;
 import com.example.courses.model.Subject;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 // Repository for managing Subject entities with basic CRUD operations
 public interface SubjectRepository extends JpaRepository<Subject, Long> {
@@ -12,8 +24,64 @@ public interface SubjectRepository extends JpaRepository<Subject, Long> {
     // Find subjects by course ID to support course-subject queries
     List<Subject> findByCourseId(Long courseId);
 
-    // Find a subject by its title to support duplicate checks
-    Optional<Subject> findByTitle(String title);
+    // Id of the course a subject belongs to (empty when the subject is missing or has no course)
+    @Query("select s.course.id from Subject s where s.id = :id")
+    Optional<Long> findCourseIdById(@Param("id") Long id);
+
+    // Id of the subject whose normalized title (see NameKeys) matches, served by the unique index
+    @Query("select s.id from Subject s where s.titleKey = :titleKey")
+    Optional<Long> findIdByTitleKey(@Param("titleKey") String titleKey);
+
+    // Which of the given normalized titles already exist, checked in one set-based query
+    @Query("select s.titleKey from Subject s where s.titleKey in :titleKeys")
+    List<String> findExistingTitleKeys(@Param("titleKeys") Collection<String> titleKeys);
+
+    // Every normalized title with its subject id, for the in-memory name index
+    @Query("select new com.example.courses.dto.NameKeyRow(s.titleKey, s.id) from Subject s where s.titleKey is not null")
+    List<NameKeyRow> findAllTitleKeys();
+
+    // Keyset page of the rows written before the title_key column existed; NameKeyBackfill computes their keys
+    @Query("select new com.example.courses.dto.UnkeyedRow(s.id, s.title) from Subject s "
+            + "where s.titleKey is null and s.id > :afterId order by s.id")
+    List<UnkeyedRow> findWithoutTitleKeyAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Modifying
+    @Query("update Subject s set s.titleKey = :titleKey where s.id = :id and s.titleKey is null")
+    int updateTitleKey(@Param("id") Long id, @Param("titleKey") String titleKey);
+
+    // --- Read-model projections (id and title columns only, no managed entities) ---
+
+    @Query("select new com.example.courses.dto.SubjectView(s.id, s.title, s.course.id, s.version) from Subject s where s.id = :id")
+    Optional<SubjectView> findViewById(@Param("id") Long id);
+
+    @Query("select new com.example.courses.dto.SubjectView(s.id, s.title, s.course.id, s.version) "
+            + "from Subject s where s.id in :ids")
+    List<SubjectView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.example.courses.dto.SubjectView(s.id, s.title, s.course.id, s.version) "
+            + "from Subject s where s.course.id = :courseId order by s.id")
+    List<SubjectView> findViewsByCourseId(@Param("courseId") Long courseId);
+
+    // Keyset page of subjects whose id is greater than the cursor, ordered by id
+    @Query("select new com.example.courses.dto.SubjectView(s.id, s.title, s.course.id, s.version) "
+            + "from Subject s where s.id > :afterId order by s.id")
+    List<SubjectView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // Stream every subject in id order straight off the JDBC cursor (requires an open transaction)
+    @Query("select new com.example.courses.dto.SubjectView(s.id, s.title, s.course.id, s.version) from Subject s order by s.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<SubjectView> streamAllViews();
+
+    // Titles of the subjects that belong to no course, in id order straight off the JDBC cursor (requires an open
+    // transaction)
+    @Query("select s.title from Subject s where s.course is null order by s.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<String> streamTitlesWithoutCourse();
+
+    // Subjects that belong to no course, in id order
+    @Query("select new com.example.courses.dto.SubjectView(s.id, s.title, s.course.id, s.version) "
+            + "from Subject s where s.course is null order by s.id")
+    List<SubjectView> findViewsWithoutCourse();
 }
 
 
@@ -22,4 +90,4 @@ public interface SubjectRepository extends JpaRepository<Subject, Long> {
 //get subject by course id
 
 
-//sql database for reflection of crud operations 
\ No newline at end of file
+//sql database for reflection of crud operations
@@ -0,0 +1,206 @@
+package com.example.courses.service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Binary catalog archive: the magic "CCAT" and a format version byte, then one record per course (tag 'C', name,
+// subject count, subject titles), then one per subject without a course (tag 'S', title), then an end record (tag
+// 'E', course and subject totals) so that a truncated file is told apart from a short catalog. Strings are UTF-8
+// behind an unsigned 16-bit length, counts are 32-bit and totals 64-bit, all big-endian. Ids and versions are not
+// kept: an archive carries the catalog's content, and the database it is loaded into assigns its own ids.
+final class CatalogArchive {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAGIC = 0x43434154;
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte COURSE = 'C';
+    private static final byte SUBJECT = 'S';
+    private static final byte END = 'E';
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private CatalogArchive() {
+    }
+
+    // Appends records to a channel through one direct buffer, which the channel drains without an extra copy
+    static final class Writer {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long courses;
+        private long subjects;
+
+        Writer(WritableByteChannel channel) throws IOException {
+            this.channel = channel;
+            buffer.putInt(MAGIC).put(FORMAT_VERSION);
+        }
+
+        long courses() {
+            return courses;
+        }
+
+        long subjects() {
+            return subjects;
+        }
+
+        void course(String name, List<String> titles) throws IOException {
+            byte[] nameBytes = encode(name);
+            ensure(1 + 2 + nameBytes.length + 4);
+            buffer.put(COURSE).putShort((short) nameBytes.length).put(nameBytes).putInt(titles.size());
+            for (String title : titles) {
+                byte[] titleBytes = encode(title);
+                ensure(2 + titleBytes.length);
+                buffer.putShort((short) titleBytes.length).put(titleBytes);
+            }
+            courses++;
+            subjects += titles.size();
+        }
+
+        // Subjects without a course; they follow every course
+        void subject(String title) throws IOException {
+            byte[] titleBytes = encode(title);
+            ensure(1 + 2 + titleBytes.length);
+            buffer.put(SUBJECT).putShort((short) titleBytes.length).put(titleBytes);
+            subjects++;
+        }
+
+        // Writes the end record and drains the buffer; the channel is left open
+        void finish() throws IOException {
+            ensure(1 + 8 + 8);
+            buffer.put(END).putLong(courses).putLong(subjects);
+            drain();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private static byte[] encode(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_STRING_BYTES) {
+                throw new IllegalArgumentException("Value too long for a catalog archive: " + value.substring(0, 40) + "...");
+            }
+            return bytes;
+        }
+    }
+
+    // Reads records back in the order they were written: readCourse until it returns null, then readSubject until
+    // it returns null, which also checks the end record's totals. A malformed archive is an IllegalArgumentException.
+    static final class Reader {
+
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final byte[] scratch = new byte[MAX_STRING_BYTES];
+        private long courses;
+        private long subjects;
+        private boolean ended;
+
+        Reader(ReadableByteChannel channel) throws IOException {
+            this.channel = channel;
+            buffer.flip();
+            require(5);
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a catalog archive");
+            }
+            byte version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported catalog archive version: " + version);
+            }
+        }
+
+        // The next course's name and subject titles (name first), or null once the courses are done
+        List<String> readCourse() throws IOException {
+            if (ended || peekTag() != COURSE) {
+                return null;
+            }
+            buffer.get();
+            String name = readString();
+            require(4);
+            int count = buffer.getInt();
+            if (count < 0) {
+                throw new IllegalArgumentException("Corrupt catalog archive: negative subject count");
+            }
+            List<String> course = new ArrayList<>(count + 1);
+            course.add(name);
+            for (int i = 0; i < count; i++) {
+                course.add(readString());
+            }
+            courses++;
+            subjects += count;
+            return course;
+        }
+
+        // The next subject without a course, or null at the end record
+        String readSubject() throws IOException {
+            if (ended) {
+                return null;
+            }
+            byte tag = peekTag();
+            if (tag == SUBJECT) {
+                buffer.get();
+                subjects++;
+                return readString();
+            }
+            if (tag != END) {
+                throw new IllegalArgumentException("Corrupt catalog archive: unexpected record '" + (char) tag + "'");
+            }
+            buffer.get();
+            require(16);
+            long expectedCourses = buffer.getLong();
+            long expectedSubjects = buffer.getLong();
+            if (expectedCourses != courses || expectedSubjects != subjects) {
+                throw new IllegalArgumentException("Corrupt catalog archive: " + courses + " courses and " + subjects
+                        + " subjects read, but the archive lists " + expectedCourses + " and " + expectedSubjects);
+            }
+            ended = true;
+            return null;
+        }
+
+        private byte peekTag() throws IOException {
+            require(1);
+            return buffer.get(buffer.position());
+        }
+
+        private String readString() throws IOException {
+            require(2);
+            int length = Short.toUnsignedInt(buffer.getShort());
+            require(length);
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        // Refill until 'bytes' are buffered; running out first means the archive was cut short
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            try {
+                while (buffer.position() < bytes) {
+                    if (channel.read(buffer) < 0) {
+                        throw new IllegalArgumentException("Catalog archive is truncated",
+                                new EOFException("needed " + bytes + " bytes, " + buffer.position() + " left"));
+                    }
+                }
+            } finally {
+                buffer.flip();
+            }
+        }
+    }
+}
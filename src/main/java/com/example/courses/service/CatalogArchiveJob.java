@@ -0,0 +1,93 @@
+package com.example.courses.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Command-line export or import of a catalog archive (see CatalogArchive), usually with the archive profile:
+//   java -jar course-service.jar --spring.profiles.active=archive --courses.archive.export=catalog.ccat
+//   java -jar course-service.jar --spring.profiles.active=archive --courses.archive.import=catalog.ccat
+// The process exits once the file is written or loaded, with status 1 when that failed. An export is written next to
+// the target and moved into place when complete, so a failed run never leaves a partial archive under its name.
+@Component
+public class CatalogArchiveJob implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogArchiveJob.class);
+
+    private final CatalogArchiveService catalogArchiveService;
+    private final ApplicationContext applicationContext;
+    private final String exportPath;
+    private final String importPath;
+
+    public CatalogArchiveJob(CatalogArchiveService catalogArchiveService, ApplicationContext applicationContext,
+                             @Value("${courses.archive.export:}") String exportPath,
+                             @Value("${courses.archive.import:}") String importPath) {
+        this.catalogArchiveService = catalogArchiveService;
+        this.applicationContext = applicationContext;
+        this.exportPath = exportPath;
+        this.importPath = importPath;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (exportPath.isBlank() && importPath.isBlank()) {
+            return;
+        }
+        int status = 0;
+        try {
+            if (!exportPath.isBlank()) {
+                exportTo(Path.of(exportPath));
+            }
+            if (!importPath.isBlank()) {
+                importFrom(Path.of(importPath));
+            }
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Catalog archive job failed: {}", ex.toString());
+            status = 1;
+        }
+        int exitCode = status;
+        System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+    }
+
+    public CatalogArchiveResult exportTo(Path target) throws IOException {
+        long started = System.nanoTime();
+        Path partial = target.resolveSibling(target.getFileName() + ".partial");
+        CatalogArchiveResult result;
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            result = catalogArchiveService.exportTo(channel);
+            channel.force(false);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(partial);
+            throw ex;
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Exported {} courses and {} subjects to {} ({} bytes) in {} ms", result.courses(),
+                result.subjects(), target, Files.size(target), (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    public CatalogArchiveResult importFrom(Path source) throws IOException {
+        long started = System.nanoTime();
+        CatalogArchiveResult result;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            result = catalogArchiveService.importFrom(channel);
+        }
+        logger.info("Imported {} courses and {} subjects from {} in {} ms ({} courses and {} subjects already "
+                        + "existed or were invalid)", result.courses(), result.subjects(), source,
+                (System.nanoTime() - started) / 1_000_000, result.skippedCourses(), result.skippedSubjects());
+        return result;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.courses.service;
+
+// Totals of a catalog archive export (everything written) or import (created, and skipped because the course or
+// subject already exists or is invalid)
+public record CatalogArchiveResult(long courses, long subjects, long skippedCourses, long skippedSubjects) {
+}
@@ -0,0 +1,192 @@
+package com.example.courses.service;
+
+import com.example.courses.dto.CourseRow;
+import com.example.courses.model.Course;
+import com.example.courses.model.NameKeys;
+import com.example.courses.model.Subject;
+import com.example.courses.repository.CourseRepository;
+import com.example.courses.repository.SubjectRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Whole-catalog export and import in the binary archive format (see CatalogArchive). The export writes the
+// course/subject join straight off the database cursor; the import reads the archive record by record into the bulk
+// import's batched insert chunks, each committed on its own. Neither holds more than one chunk in memory. Courses
+// and subjects that already exist are skipped, so an interrupted import can simply be run again.
+@Service
+public class CatalogArchiveService {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private CourseImportService courseImportService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${courses.import.batch-size:500}")
+    private int batchSize;
+
+    // Write every course with its subjects, then every subject without a course, and the end record; the channel is
+    // left open
+    @Transactional(readOnly = true)
+    public CatalogArchiveResult exportTo(WritableByteChannel channel) throws IOException {
+        CatalogArchive.Writer writer = new CatalogArchive.Writer(channel);
+        try (Stream<CourseRow> rows = courseRepository.streamAllRows()) {
+            Iterator<CourseRow> iterator = rows.iterator();
+            Long courseId = null;
+            String name = null;
+            List<String> titles = new ArrayList<>();
+            while (iterator.hasNext()) {
+                CourseRow row = iterator.next();
+                if (!row.courseId().equals(courseId)) {
+                    if (courseId != null) {
+                        writer.course(name, titles);
+                        titles.clear();
+                    }
+                    courseId = row.courseId();
+                    name = row.courseName();
+                }
+                if (row.subjectId() != null) {
+                    titles.add(row.subjectTitle());
+                }
+            }
+            if (courseId != null) {
+                writer.course(name, titles);
+            }
+        }
+        try (Stream<String> titles = subjectRepository.streamTitlesWithoutCourse()) {
+            Iterator<String> iterator = titles.iterator();
+            while (iterator.hasNext()) {
+                writer.subject(iterator.next());
+            }
+        }
+        writer.finish();
+        return new CatalogArchiveResult(writer.courses(), writer.subjects(), 0, 0);
+    }
+
+    // Load an archive; a malformed or truncated one stops the import with an IllegalArgumentException, after the
+    // chunks before it have committed
+    public CatalogArchiveResult importFrom(ReadableByteChannel channel) throws IOException {
+        CatalogArchive.Reader reader = new CatalogArchive.Reader(channel);
+        long[] totals = new long[4];
+        try {
+            courseImportService.importUniqueCourses(new CourseIterator(reader), (course, result) -> {
+                int subjects = course.getSubjects().size();
+                if (result.status() == CourseImportResult.Status.CREATED) {
+                    totals[0]++;
+                    totals[1] += subjects;
+                } else {
+                    totals[2]++;
+                    totals[3] += subjects;
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        List<String> chunk = new ArrayList<>(batchSize);
+        for (String title = reader.readSubject(); title != null; title = reader.readSubject()) {
+            chunk.add(title);
+            if (chunk.size() == batchSize) {
+                importSubjectChunk(chunk, totals);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importSubjectChunk(chunk, totals);
+        }
+        return new CatalogArchiveResult(totals[0], totals[1], totals[2], totals[3]);
+    }
+
+    // Subjects without a course: one duplicate-check query and one batched insert transaction per chunk
+    private void importSubjectChunk(List<String> titles, long[] totals) {
+        int created = new TransactionTemplate(transactionManager).execute(status -> {
+            Set<String> existing = new HashSet<>(subjectRepository.findExistingTitleKeys(
+                    titles.stream().filter(CatalogArchiveService::hasText).map(NameKeys::normalize).toList()));
+            int persisted = 0;
+            for (String title : titles) {
+                if (hasText(title) && existing.add(NameKeys.normalize(title))) {
+                    Subject subject = new Subject();
+                    subject.setTitle(title);
+                    entityManager.persist(subject);
+                    persisted++;
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return persisted;
+        });
+        totals[1] += created;
+        totals[3] += titles.size() - created;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    // Courses read from the archive one at a time, as the bulk import asks for them
+    private static final class CourseIterator implements Iterator<Course> {
+
+        private final CatalogArchive.Reader reader;
+        private List<String> next;
+        private boolean done;
+
+        CourseIterator(CatalogArchive.Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = reader.readCourse();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Course next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Course course = new Course();
+            course.setName(next.get(0));
+            for (String title : next.subList(1, next.size())) {
+                Subject subject = new Subject();
+                subject.setTitle(title);
+                course.addSubject(subject);
+            }
+            next = null;
+            return course;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.courses.service;
+
+import com.example.courses.dto.CourseView;
+import com.example.courses.dto.SubjectView;
+import com.example.courses.model.NameKeys;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Bounded read-through cache for course and subject lookups, and for the serialized JSON of the course, subject
+// and course-subjects responses (courses.cache.serialized-responses); the services evict exactly the entries a
+// write touches
+@Component
+public class CatalogCache {
+
+    private final Cache<Long, CourseView> coursesById;
+    private final Cache<Long, SubjectView> subjectsById;
+    private final Cache<String, Long> courseIdsByName;
+    private final Cache<Long, SerializedView> courseJsonById;
+    private final Cache<Long, SerializedView> subjectJsonById;
+    private final Cache<Long, SerializedView> courseSubjectsJsonById;
+    private final AtomicLong evictions = new AtomicLong();
+    private final ObjectMapper objectMapper;
+    private final boolean serializedResponses;
+
+    public CatalogCache(MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                        @Value("${courses.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${courses.cache.ttl:10m}") Duration ttl,
+                        @Value("${courses.cache.serialized-responses:true}") boolean serializedResponses) {
+        this.objectMapper = objectMapper;
+        this.serializedResponses = serializedResponses;
+        this.coursesById = newCache(maximumSize, ttl);
+        this.subjectsById = newCache(maximumSize, ttl);
+        this.courseIdsByName = newCache(maximumSize, ttl);
+        this.courseJsonById = newCache(serializedResponses ? maximumSize : 0, ttl);
+        this.subjectJsonById = newCache(serializedResponses ? maximumSize : 0, ttl);
+        this.courseSubjectsJsonById = newCache(serializedResponses ? maximumSize : 0, ttl);
+        // Exposes cache.gets (hit/miss), cache.evictions and cache.size under /actuator/metrics
+        CaffeineCacheMetrics.monitor(meterRegistry, coursesById, "courses");
+        CaffeineCacheMetrics.monitor(meterRegistry, subjectsById, "subjects");
+        CaffeineCacheMetrics.monitor(meterRegistry, courseIdsByName, "courseNames");
+        if (serializedResponses) {
+            CaffeineCacheMetrics.monitor(meterRegistry, courseJsonById, "courseJson");
+            CaffeineCacheMetrics.monitor(meterRegistry, subjectJsonById, "subjectJson");
+            CaffeineCacheMetrics.monitor(meterRegistry, courseSubjectsJsonById, "courseSubjectsJson");
+        }
+    }
+
+    private static <K, V> Cache<K, V> newCache(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // --- Lookups (the loader runs on a miss; exceptions and null results are not cached) ---
+
+    public CourseView getCourse(Long id, Function<Long, CourseView> loader) {
+        return getOrLoad(coursesById, id, loader);
+    }
+
+    public SubjectView getSubject(Long id, Function<Long, SubjectView> loader) {
+        return getOrLoad(subjectsById, id, loader);
+    }
+
+    // Cached courses for the ids, with every miss handed to the loader at once (missing ids are left out)
+    public Map<Long, CourseView> getCourses(Collection<Long> ids, Function<List<Long>, List<CourseView>> loader) {
+        return getAllOrLoad(coursesById, ids, loader, CourseView::id);
+    }
+
+    public Map<Long, SubjectView> getSubjects(Collection<Long> ids, Function<List<Long>, List<SubjectView>> loader) {
+        return getAllOrLoad(subjectsById, ids, loader, SubjectView::id);
+    }
+
+    // Keyed by normalized name, which is what the loader receives
+    public Long getCourseIdByName(String name, Function<String, Long> loader) {
+        return getOrLoad(courseIdsByName, NameKeys.normalize(name), loader);
+    }
+
+    // --- Serialized responses (the loader runs on a miss and its result is serialized once) ---
+
+    public boolean isServingSerializedResponses() {
+        return serializedResponses;
+    }
+
+    public SerializedView getCourseJson(Long id, Function<Long, CourseView> loader) {
+        return getOrLoad(courseJsonById, id, key -> {
+            CourseView course = loader.apply(key);
+            return serialize(course, course.version());
+        });
+    }
+
+    public SerializedView getSubjectJson(Long id, Function<Long, SubjectView> loader) {
+        return getOrLoad(subjectJsonById, id, key -> {
+            SubjectView subject = loader.apply(key);
+            return serialize(subject, subject.version());
+        });
+    }
+
+    // The subject list of a course carries the course's version, which the caller has read before the list, so a
+    // concurrent change can only make the cached ETag older than the body. A hit keeps the cached version.
+    public SerializedView getCourseSubjectsJson(Long courseId, long version, Function<Long, List<SubjectView>> loader) {
+        return getOrLoad(courseSubjectsJsonById, courseId, key -> serialize(loader.apply(key), version));
+    }
+
+    private SerializedView serialize(Object value, Long version) {
+        try {
+            return new SerializedView(objectMapper.writeValueAsBytes(value), version != null ? version : 0);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + value, ex);
+        }
+    }
+
+    // Cached entries only, never loading: a conditional GET can compare versions without a query on a hit
+
+    // The course's version from whichever cached form of it holds one, or null
+    public Long peekCourseVersion(Long id) {
+        CourseView course = coursesById.getIfPresent(id);
+        if (course != null) {
+            return course.version();
+        }
+        SerializedView json = courseJsonById.getIfPresent(id);
+        if (json == null) {
+            json = courseSubjectsJsonById.getIfPresent(id);
+        }
+        return json != null ? json.version() : null;
+    }
+
+    public SubjectView peekSubject(Long id) {
+        return subjectsById.getIfPresent(id);
+    }
+
+    // Loads run outside Caffeine's compute lock, which is a synchronized block that would pin a virtual
+    // thread's carrier for the whole JDBC call. A load that overlaps an eviction drops its own result.
+    private <K, V> V getOrLoad(Cache<K, V> cache, K key, Function<K, V> loader) {
+        V value = cache.getIfPresent(key);
+        if (value == null) {
+            long generation = evictions.get();
+            value = loader.apply(key);
+            if (value != null) {
+                cache.put(key, value);
+                if (evictions.get() != generation) {
+                    cache.invalidate(key);
+                }
+            }
+        }
+        return value;
+    }
+
+    // Bulk form of getOrLoad: one loader call for all the misses, with the same guard against overlapping evictions
+    private <V> Map<Long, V> getAllOrLoad(Cache<Long, V> cache, Collection<Long> ids,
+                                          Function<List<Long>, List<V>> loader, Function<V, Long> idOf) {
+        Map<Long, V> values = new HashMap<>(cache.getAllPresent(ids));
+        if (values.size() < ids.size()) {
+            List<Long> missing = ids.stream().filter(id -> !values.containsKey(id)).toList();
+            long generation = evictions.get();
+            List<V> loaded = loader.apply(missing);
+            for (V value : loaded) {
+                values.put(idOf.apply(value), value);
+                cache.put(idOf.apply(value), value);
+            }
+            if (evictions.get() != generation) {
+                cache.invalidateAll(loaded.stream().map(idOf).toList());
+            }
+        }
+        return values;
+    }
+
+    // --- Invalidation (deferred until commit when called inside a transaction) ---
+
+    // A course's own response and its subject list both carry the course version, so they go together
+    public void evictCourse(Long id) {
+        afterCommit(() -> {
+            evict(coursesById, id);
+            courseJsonById.invalidate(id);
+            courseSubjectsJsonById.invalidate(id);
+        });
+    }
+
+    public void evictCourseName(String name) {
+        if (name != null) {
+            String nameKey = NameKeys.normalize(name);
+            afterCommit(() -> evict(courseIdsByName, nameKey));
+        }
+    }
+
+    public void evictSubject(Long id) {
+        afterCommit(() -> {
+            evict(subjectsById, id);
+            subjectJsonById.invalidate(id);
+        });
+    }
+
+    public void evictSubjects(Collection<Long> ids) {
+        afterCommit(() -> {
+            evictions.incrementAndGet();
+            subjectsById.invalidateAll(ids);
+            subjectJsonById.invalidateAll(ids);
+        });
+    }
+
+    public void evictAll() {
+        evictions.incrementAndGet();
+        coursesById.invalidateAll();
+        subjectsById.invalidateAll();
+        courseIdsByName.invalidateAll();
+        courseJsonById.invalidateAll();
+        subjectJsonById.invalidateAll();
+        courseSubjectsJsonById.invalidateAll();
+    }
+
+    private <K> void evict(Cache<K, ?> cache, K key) {
+        evictions.incrementAndGet();
+        cache.invalidate(key);
+    }
+
+    // Evicting before commit would let a concurrent reader re-cache the old row until the TTL expires
+    private static void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
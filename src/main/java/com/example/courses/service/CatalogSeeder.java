@@ -0,0 +1,113 @@
+package com.example.courses.service;
+
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Seeds the reference catalog (DBDA, Embedded, DAC, Electronics). The run is idempotent and batched: it goes
+// through the bulk import, so existing courses come back as DUPLICATE from one set-based check, and whatever is
+// missing is inserted in one batched transaction. courses.seed.mode decides where it runs:
+//   startup    - before the application reports ready (the default, so tests and local runs see the data)
+//   background - on its own thread once the application is ready, off the startup path
+//   job        - as a one-shot job: seed, then exit the process (e.g. with the setup profile, before a rollout)
+//   off        - never
+@Component
+public class CatalogSeeder implements ApplicationRunner {
+
+    enum Mode { STARTUP, BACKGROUND, JOB, OFF }
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSeeder.class);
+
+    private static final Map<String, List<String>> SEED_COURSES = new LinkedHashMap<>();
+
+    static {
+        SEED_COURSES.put("DBDA", List.of("Data Structures", "Database Systems", "Machine Learning", "Web Technologies", "Cloud Computing"));
+        SEED_COURSES.put("Embedded", List.of("Microcontrollers", "RTOS", "Embedded C", "IoT Systems"));
+        SEED_COURSES.put("DAC", List.of("Java Programming", "Spring Boot", "Hibernate", "REST APIs"));
+        SEED_COURSES.put("Electronics", List.of("Analog Circuits", "Digital Electronics", "VLSI Design", "Signal Processing"));
+    }
+
+    private final CourseImportService courseImportService;
+    private final NameKeyBackfill nameKeyBackfill;
+    private final ApplicationContext applicationContext;
+    private final Mode mode;
+
+    public CatalogSeeder(CourseImportService courseImportService, NameKeyBackfill nameKeyBackfill,
+                         ApplicationContext applicationContext,
+                         @Value("${courses.seed.mode:startup}") String mode) {
+        this.courseImportService = courseImportService;
+        this.nameKeyBackfill = nameKeyBackfill;
+        this.applicationContext = applicationContext;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (mode == Mode.STARTUP) {
+            seed();
+        } else if (mode == Mode.JOB) {
+            seed();
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedInBackground() {
+        if (mode == Mode.BACKGROUND) {
+            Thread.ofPlatform().name("catalog-seeder").daemon().start(() -> {
+                try {
+                    seed();
+                } catch (RuntimeException ex) {
+                    logger.error("Background catalog seeding failed: {}", ex.getMessage());
+                }
+            });
+        }
+    }
+
+    // Returns the number of courses created; a second run, or a run against a seeded database, creates none
+    public int seed() {
+        // Rows written before the normalized key columns existed get their keys before anything checks them
+        nameKeyBackfill.backfill();
+        List<CourseImportResult> results;
+        try {
+            results = courseImportService.importCourses(seedCourses().iterator());
+        } catch (DataIntegrityViolationException ex) {
+            // Another instance seeded the same rows concurrently; what it committed is now found as duplicates
+            results = courseImportService.importCourses(seedCourses().iterator());
+        }
+        int created = (int) results.stream().filter(result -> result.status() == CourseImportResult.Status.CREATED).count();
+        logger.info("Catalog seeding created {} of {} seed courses", created, SEED_COURSES.size());
+        return created;
+    }
+
+    private static List<Course> seedCourses() {
+        List<Course> courses = new ArrayList<>(SEED_COURSES.size());
+        SEED_COURSES.forEach((name, titles) -> {
+            Course course = new Course();
+            course.setName(name);
+            for (String title : titles) {
+                Subject subject = new Subject();
+                subject.setTitle(title);
+                course.addSubject(subject);
+            }
+            courses.add(course);
+        });
+        return courses;
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.courses.service;
+
+import com.example.courses.dto.CourseRow;
+import com.example.courses.dto.CourseView;
+import com.example.courses.dto.SubjectView;
+import com.example.courses.repository.CourseRepository;
+import com.example.courses.repository.SubjectRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Read-only serving mode (courses.snapshot.enabled): the course and subject GET endpoints answer from an immutable
+// off-heap copy of the catalog (OffHeapCatalog) without touching JPA. A copy is built in one read-only transaction
+// and swapped in whole, so a request sees one consistent catalog. It is rebuilt rebuild-delay after a commit that
+// changed the catalog (a burst of writes costs one rebuild) and every refresh-interval besides, for writes made by
+// other instances or by bulk SQL; reads trail writes by about rebuild-delay plus the build time. Until the first
+// copy is built, the endpoints are served by the services as usual.
+@Component
+public class CatalogSnapshot implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    private final CourseRepository courseRepository;
+    private final SubjectRepository subjectRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Duration rebuildDelay;
+    private final Duration refreshInterval;
+    private final Semaphore changed = new Semaphore(0);
+    private volatile OffHeapCatalog current;
+    private volatile boolean running;
+    private Thread rebuilder;
+
+    public CatalogSnapshot(CourseRepository courseRepository, SubjectRepository subjectRepository,
+                           PlatformTransactionManager transactionManager, ChangeOutbox changeOutbox,
+                           MeterRegistry meterRegistry,
+                           @Value("${courses.snapshot.enabled:false}") boolean enabled,
+                           @Value("${courses.snapshot.rebuild-delay:100ms}") Duration rebuildDelay,
+                           @Value("${courses.snapshot.refresh-interval:1m}") Duration refreshInterval) {
+        this.courseRepository = courseRepository;
+        this.subjectRepository = subjectRepository;
+        this.enabled = enabled;
+        this.rebuildDelay = rebuildDelay;
+        this.refreshInterval = refreshInterval;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        if (enabled) {
+            changeOutbox.addCommitListener(changed::release);
+            Gauge.builder("courses.snapshot.bytes", this,
+                            snapshot -> snapshot.current != null ? snapshot.current.byteSize() : 0)
+                    .description("Off-heap bytes held by the catalog snapshot")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("courses.snapshot.entries", this,
+                            snapshot -> snapshot.current != null
+                                    ? snapshot.current.courseCount() + snapshot.current.subjectCount() : 0)
+                    .description("Courses and subjects in the catalog snapshot")
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isServing() {
+        return current != null;
+    }
+
+    // Build a new copy from the database and swap it in
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        OffHeapCatalog.Builder builder = new OffHeapCatalog.Builder();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<CourseRow> rows = courseRepository.streamAllRows()) {
+                long[] lastCourseId = {0};
+                rows.forEach(row -> {
+                    if (row.courseId() != lastCourseId[0]) {
+                        builder.addCourse(row.courseId(), row.courseName(), version(row.courseVersion()));
+                        lastCourseId[0] = row.courseId();
+                    }
+                    if (row.subjectId() != null) {
+                        builder.addSubjectOfLastCourse(row.subjectId(), row.subjectTitle(), version(row.subjectVersion()));
+                    }
+                });
+            }
+            for (SubjectView subject : subjectRepository.findViewsWithoutCourse()) {
+                builder.addSubjectWithoutCourse(subject.id(), subject.title(), version(subject.version()));
+            }
+        });
+        OffHeapCatalog catalog = builder.build();
+        current = catalog;
+        logger.debug("Catalog snapshot rebuilt: {} courses, {} subjects, {} bytes in {} ms", catalog.courseCount(),
+                catalog.subjectCount(), catalog.byteSize(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private static long version(Long version) {
+        return version != null ? version : 0;
+    }
+
+    // --- Courses (same answers and errors as CourseService) ---
+
+    public CourseView getCourseById(Long id) {
+        CourseView course = current.course(id);
+        if (course == null) {
+            throw NotFoundException.course(id);
+        }
+        return course;
+    }
+
+    public List<CourseView> getCoursesAfter(Long afterId, int limit) {
+        return current.coursesAfter(afterId != null ? afterId : 0L, limit);
+    }
+
+    public Map<Long, CourseView> getCoursesByIds(Collection<Long> ids) {
+        return current.courses(ids);
+    }
+
+    public long getCourseVersion(Long id) {
+        Long version = current.courseVersion(id);
+        if (version == null) {
+            throw NotFoundException.course(id);
+        }
+        return version;
+    }
+
+    public List<SubjectView> getSubjectsByCourseId(Long courseId) {
+        List<SubjectView> subjects = current.subjectsOfCourse(courseId);
+        if (subjects == null) {
+            throw NotFoundException.course(courseId);
+        }
+        return subjects;
+    }
+
+    public SubjectView getSubjectByCourseAndSubjectId(Long courseId, Long subjectId) {
+        OffHeapCatalog catalog = current;
+        SubjectView subject = catalog.subject(subjectId);
+        if (subject != null && courseId.equals(subject.courseId())) {
+            return subject;
+        }
+        throw catalog.courseVersion(courseId) != null
+                ? NotFoundException.subjectOfCourse(subjectId, courseId)
+                : NotFoundException.course(courseId);
+    }
+
+    public void streamAllCourses(Consumer<CourseView> consumer) {
+        current.forEachCourse(consumer);
+    }
+
+    // --- Subjects (same answers and errors as SubjectService) ---
+
+    public SubjectView getSubjectById(Long id) {
+        SubjectView subject = current.subject(id);
+        if (subject == null) {
+            throw NotFoundException.subject(id);
+        }
+        return subject;
+    }
+
+    public List<SubjectView> getSubjectsAfter(Long afterId, int limit) {
+        return current.subjectsAfter(afterId != null ? afterId : 0L, limit);
+    }
+
+    public Map<Long, SubjectView> getSubjectsByIds(Collection<Long> ids) {
+        return current.subjects(ids);
+    }
+
+    public void streamAllSubjects(Consumer<SubjectView> consumer) {
+        current.forEachSubject(consumer);
+    }
+
+    // --- Lifecycle ---
+
+    private void rebuildLoop() {
+        while (running) {
+            try {
+                if (changed.tryAcquire(refreshInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+                    // Let the rest of a burst of commits land, then take them all in one rebuild
+                    Thread.sleep(rebuildDelay.toMillis());
+                    changed.drainPermits();
+                }
+                if (running) {
+                    rebuild();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException ex) {
+                logger.warn("Catalog snapshot rebuild failed: {}", ex.getMessage());
+            }
+        }
+    }
+
+    // The first copy is built before the application takes requests; if the database cannot be read yet, requests
+    // are served by JPA until a later rebuild succeeds
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            logger.warn("Catalog snapshot not built at startup, serving from the database: {}", ex.getMessage());
+        }
+        rebuilder = Thread.ofPlatform().name("catalog-snapshot").daemon().start(this::rebuildLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        changed.release();
+        if (rebuilder != null) {
+            try {
+                rebuilder.join(Duration.ofSeconds(5));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.courses.service;
+
+import com.example.courses.dto.CourseStats;
+import com.example.courses.dto.CourseSubjectCount;
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.example.courses.repository.CourseRepository;
+import com.example.courses.repository.SubjectRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Subject counts per course behind GET /api/courses/stats. They are loaded with one GROUP BY query on the first
+// request and then follow every committed insert, update and delete through Hibernate post-commit listeners, so
+// a write adjusts a single count instead of invalidating them all. Bulk JPQL statements bypass those events and a
+// write committing while the counts load can be counted twice, so they are reloaded from the database once they
+// are max-age old. The rendered response is kept until the next change.
+@Component
+public class CatalogStats implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    static final int MAX_TOP = 100;
+
+    private static final Comparator<CourseSubjectCount> MOST_SUBJECTS =
+            Comparator.comparingLong(CourseSubjectCount::subjects).reversed().thenComparing(CourseSubjectCount::id);
+
+    private final CourseRepository courseRepository;
+    private final SubjectRepository subjectRepository;
+    private final long maxAgeNanos;
+    private final Map<Long, CourseSubjectCount> countsByCourse = new ConcurrentHashMap<>();
+    private final AtomicLong subjectTotal = new AtomicLong();
+    // Bumped by every applied change; a rendered response is reused only while it is unchanged
+    private final AtomicLong changes = new AtomicLong();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile long loadedAt;
+    private volatile boolean loaded;
+    private volatile Rendered rendered;
+
+    public CatalogStats(EntityManagerFactory entityManagerFactory, CourseRepository courseRepository,
+                        SubjectRepository subjectRepository,
+                        @Value("${courses.stats.max-age:1m}") Duration maxAge) {
+        this.courseRepository = courseRepository;
+        this.subjectRepository = subjectRepository;
+        this.maxAgeNanos = maxAge.toNanos();
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    public CourseStats getStats(int top) {
+        if (top < 1 || top > MAX_TOP) {
+            throw new IllegalArgumentException("top must be between 1 and " + MAX_TOP);
+        }
+        if (!loaded || System.nanoTime() - loadedAt > maxAgeNanos) {
+            reload();
+        }
+        Rendered last = rendered;
+        long generation = changes.get();
+        if (last != null && last.generation == generation) {
+            return withTop(last.stats, top);
+        }
+        List<CourseSubjectCount> counts = countsByCourse.values().stream()
+                .sorted(Comparator.comparing(CourseSubjectCount::id))
+                .toList();
+        List<CourseSubjectCount> topCourses = counts.stream().sorted(MOST_SUBJECTS).limit(MAX_TOP).toList();
+        CourseStats stats = new CourseStats(counts.size(), subjectTotal.get(), topCourses, counts);
+        rendered = new Rendered(generation, stats);
+        return withTop(stats, top);
+    }
+
+    private static CourseStats withTop(CourseStats stats, int top) {
+        List<CourseSubjectCount> topCourses = stats.topCourses();
+        return new CourseStats(stats.courses(), stats.subjects(),
+                topCourses.subList(0, Math.min(top, topCourses.size())), stats.subjectCounts());
+    }
+
+    private void reload() {
+        loadLock.lock();
+        try {
+            if (loaded && System.nanoTime() - loadedAt <= maxAgeNanos) {
+                return;
+            }
+            List<CourseSubjectCount> counts = courseRepository.countSubjectsPerCourse();
+            long subjects = subjectRepository.count();
+            countsByCourse.clear();
+            counts.forEach(count -> countsByCourse.put(count.id(), count));
+            subjectTotal.set(subjects);
+            changes.incrementAndGet();
+            loadedAt = System.nanoTime();
+            loaded = true;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // --- Hibernate post-commit events (ignored until the counts are first loaded) ---
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!loaded) {
+            return;
+        }
+        if (event.getEntity() instanceof Course course) {
+            countsByCourse.merge(course.getId(), new CourseSubjectCount(course.getId(), course.getName(), 0),
+                    (current, created) -> new CourseSubjectCount(current.id(), created.name(), current.subjects()));
+        } else if (event.getEntity() instanceof Subject subject) {
+            subjectTotal.incrementAndGet();
+            addSubjects(courseId(subject.getCourse()), 1);
+        } else {
+            return;
+        }
+        changes.incrementAndGet();
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!loaded) {
+            return;
+        }
+        if (event.getEntity() instanceof Course course) {
+            countsByCourse.computeIfPresent(course.getId(),
+                    (id, current) -> new CourseSubjectCount(id, course.getName(), current.subjects()));
+        } else if (event.getEntity() instanceof Subject subject && event.getOldState() != null) {
+            Long before = courseId(previousValue(event, "course"));
+            Long after = courseId(subject.getCourse());
+            if (Objects.equals(before, after)) {
+                return;
+            }
+            addSubjects(before, -1);
+            addSubjects(after, 1);
+        } else {
+            return;
+        }
+        changes.incrementAndGet();
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!loaded) {
+            return;
+        }
+        if (event.getEntity() instanceof Course course) {
+            countsByCourse.remove(course.getId());
+        } else if (event.getEntity() instanceof Subject subject) {
+            subjectTotal.decrementAndGet();
+            addSubjects(courseId(subject.getCourse()), -1);
+        } else {
+            return;
+        }
+        changes.incrementAndGet();
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    private void addSubjects(Long courseId, int delta) {
+        if (courseId != null) {
+            countsByCourse.computeIfPresent(courseId,
+                    (id, current) -> new CourseSubjectCount(id, current.name(), Math.max(0, current.subjects() + delta)));
+        }
+    }
+
+    // Reading the id of a lazy course reference does not initialize it
+    private static Long courseId(Object course) {
+        return course instanceof Course c ? c.getId() : null;
+    }
+
+    private static Object previousValue(PostUpdateEvent event, String property) {
+        return event.getOldState()[event.getPersister().getEntityMetamodel().getPropertyIndex(property)];
+    }
+
+    // Rendered with the MAX_TOP courses with the most subjects; a request for fewer takes a prefix
+    private record Rendered(long generation, CourseStats stats) {
+    }
+}
@@ -0,0 +1,412 @@
+package com.example.courses.service;
+
+import com.example.courses.dto.ChangeEvent;
+import com.example.courses.repository.CatalogChangeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Change feed behind GET /api/courses/changes. One poller thread reads new rows from the catalog_change outbox
+// (every poll-interval, and right after a local commit) into a window of the most recent events; each subscriber
+// has its own virtual thread, served from that window once it is close to the head and from the outbox while it is
+// catching up, so a slow client holds up nobody else. Offsets are outbox ids. An id is taken when the row is
+// inserted, just before commit, so a smaller id can become visible after a larger one: delivery stops at a gap in
+// the ids until the row after it is gap-timeout old, after which the gap is taken to be a rollback and skipped.
+// A skipped gap is watched for late-commit-window in case it was a slow commit after all (lock waits, a slow fsync):
+// a change that shows up in it is still delivered in order to streams behind it, and streams already past it get
+// the reset event, so their replica reloads instead of silently missing the change.
+@Component
+public class ChangeFeed implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+
+    private static final Duration PRUNE_INTERVAL = Duration.ofHours(1);
+
+    // Late commits remembered for subscribers to check against; one that falls further behind is reset
+    private static final int LATE_COMMITS_KEPT = 1000;
+
+    private final CatalogChangeRepository changeRepository;
+    private final int batchSize;
+    private final int bufferSize;
+    private final Duration pollInterval;
+    private final Duration gapTimeout;
+    private final Duration heartbeat;
+    private final Duration retention;
+    private final Duration lateCommitWindow;
+
+    // Offset -> event for the newest events the poller has taken in; holds every event after windowFloor
+    private final NavigableMap<Long, ChangeEvent> window = new ConcurrentSkipListMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+    private final Semaphore wakeUp = new Semaphore(0);
+    // First offset of a skipped gap -> its last offset and when it was skipped
+    private final NavigableMap<Long, SkippedGap> skippedGaps = new ConcurrentSkipListMap<>();
+    // Offsets of changes that committed into a skipped gap, by sequence number (written by the poller alone)
+    private final NavigableMap<Long, Long> lateCommits = new ConcurrentSkipListMap<>();
+    private volatile long lateSequence;
+    private volatile long head = -1;
+    private volatile long windowFloor = -1;
+    private volatile boolean running;
+    private Thread poller;
+
+    public ChangeFeed(CatalogChangeRepository changeRepository, ChangeOutbox changeOutbox, MeterRegistry meterRegistry,
+                      @Value("${courses.changes.batch-size:500}") int batchSize,
+                      @Value("${courses.changes.buffer-size:10000}") int bufferSize,
+                      @Value("${courses.changes.poll-interval:500ms}") Duration pollInterval,
+                      @Value("${courses.changes.gap-timeout:5s}") Duration gapTimeout,
+                      @Value("${courses.changes.heartbeat:15s}") Duration heartbeat,
+                      @Value("${courses.changes.retention:7d}") Duration retention,
+                      @Value("${courses.changes.late-commit-window:10m}") Duration lateCommitWindow) {
+        this.changeRepository = changeRepository;
+        this.batchSize = batchSize;
+        this.bufferSize = bufferSize;
+        this.pollInterval = pollInterval;
+        this.gapTimeout = gapTimeout;
+        this.heartbeat = heartbeat;
+        this.retention = retention;
+        this.lateCommitWindow = lateCommitWindow;
+        changeOutbox.addCommitListener(wakeUp::release);
+        Gauge.builder("courses.changes.subscribers", subscribers, Set::size)
+                .description("Open change feed streams")
+                .register(meterRegistry);
+    }
+
+    // Stream the changes after 'since' (null: from the newest settled change, see settledOffset) until the client
+    // goes away. A 'since' older than the oldest change still kept gets a single reset event instead: the client has
+    // missed changes that were pruned, so it has to reload the catalog and resume from the offset the reset carries.
+    public SseEmitter subscribe(Long since) {
+        if (since != null && since < 0) {
+            throw new IllegalArgumentException("since must be a change offset (0 or more)");
+        }
+        SseEmitter emitter = new SseEmitter();
+        long offset = since != null ? since : settledOffset();
+        Long firstKept = changeRepository.findFirstOffset().orElse(null);
+        if (firstKept != null && offset + 1 < firstKept) {
+            try {
+                sendReset(emitter);
+            } catch (IOException ex) {
+                emitter.completeWithError(ex);
+            }
+            return emitter;
+        }
+        Subscriber subscriber = new Subscriber(emitter, offset);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        wakeUp.release();
+        Thread.ofVirtual().name("change-feed-subscriber").start(subscriber::run);
+        return emitter;
+    }
+
+    // The deliverable changes after an offset: stops short of an id gap younger than gap-timeout, and records an
+    // older one it skips so that a late commit into it is noticed
+    public List<ChangeEvent> readAfter(long since, int limit) {
+        List<ChangeEvent> events = changeRepository.findAfter(since, Limit.of(limit));
+        Instant settled = Instant.now().minus(gapTimeout);
+        long expected = since + 1;
+        int deliverable = 0;
+        for (ChangeEvent event : events) {
+            if (event.offset() != expected) {
+                if (event.at().isAfter(settled)) {
+                    break;
+                }
+                skippedGaps.putIfAbsent(expected, new SkippedGap(event.offset() - 1, Instant.now()));
+            }
+            expected = event.offset() + 1;
+            deliverable++;
+        }
+        return deliverable == events.size() ? events : events.subList(0, deliverable);
+    }
+
+    // The reset event: the client reloads the catalog and resumes from the offset it carries
+    private void sendReset(SseEmitter emitter) throws IOException {
+        long resumeAt = settledOffset();
+        emitter.send(SseEmitter.event().name("reset").id(Long.toString(resumeAt))
+                .data(Map.of("offset", resumeAt), MediaType.APPLICATION_JSON));
+        emitter.complete();
+    }
+
+    // The newest offset no transaction still in flight can fall below: the newest id of the rows older than
+    // gap-timeout (or just before the oldest row, when all are younger). Starting from the plain maximum could skip a
+    // smaller id that commits a moment later; starting here may repeat a few seconds of changes instead, which
+    // replicas apply idempotently.
+    private long settledOffset() {
+        long settled = changeRepository.findLastOffsetCreatedBefore(Instant.now().minus(gapTimeout).toEpochMilli());
+        return settled > 0 ? settled : changeRepository.findFirstOffset().map(first -> first - 1).orElse(0L);
+    }
+
+    private void poll() {
+        Instant nextPrune = Instant.now();
+        while (running) {
+            try {
+                if (wakeUp.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+                    wakeUp.drainPermits();
+                }
+                if (!running) {
+                    break;
+                }
+                if (Instant.now().isAfter(nextPrune)) {
+                    prune();
+                    nextPrune = Instant.now().plus(PRUNE_INTERVAL);
+                }
+                if (subscribers.isEmpty()) {
+                    // Nobody to serve: stop reading, and start from the then newest change when someone subscribes
+                    head = -1;
+                    windowFloor = -1;
+                    window.clear();
+                    skippedGaps.clear();
+                    continue;
+                }
+                advance();
+                checkLateCommits();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException ex) {
+                logger.warn("Change feed poll failed: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private void advance() {
+        if (head < 0) {
+            head = settledOffset();
+            windowFloor = head;
+        }
+        List<ChangeEvent> events;
+        do {
+            events = readAfter(head, batchSize);
+            for (ChangeEvent event : events) {
+                window.put(event.offset(), event);
+            }
+            if (!events.isEmpty()) {
+                head = events.get(events.size() - 1).offset();
+            }
+        } while (events.size() == batchSize);
+        while (window.size() > bufferSize) {
+            // Raise the floor before the entry goes, so a reader never takes a window with a hole for complete
+            long oldest = window.firstKey();
+            windowFloor = oldest;
+            window.remove(oldest);
+        }
+        // Every pass wakes the subscribers, also those held at a gap in the outbox rather than at the head
+        lock.lock();
+        try {
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Look for changes that committed into a skipped gap. Each one goes into the window, for streams still behind it,
+    // and into lateCommits, for streams already past it; what is still missing of the gap stays watched.
+    private void checkLateCommits() {
+        Instant expired = Instant.now().minus(lateCommitWindow);
+        for (Map.Entry<Long, SkippedGap> entry : skippedGaps.entrySet()) {
+            long from = entry.getKey();
+            SkippedGap gap = entry.getValue();
+            if (gap.at().isBefore(expired)) {
+                skippedGaps.remove(from, gap);
+                continue;
+            }
+            List<ChangeEvent> late = changeRepository.findBetween(from, gap.to());
+            if (late.isEmpty()) {
+                continue;
+            }
+            skippedGaps.remove(from, gap);
+            long missing = from;
+            for (ChangeEvent event : late) {
+                if (event.offset() > missing) {
+                    skippedGaps.putIfAbsent(missing, new SkippedGap(event.offset() - 1, gap.at()));
+                }
+                missing = event.offset() + 1;
+                long floor = windowFloor;
+                if (floor >= 0 && event.offset() > floor) {
+                    window.put(event.offset(), event);
+                }
+                // Published after the window has it: a stream that then finds itself before it will still read it
+                long sequence = lateSequence + 1;
+                lateCommits.put(sequence, event.offset());
+                lateSequence = sequence;
+                logger.warn("Change {} committed {} after its gap was skipped; streams past it are reset",
+                        event.offset(), Duration.between(gap.at(), Instant.now()));
+            }
+            if (missing <= gap.to()) {
+                skippedGaps.putIfAbsent(missing, new SkippedGap(gap.to(), gap.at()));
+            }
+        }
+        while (lateCommits.size() > LATE_COMMITS_KEPT) {
+            lateCommits.pollFirstEntry();
+        }
+    }
+
+    private void prune() {
+        int pruned = changeRepository.deleteCreatedBefore(Instant.now().minus(retention).toEpochMilli());
+        if (pruned > 0) {
+            logger.info("Pruned {} changes older than {}", pruned, retention);
+        }
+    }
+
+    // Next changes for a subscriber at 'offset': from the window when it covers the offset, otherwise from the outbox
+    private List<ChangeEvent> nextFor(long offset) {
+        long floor = windowFloor;
+        if (floor >= 0 && offset >= floor) {
+            List<ChangeEvent> events = new ArrayList<>();
+            for (ChangeEvent event : window.tailMap(offset, false).values()) {
+                if (events.size() == batchSize) {
+                    break;
+                }
+                events.add(event);
+            }
+            // The floor may have risen past the offset while reading; then the window no longer had it all
+            if (windowFloor <= offset) {
+                return events;
+            }
+        }
+        if (head >= 0 && offset >= head) {
+            return List.of();
+        }
+        return readAfter(offset, batchSize);
+    }
+
+    // Wait for the poller's next pass (at most one heartbeat)
+    private void awaitPoll() throws InterruptedException {
+        lock.lock();
+        try {
+            advanced.await(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        poller = Thread.ofPlatform().name("change-feed-poller").daemon().start(this::poll);
+    }
+
+    // Close every stream (clients reconnect with Last-Event-ID) and stop the poller
+    @Override
+    public void stop() {
+        running = false;
+        wakeUp.release();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        lock.lock();
+        try {
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (poller != null) {
+            try {
+                poller.join(Duration.ofSeconds(5));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record SkippedGap(long to, Instant at) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private volatile long offset;
+        private volatile boolean closed;
+        private long lateCommitsSeen = lateSequence;
+
+        private Subscriber(SseEmitter emitter, long offset) {
+            this.emitter = emitter;
+            this.offset = offset;
+        }
+
+        private void run() {
+            try {
+                long lastSent = System.nanoTime();
+                while (running && !closed) {
+                    if (passedALateCommit()) {
+                        sendReset(emitter);
+                        return;
+                    }
+                    List<ChangeEvent> events = nextFor(offset);
+                    if (events.isEmpty()) {
+                        if (System.nanoTime() - lastSent >= heartbeat.toNanos()) {
+                            // Nothing new for a heartbeat: a comment keeps proxies from timing the stream out and
+                            // finds clients that have gone away
+                            emitter.send(SseEmitter.event().comment("heartbeat"));
+                            lastSent = System.nanoTime();
+                        }
+                        awaitPoll();
+                        continue;
+                    }
+                    for (ChangeEvent event : events) {
+                        emitter.send(SseEmitter.event().name("change").id(Long.toString(event.offset()))
+                                .data(event, MediaType.APPLICATION_JSON));
+                        offset = event.offset();
+                    }
+                    lastSent = System.nanoTime();
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away or the emitter completed
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                logger.warn("Change feed stream failed: {}", ex.getMessage());
+                emitter.completeWithError(ex);
+            } finally {
+                close();
+            }
+        }
+
+        // Whether a change committed into a skipped gap after this stream had already sent past it. Checked before
+        // every read, so a late commit still ahead of the offset is read in order instead.
+        private boolean passedALateCommit() {
+            boolean passed = false;
+            for (Map.Entry<Long, Long> late : lateCommits.tailMap(lateCommitsSeen, false).entrySet()) {
+                // Entries this stream never saw were dropped: it may have passed one
+                passed |= late.getKey() > lateCommitsSeen + 1 || late.getValue() <= offset;
+                lateCommitsSeen = late.getKey();
+            }
+            return passed;
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
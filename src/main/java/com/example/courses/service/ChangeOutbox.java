@@ -0,0 +1,163 @@
+package com.example.courses.service;
+
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Transactional outbox for the change feed: every course and subject insert, update and delete that Hibernate
+// flushes (CourseService, SubjectService, the bulk import and the write-behind writers alike) is collected per
+// session and written to catalog_change as one JDBC batch just before the transaction commits, so a change and its
+// outbox row commit or roll back together. Bulk JPQL updates bypass Hibernate events and are not recorded.
+@Component
+public class ChangeOutbox implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String INSERT = "insert into catalog_change "
+            + "(created_at, entity_type, operation, entity_id, course_id, version, name, title) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final int batchSize;
+    private final Map<EventSource, PendingChanges> pendingBySession = new ConcurrentHashMap<>();
+    private final List<Runnable> commitListeners = new CopyOnWriteArrayList<>();
+
+    public ChangeOutbox(EntityManagerFactory entityManagerFactory,
+                        @Value("${courses.changes.batch-size:500}") int batchSize) {
+        this.batchSize = batchSize;
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_INSERT, this);
+        listeners.appendListeners(EventType.POST_UPDATE, this);
+        listeners.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    // Called after every commit that wrote outbox rows, so the feed can pick them up without waiting for its next poll
+    public void addCommitListener(Runnable listener) {
+        commitListeners.add(listener);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getSession(), event.getEntity(), "CREATED");
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getSession(), event.getEntity(), "UPDATED");
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getSession(), event.getEntity(), "DELETED");
+    }
+
+    // Recorded inside the transaction, not after it
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void record(EventSource session, Object entity, String operation) {
+        Change change;
+        boolean deleted = operation.equals("DELETED");
+        if (entity instanceof Course course) {
+            change = new Change("COURSE", operation, course.getId(), course.getId(), course.getVersion(),
+                    deleted ? null : course.getName(), null);
+        } else if (entity instanceof Subject subject) {
+            Long courseId = subject.getCourse() != null ? subject.getCourse().getId() : null;
+            change = new Change("SUBJECT", operation, subject.getId(), courseId, subject.getVersion(),
+                    null, deleted ? null : subject.getTitle());
+        } else {
+            return;
+        }
+        pendingBySession.computeIfAbsent(session, this::register).changes.add(change);
+    }
+
+    // The first change in a transaction hooks the session's completion, which writes (or drops) what has collected
+    private PendingChanges register(EventSource session) {
+        PendingChanges pending = new PendingChanges();
+        session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) pending);
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) pending);
+        return pending;
+    }
+
+    private record Change(String entityType, String operation, Long entityId, Long courseId, Long version,
+                          String name, String title) {
+    }
+
+    private class PendingChanges implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final List<Change> changes = new ArrayList<>();
+
+        // Runs after the final flush, inside the transaction and on its connection
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (changes.isEmpty()) {
+                return;
+            }
+            long createdAt = System.currentTimeMillis();
+            session.doWork(connection -> {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                    int batched = 0;
+                    for (Change change : changes) {
+                        insert.setLong(1, createdAt);
+                        insert.setString(2, change.entityType());
+                        insert.setString(3, change.operation());
+                        insert.setLong(4, change.entityId());
+                        setLong(insert, 5, change.courseId());
+                        setLong(insert, 6, change.version());
+                        insert.setString(7, change.name());
+                        insert.setString(8, change.title());
+                        insert.addBatch();
+                        if (++batched % batchSize == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    if (batched % batchSize != 0) {
+                        insert.executeBatch();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            pendingBySession.remove(session);
+            if (success && !changes.isEmpty()) {
+                commitListeners.forEach(Runnable::run);
+            }
+        }
+    }
+
+    private static void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+}
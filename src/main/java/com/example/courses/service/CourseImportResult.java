@@ -0,0 +1,25 @@
+package com.example.courses.service;
+
+// Outcome of one row of a bulk course import; 'index' is the row's zero-based position in the upload
+public record CourseImportResult(int index, String name, Status status, Long id, String message) {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID
+    }
+
+    static CourseImportResult created(int index, String name, Long id) {
+        return new CourseImportResult(index, name, Status.CREATED, id, null);
+    }
+
+    static CourseImportResult duplicate(int index, String name) {
+        return new CourseImportResult(index, name, Status.DUPLICATE, null, "Course with name '" + name + "' already exists");
+    }
+
+    static CourseImportResult duplicateSubject(int index, String name, String title) {
+        return new CourseImportResult(index, name, Status.DUPLICATE, null, "Subject with title '" + title + "' already exists");
+    }
+
+    static CourseImportResult invalid(int index, String name, String message) {
+        return new CourseImportResult(index, name, Status.INVALID, null, message);
+    }
+}
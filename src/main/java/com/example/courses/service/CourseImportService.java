@@ -0,0 +1,177 @@
+package com.example.courses.service;
+
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.example.courses.repository.CourseRepository;
+import com.example.courses.repository.SubjectRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+// Bulk course import: rows are processed in chunks, each with one duplicate-check query and one batched insert transaction
+@Service
+public class CourseImportService {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private NameIndex nameIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${courses.import.batch-size:500}")
+    private int batchSize;
+
+    // Import every row the iterator yields (a parsed JSON array or a lazily read NDJSON upload)
+    public List<CourseImportResult> importCourses(Iterator<Course> rows) {
+        List<CourseImportResult> results = new ArrayList<>();
+        importCourses(rows, new HashSet<>(), new HashSet<>(), (course, result) -> results.add(result));
+        return results;
+    }
+
+    // Import rows that are already unique among themselves (a catalog archive, written from a database with the same
+    // unique keys), handing each row and its result to the consumer as its chunk commits. Nothing is kept across
+    // chunks, so memory stays flat however many rows there are; a duplicate within the rows is not reported but
+    // fails its chunk on the unique index.
+    public void importUniqueCourses(Iterator<Course> rows, BiConsumer<Course, CourseImportResult> results) {
+        importCourses(rows, null, null, results);
+    }
+
+    private void importCourses(Iterator<Course> rows, Set<String> namesInUpload, Set<String> titlesInUpload,
+                               BiConsumer<Course, CourseImportResult> results) {
+        List<Course> chunk = new ArrayList<>(batchSize);
+        int index = 0;
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == batchSize || !rows.hasNext()) {
+                List<CourseImportResult> chunkResults = importChunk(chunk, index, namesInUpload, titlesInUpload);
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.accept(chunk.get(i), chunkResults.get(i));
+                }
+                index += chunk.size();
+                chunk.clear();
+            }
+        }
+    }
+
+    // Names and titles are compared by normalized key (see NameKeys), matching the unique constraints; the upload
+    // sets are null when the rows need no checking against each other
+    private List<CourseImportResult> importChunk(List<Course> chunk, int firstIndex, Set<String> namesInUpload,
+                                                 Set<String> titlesInUpload) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            Set<String> existingNames = findExistingNameKeys(chunk);
+            Set<String> existingTitles = findExistingTitleKeys(chunk);
+            List<CourseImportResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Course course = chunk.get(i);
+                String invalid = validate(course);
+                String duplicateTitle = invalid == null ? findDuplicateTitle(course, existingTitles, titlesInUpload) : null;
+                if (invalid != null) {
+                    results.add(CourseImportResult.invalid(firstIndex + i, course == null ? null : course.getName(), invalid));
+                } else if (existingNames.contains(course.getNameKey())
+                        || (namesInUpload != null && namesInUpload.contains(course.getNameKey()))) {
+                    results.add(CourseImportResult.duplicate(firstIndex + i, course.getName()));
+                } else if (duplicateTitle != null) {
+                    results.add(CourseImportResult.duplicateSubject(firstIndex + i, course.getName(), duplicateTitle));
+                } else {
+                    if (namesInUpload != null) {
+                        namesInUpload.add(course.getNameKey());
+                        course.getSubjects().forEach(subject -> titlesInUpload.add(subject.getTitleKey()));
+                    }
+                    course.setId(null);
+                    // Re-attach every subject to its course before the cascade persists them
+                    course.setSubjects(new ArrayList<>(course.getSubjects()));
+                    entityManager.persist(course);
+                    results.add(null); // filled in once the flush has assigned ids
+                }
+            }
+            // One flush sends the inserts for the whole chunk in JDBC batches
+            entityManager.flush();
+            entityManager.clear();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (results.get(i) == null) {
+                    Course course = chunk.get(i);
+                    results.set(i, CourseImportResult.created(firstIndex + i, course.getName(), course.getId()));
+                    catalogCache.evictCourseName(course.getName());
+                }
+            }
+            return results;
+        });
+    }
+
+    // One set-based query per chunk instead of a lookup per row; with the name index on, only names it
+    // holds are queried
+    private Set<String> findExistingNameKeys(List<Course> chunk) {
+        List<String> nameKeys = chunk.stream()
+                .filter(course -> course != null && hasText(course.getName()))
+                .map(Course::getNameKey)
+                .filter(key -> !nameIndex.isEnabled() || nameIndex.mayHaveCourseName(key))
+                .distinct()
+                .toList();
+        return nameKeys.isEmpty() ? Set.of() : new HashSet<>(courseRepository.findExistingNameKeys(nameKeys));
+    }
+
+    private Set<String> findExistingTitleKeys(List<Course> chunk) {
+        List<String> titleKeys = chunk.stream()
+                .filter(course -> course != null && course.getSubjects() != null)
+                .flatMap(course -> course.getSubjects().stream())
+                .filter(subject -> subject != null && hasText(subject.getTitle()))
+                .map(Subject::getTitleKey)
+                .filter(key -> !nameIndex.isEnabled() || nameIndex.mayHaveSubjectTitle(key))
+                .distinct()
+                .toList();
+        return titleKeys.isEmpty() ? Set.of() : new HashSet<>(subjectRepository.findExistingTitleKeys(titleKeys));
+    }
+
+    // The first subject title that already exists, in the database or earlier in the upload (this course included)
+    private static String findDuplicateTitle(Course course, Set<String> existingTitles, Set<String> titlesInUpload) {
+        Set<String> titlesInCourse = new HashSet<>();
+        for (Subject subject : course.getSubjects()) {
+            String titleKey = subject.getTitleKey();
+            if (existingTitles.contains(titleKey) || (titlesInUpload != null && titlesInUpload.contains(titleKey))
+                    || !titlesInCourse.add(titleKey)) {
+                return subject.getTitle();
+            }
+        }
+        return null;
+    }
+
+    private static String validate(Course course) {
+        if (course == null || !hasText(course.getName())) {
+            return "Course name cannot be null or empty";
+        }
+        for (Subject subject : course.getSubjects()) {
+            if (subject == null || !hasText(subject.getTitle())) {
+                return "Subject title cannot be null or empty";
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
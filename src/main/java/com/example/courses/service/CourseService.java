@@ -1,17 +1,35 @@
 package com.example.courses.service;
 
+import com.example.courses.dto.CoursePatch;
+import com.example.courses.dto.CourseRow;
+import com.example.courses.dto.CourseView;
+import com.example.courses.dto.SubjectView;
 import com.example.courses.model.Course;
+import com.example.courses.model.NameKeys;
 import com.example.courses.model.Subject;
 import com.example.courses.repository.CourseRepository;
 import com.example.courses.repository.SubjectRepository;
-import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+// Every public method is timed as courses.service{class,method}, with a percentile histogram. Methods run in a
+// read-only transaction (served by the read replica when one is configured) unless they are marked @Transactional.
 @Service
+@Timed(value = "courses.service", histogram = true)
+@Transactional(readOnly = true)
 @Validated
 public class CourseService {
 
@@ -21,126 +39,231 @@ public class CourseService {
     @Autowired
     private SubjectRepository subjectRepository;
 
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private NameIndex nameIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     // --- GET Operations ---
 
-    // Retrieve all courses from the database
+    // Retrieve all courses, with their subjects, from the database
     public List<Course> getAllCourses() {
-        return courseRepository.findAll();
+        return courseRepository.findAllWithSubjects();
+    }
+
+    // Retrieve up to 'limit' courses whose id is greater than the cursor (null starts from the beginning)
+    public List<CourseView> getCoursesAfter(Long afterId, int limit) {
+        List<Long> ids = courseRepository.findIdsAfter(afterId != null ? afterId : 0L, Limit.of(limit));
+        return ids.isEmpty() ? List.of() : CourseViews.fromRows(courseRepository.findRowsByIdIn(ids));
+    }
+
+    // Hand every course to the consumer in id order, one course at a time off the database cursor
+    public void streamAllCourses(Consumer<CourseView> consumer) {
+        try (Stream<CourseRow> rows = courseRepository.streamAllRows()) {
+            CourseViews.forEach(rows, consumer);
+        }
+    }
+
+    // Retrieve a course, with its subjects, by its ID (served from the catalog cache when possible)
+    public CourseView getCourseById(Long id) {
+        return catalogCache.getCourse(id, key -> CourseViews.fromRows(courseRepository.findRowsById(key)).stream()
+                .findFirst()
+                .orElseThrow(() -> NotFoundException.course(id)));
+    }
+
+    // Retrieve many courses, with their subjects, by id: cached ones from the catalog cache and all the others in one
+    // query (ids with no course are left out)
+    public Map<Long, CourseView> getCoursesByIds(Collection<Long> ids) {
+        return catalogCache.getCourses(ids, missing -> CourseViews.fromRows(courseRepository.findRowsByIdIn(missing)));
+    }
+
+    // Current version of a course (its ETag), from a cached view or response when there is one and otherwise from a
+    // single-column lookup; the aggregate is not loaded, so an unchanged course can be answered with 304
+    public long getCourseVersion(Long id) {
+        Long cached = catalogCache.peekCourseVersion(id);
+        if (cached != null) {
+            return cached;
+        }
+        return courseRepository.findVersionById(id)
+                .orElseThrow(() -> NotFoundException.course(id));
     }
 
-    // Retrieve a course by its ID
-    public Course getCourseById(Long id) {
-        return courseRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Course not found with id: " + id));
+    // Retrieve all subjects for a specific course (an empty list needs one more query to tell a bare course from
+    // a missing one)
+    public List<SubjectView> getSubjectsByCourseId(Long courseId) {
+        List<SubjectView> subjects = subjectRepository.findViewsByCourseId(courseId);
+        if (subjects.isEmpty() && !courseRepository.existsById(courseId)) {
+            throw NotFoundException.course(courseId);
+        }
+        return subjects;
     }
 
-    // Retrieve all subjects for a specific course
-    public List<Subject> getSubjectsByCourseId(Long courseId) {
-        if (!courseRepository.existsById(courseId)) {
-            throw new EntityNotFoundException("Course not found with id: " + courseId);
+    // Retrieve a specific subject by its ID within a specific course (served from the catalog cache when possible)
+    public SubjectView getSubjectByCourseAndSubjectId(Long courseId, Long subjectId) {
+        SubjectView subject = catalogCache.getSubject(subjectId, key -> subjectRepository.findViewById(key).orElse(null));
+        if (subject != null && courseId.equals(subject.courseId())) {
+            return subject;
         }
-        return subjectRepository.findByCourseId(courseId);
+        throw courseRepository.existsById(courseId)
+                ? NotFoundException.subjectOfCourse(subjectId, courseId)
+                : NotFoundException.course(courseId);
     }
 
-    // Retrieve a specific subject by its ID within a specific course
-    public Subject getSubjectByCourseAndSubjectId(Long courseId, Long subjectId) {
-        if (!courseRepository.existsById(courseId)) {
-            throw new EntityNotFoundException("Course not found with id: " + courseId);
+    // Look up the id of the course with the given name, compared by normalized key, or null if there is none
+    // (positive hits are cached; with the name index on, a name it does not hold costs no query at all)
+    private Long findCourseIdByName(String name) {
+        if (nameIndex.isEnabled() && !nameIndex.mayHaveCourseName(NameKeys.normalize(name))) {
+            return null;
         }
-        return subjectRepository.findById(subjectId)
-                .filter(subject -> subject.getCourse() != null && subject.getCourse().getId().equals(courseId))
-                .orElseThrow(() -> new EntityNotFoundException("Subject not found with id: " + subjectId + " for course id: " + courseId));
+        return catalogCache.getCourseIdByName(name, key -> courseRepository.findIdByNameKey(key).orElse(null));
     }
 
     // --- POST Operations ---
 
     // Create a new course, ensuring no duplicate names
+    @Transactional
     public Course createCourse(Course course) {
         if (course.getName() == null || course.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("Course name cannot be null or empty");
         }
-        courseRepository.findByName(course.getName())
-                .ifPresent(existing -> {
-                    throw new IllegalArgumentException("Course with name '" + course.getName() + "' already exists");
-                });
+        if (findCourseIdByName(course.getName()) != null) {
+            throw new IllegalArgumentException("Course with name '" + course.getName() + "' already exists");
+        }
         if (course.getSubjects() != null) {
             course.getSubjects().forEach(subject -> subject.setCourse(course));
         }
-        return courseRepository.save(course);
+        Course savedCourse = courseRepository.save(course);
+        catalogCache.evictCourseName(savedCourse.getName());
+        return savedCourse;
     }
 
     // Add a subject to an existing course
+    @Transactional
     public Subject addSubjectToCourse(Long courseId, Subject subjectDetails) {
         if (subjectDetails.getTitle() == null || subjectDetails.getTitle().trim().isEmpty()) {
             throw new IllegalArgumentException("Subject title cannot be null or empty");
         }
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new EntityNotFoundException("Course not found with id: " + courseId));
-        subjectDetails.setCourse(course);
+        Course course = courseRepository.lockForSubjectChange(courseId)
+                .orElseThrow(() -> NotFoundException.course(courseId));
         course.addSubject(subjectDetails);
-        courseRepository.save(course);
+        // Persist the subject itself: saving the course would merge a copy and leave the returned subject without an id
+        subjectRepository.save(subjectDetails);
+        catalogCache.evictCourse(courseId);
         return subjectDetails;
     }
 
     // --- PUT Operations ---
 
-    // Update an existing course
-    public Course updateCourse(Long id, Course courseDetails) {
+    // Update an existing course (a full replace of its name and subjects); a non-null expectedVersion (If-Match)
+    // must still be the course's current version
+    @Transactional
+    public Course updateCourse(Long id, Course courseDetails, Long expectedVersion) {
         if (courseDetails.getName() == null || courseDetails.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("Course name cannot be null or empty");
         }
-        Course course = courseRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Course not found with id: " + id));
-        courseRepository.findByName(courseDetails.getName())
-                .ifPresent(existing -> {
-                    if (!existing.getId().equals(id)) {
-                        throw new IllegalArgumentException("Course with name '" + courseDetails.getName() + "' already exists");
-                    }
-                });
-        course.setName(courseDetails.getName());
-        if (courseDetails.getSubjects() != null) {
-            course.setSubjects(courseDetails.getSubjects());
-        } else {
-            course.setSubjects(null);
+        List<Subject> subjects = courseDetails.getSubjects() != null ? courseDetails.getSubjects() : List.of();
+        return applyCourseChanges(id, courseDetails.getName(), subjects, expectedVersion);
+    }
+
+    // Apply a merge patch to a course: only the fields the patch names change; a non-null expectedVersion (If-Match)
+    // must still be the course's current version
+    @Transactional
+    public Course patchCourse(Long id, CoursePatch patch, Long expectedVersion) {
+        return applyCourseChanges(id, patch.name(), patch.subjects(), expectedVersion);
+    }
+
+    // Writes only what differs: a rename updates the course row, and subjects are reconciled rather than replaced,
+    // so an unchanged subject is neither deleted nor re-inserted and keeps its id. A null name or subject list is
+    // left as it is.
+    private Course applyCourseChanges(Long id, String name, List<Subject> subjects, Long expectedVersion) {
+        Course course = courseRepository.findWithSubjectsById(id)
+                .orElseThrow(() -> NotFoundException.course(id));
+        VersionMismatchException.check(expectedVersion, course.getVersion(), "Course " + id);
+        String previousName = course.getName();
+        boolean renamed = name != null && !name.equals(previousName);
+        if (renamed) {
+            Long existingId = findCourseIdByName(name);
+            if (existingId != null && !existingId.equals(id)) {
+                throw new IllegalArgumentException("Course with name '" + name + "' already exists");
+            }
+            course.setName(name);
+        }
+        List<Long> previousSubjectIds = subjectIdsOf(course);
+        boolean subjectsChanged = subjects != null && course.reconcileSubjects(subjects);
+        if (subjectsChanged && !renamed) {
+            // Hibernate does not version the course for changes on the subject side; a rename already bumps it
+            entityManager.lock(course, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        }
+        if (!renamed && !subjectsChanged) {
+            return course;
         }
-        return courseRepository.save(course);
+        Course savedCourse = courseRepository.save(course);
+        catalogCache.evictCourse(id);
+        catalogCache.evictCourseName(previousName);
+        catalogCache.evictCourseName(savedCourse.getName());
+        catalogCache.evictSubjects(previousSubjectIds);
+        return savedCourse;
     }
 
-    // Update a subject in a course
-    public Subject updateSubjectInCourse(Long courseId, Long subjectId, Subject subjectDetails) {
+    // Update a subject in a course; a non-null expectedVersion (If-Match) must still be the subject's current version
+    @Transactional
+    public Subject updateSubjectInCourse(Long courseId, Long subjectId, Subject subjectDetails, Long expectedVersion) {
         if (subjectDetails.getTitle() == null || subjectDetails.getTitle().trim().isEmpty()) {
             throw new IllegalArgumentException("Subject title cannot be null or empty");
         }
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new EntityNotFoundException("Course not found with id: " + courseId));
+        courseRepository.lockForSubjectChange(courseId)
+                .orElseThrow(() -> NotFoundException.course(courseId));
         Subject subject = subjectRepository.findById(subjectId)
                 .filter(s -> s.getCourse() != null && s.getCourse().getId().equals(courseId))
-                .orElseThrow(() -> new EntityNotFoundException("Subject not found with id: " + subjectId + " for course id: " + courseId));
+                .orElseThrow(() -> NotFoundException.subjectOfCourse(subjectId, courseId));
+        VersionMismatchException.check(expectedVersion, subject.getVersion(), "Subject " + subjectId);
         subject.setTitle(subjectDetails.getTitle());
-        courseRepository.save(course);
+        subjectRepository.save(subject);
+        catalogCache.evictSubject(subjectId);
+        catalogCache.evictCourse(courseId);
         return subject;
     }
 
     // --- DELETE Operations ---
 
-    // Delete a course by its ID
-    public boolean deleteCourse(Long id) {
-        courseRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Course not found with id: " + id));
-        courseRepository.deleteById(id);
-		return false;
-		
-    }
-
-    // Delete a subject from a course
-    public boolean deleteSubjectInCourse(Long courseId, Long subjectId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new EntityNotFoundException("Course not found with id: " + courseId));
-        boolean removed = course.getSubjects().removeIf(subject -> subject.getId().equals(subjectId));
-        if (!removed) {
-            throw new EntityNotFoundException("Subject not found with id: " + subjectId + " for course id: " + courseId);
-        }
+    // Delete a course by its ID; a non-null expectedVersion (If-Match) must still be the course's current version
+    @Transactional
+    public boolean deleteCourse(Long id, Long expectedVersion) {
+        Course course = courseRepository.findWithSubjectsById(id)
+                .orElseThrow(() -> NotFoundException.course(id));
+        VersionMismatchException.check(expectedVersion, course.getVersion(), "Course " + id);
+        List<Long> subjectIds = subjectIdsOf(course);
+        // Deleting the loaded entity keeps its version in the DELETE, so a concurrent update is not silently lost
+        courseRepository.delete(course);
+        catalogCache.evictCourse(id);
+        catalogCache.evictCourseName(course.getName());
+        catalogCache.evictSubjects(subjectIds);
+        return true;
+    }
+
+    // Delete a subject from a course; a non-null expectedVersion (If-Match) must still be the subject's current
+    // version
+    @Transactional
+    public boolean deleteSubjectInCourse(Long courseId, Long subjectId, Long expectedVersion) {
+        Course course = courseRepository.lockForSubjectChange(courseId)
+                .orElseThrow(() -> NotFoundException.course(courseId));
+        Subject subject = course.getSubjects().stream()
+                .filter(s -> s.getId().equals(subjectId))
+                .findFirst()
+                .orElseThrow(() -> NotFoundException.subjectOfCourse(subjectId, courseId));
+        VersionMismatchException.check(expectedVersion, subject.getVersion(), "Subject " + subjectId);
+        course.getSubjects().remove(subject);
         courseRepository.save(course);
-		return false;
+        catalogCache.evictSubject(subjectId);
+        catalogCache.evictCourse(courseId);
+        return true;
+    }
+
+    private static List<Long> subjectIdsOf(Course course) {
+        return course.getSubjects().stream().map(Subject::getId).toList();
     }
 }
\ No newline at end of file
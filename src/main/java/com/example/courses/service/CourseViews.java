@@ -0,0 +1,47 @@
+package com.example.courses.service;
+
+import com.example.courses.dto.CourseRow;
+import com.example.courses.dto.CourseView;
+import com.example.courses.dto.SubjectView;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Folds course/subject join rows (ordered by course id) into one CourseView per course
+final class CourseViews {
+
+    private CourseViews() {
+    }
+
+    static List<CourseView> fromRows(List<CourseRow> rows) {
+        List<CourseView> courses = new ArrayList<>();
+        forEach(rows.stream(), courses::add);
+        return courses;
+    }
+
+    // Emits each course as soon as its last row has been read, so only one course is held at a time
+    static void forEach(Stream<CourseRow> rows, Consumer<CourseView> consumer) {
+        Iterator<CourseRow> iterator = rows.iterator();
+        CourseRow current = null;
+        List<SubjectView> subjects = new ArrayList<>();
+        while (iterator.hasNext()) {
+            CourseRow row = iterator.next();
+            if (current != null && !current.courseId().equals(row.courseId())) {
+                consumer.accept(new CourseView(current.courseId(), current.courseName(), List.copyOf(subjects),
+                        current.courseVersion()));
+                subjects.clear();
+            }
+            current = row;
+            if (row.subjectId() != null) {
+                subjects.add(new SubjectView(row.subjectId(), row.subjectTitle(), row.courseId(), row.subjectVersion()));
+            }
+        }
+        if (current != null) {
+            consumer.accept(new CourseView(current.courseId(), current.courseName(), List.copyOf(subjects),
+                        current.courseVersion()));
+        }
+    }
+}
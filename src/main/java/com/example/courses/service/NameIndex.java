@@ -0,0 +1,139 @@
+package com.example.courses.service;
+
+import com.example.courses.dto.NameKeyRow;
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.example.courses.repository.CourseRepository;
+import com.example.courses.repository.SubjectRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Optional in-memory index of normalized course names and subject titles (courses.name-index.enabled), so the
+// duplicate check for a new name needs no database round trip. It is loaded once at startup and then follows
+// every committed insert, update and delete through Hibernate post-commit listeners. A name it does not hold is
+// free as far as this instance knows, and the unique constraints catch a concurrent or cross-instance write.
+// A name it does hold is confirmed against the database, so a stale entry cannot reject a valid name.
+@Component
+public class NameIndex implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final boolean enabled;
+    private final Map<String, Long> courseIdsByName = new ConcurrentHashMap<>();
+    private final Map<String, Long> subjectIdsByTitle = new ConcurrentHashMap<>();
+
+    public NameIndex(EntityManagerFactory entityManagerFactory, CourseRepository courseRepository,
+                     SubjectRepository subjectRepository,
+                     @Value("${courses.name-index.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+        if (enabled) {
+            // Listen before loading, so no write can fall between the snapshot and the first event
+            EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .requireService(EventListenerRegistry.class);
+            listeners.appendListeners(EventType.POST_COMMIT_INSERT, this);
+            listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+            listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+            load(courseIdsByName, courseRepository.findAllNameKeys());
+            load(subjectIdsByTitle, subjectRepository.findAllTitleKeys());
+        }
+    }
+
+    private static void load(Map<String, Long> index, List<NameKeyRow> rows) {
+        rows.forEach(row -> index.putIfAbsent(row.key(), row.id()));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // False means no course on record has this normalized name
+    public boolean mayHaveCourseName(String nameKey) {
+        return courseIdsByName.containsKey(nameKey);
+    }
+
+    // False means no subject on record has this normalized title
+    public boolean mayHaveSubjectTitle(String titleKey) {
+        return subjectIdsByTitle.containsKey(titleKey);
+    }
+
+    // --- Hibernate post-commit events ---
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Course course) {
+            put(courseIdsByName, course.getNameKey(), course.getId());
+        } else if (event.getEntity() instanceof Subject subject) {
+            put(subjectIdsByTitle, subject.getTitleKey(), subject.getId());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Course course) {
+            remove(courseIdsByName, previousKey(event, "nameKey"), course.getId());
+            put(courseIdsByName, course.getNameKey(), course.getId());
+        } else if (event.getEntity() instanceof Subject subject) {
+            remove(subjectIdsByTitle, previousKey(event, "titleKey"), subject.getId());
+            put(subjectIdsByTitle, subject.getTitleKey(), subject.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Course course) {
+            remove(courseIdsByName, course.getNameKey(), course.getId());
+        } else if (event.getEntity() instanceof Subject subject) {
+            remove(subjectIdsByTitle, subject.getTitleKey(), subject.getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    private static String previousKey(PostUpdateEvent event, String property) {
+        Object[] oldState = event.getOldState();
+        return oldState == null ? null
+                : (String) oldState[event.getPersister().getEntityMetamodel().getPropertyIndex(property)];
+    }
+
+    private static void put(Map<String, Long> index, String key, Long id) {
+        if (key != null) {
+            index.put(key, id);
+        }
+    }
+
+    private static void remove(Map<String, Long> index, String key, Long id) {
+        if (key != null) {
+            index.remove(key, id);
+        }
+    }
+}
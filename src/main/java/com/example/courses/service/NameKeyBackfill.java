@@ -0,0 +1,120 @@
+package com.example.courses.service;
+
+import com.example.courses.dto.UnkeyedRow;
+import com.example.courses.model.NameKeys;
+import com.example.courses.repository.CourseRepository;
+import com.example.courses.repository.SubjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Fills in name_key and title_key for rows written before those columns existed. The keys are computed by
+// NameKeys.normalize, the same as for every other write; SQL lower(trim()) folds case and strips whitespace
+// differently. Rows are read in keyset pages of batch-size and each page is updated in its own transaction.
+//
+// Older versions compared names exactly and never checked subject titles, so "Math" and "math", or one subject
+// title in several courses, can already exist and normalize to the same key. The rule: a row that already has the
+// key keeps it, otherwise the lowest id does; every later row gets "<key>#<id>", which keeps the unique constraints
+// satisfied and the row visible to the duplicate checks. Each collision is logged with both ids so the rows can be
+// renamed or merged; a later rename gives the row its normal key again.
+@Component
+public class NameKeyBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(NameKeyBackfill.class);
+
+    // Length of the name_key and title_key columns
+    static final int KEY_LENGTH = 255;
+
+    private final CourseRepository courseRepository;
+    private final SubjectRepository subjectRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public NameKeyBackfill(CourseRepository courseRepository, SubjectRepository subjectRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${courses.backfill.batch-size:500}") int batchSize) {
+        this.courseRepository = courseRepository;
+        this.subjectRepository = subjectRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    // Returns the number of course and subject rows that got a key
+    public int backfill() {
+        return backfill("Course", courseRepository::findWithoutNameKeyAfter, courseRepository::updateNameKey,
+                courseRepository::findExistingNameKeys, courseRepository::findIdByNameKey)
+                + backfill("Subject", subjectRepository::findWithoutTitleKeyAfter, subjectRepository::updateTitleKey,
+                subjectRepository::findExistingTitleKeys, subjectRepository::findIdByTitleKey);
+    }
+
+    private int backfill(String kind, BiFunction<Long, Limit, List<UnkeyedRow>> pageAfter,
+                         BiFunction<Long, String, Integer> update, Function<Collection<String>, List<String>> existing,
+                         Function<String, Optional<Long>> ownerOf) {
+        int updated = 0;
+        int collisions = 0;
+        long afterId = 0;
+        while (true) {
+            long cursor = afterId;
+            int[] pageCollisions = new int[1];
+            List<UnkeyedRow> rows = transactionTemplate.execute(status -> {
+                List<UnkeyedRow> page = pageAfter.apply(cursor, Limit.of(batchSize));
+                Map<Long, String> keys = new HashMap<>();
+                page.forEach(row -> keys.put(row.id(), NameKeys.normalize(row.value())));
+                // Keys held by rows keyed earlier (by this run or by the application), then by this page's rows
+                Set<String> taken = new HashSet<>(existing.apply(new HashSet<>(keys.values())));
+                Map<String, Long> takenInPage = new HashMap<>();
+                for (UnkeyedRow row : page) {
+                    String key = keys.get(row.id());
+                    if (taken.contains(key) || takenInPage.containsKey(key)) {
+                        Long owner = takenInPage.containsKey(key)
+                                ? takenInPage.get(key)
+                                : ownerOf.apply(key).orElse(null);
+                        String distinct = distinctKey(key, row.id());
+                        if (!existing.apply(List.of(distinct)).isEmpty()) {
+                            throw new IllegalStateException(kind + " " + row.id() + " '" + row.value()
+                                    + "' collides with " + owner + " on key '" + key + "', and '" + distinct
+                                    + "' is taken too; rename one of them and run again");
+                        }
+                        logger.warn("{} {} '{}' has the same normalized name '{}' as {} {}; keyed as '{}' until it "
+                                + "is renamed or merged", kind, row.id(), row.value(), key, kind, owner, distinct);
+                        key = distinct;
+                        pageCollisions[0]++;
+                    }
+                    takenInPage.put(key, row.id());
+                    update.apply(row.id(), key);
+                }
+                return page;
+            });
+            updated += rows.size();
+            collisions += pageCollisions[0];
+            if (rows.size() < batchSize) {
+                if (collisions > 0) {
+                    logger.warn("{} key backfill: {} of {} rows collided after normalization (see above)",
+                            kind, collisions, updated);
+                }
+                return updated;
+            }
+            afterId = rows.get(rows.size() - 1).id();
+        }
+    }
+
+    // "<key>#<id>", the key cut short if needed to fit the column; the id alone keeps it apart from the others
+    static String distinctKey(String key, Long id) {
+        String suffix = "#" + id;
+        return key.substring(0, Math.min(key.length(), KEY_LENGTH - suffix.length())) + suffix;
+    }
+}
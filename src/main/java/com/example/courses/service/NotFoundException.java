@@ -0,0 +1,49 @@
+package com.example.courses.service;
+
+import jakarta.persistence.EntityNotFoundException;
+
+// A course, subject or operation id with nothing behind it (404). Crawlers and clients probing ids make this the
+// most frequent error, so it is cheap to throw: it records no stack trace, which says nothing about a missing id
+// anyway, and its message is only put together if something reads it. Still an EntityNotFoundException for code
+// that catches that.
+public final class NotFoundException extends EntityNotFoundException {
+
+    private final String kind;
+    private final Object id;
+    private final Long courseId;
+
+    private NotFoundException(String kind, Object id, Long courseId) {
+        this.kind = kind;
+        this.id = id;
+        this.courseId = courseId;
+    }
+
+    public static NotFoundException course(Long id) {
+        return new NotFoundException("Course", id, null);
+    }
+
+    public static NotFoundException subject(Long id) {
+        return new NotFoundException("Subject", id, null);
+    }
+
+    // A subject that does not exist or belongs to another course
+    public static NotFoundException subjectOfCourse(Long subjectId, Long courseId) {
+        return new NotFoundException("Subject", subjectId, courseId);
+    }
+
+    public static NotFoundException operation(String id) {
+        return new NotFoundException("Operation", id, null);
+    }
+
+    @Override
+    public String getMessage() {
+        return courseId == null
+                ? kind + " not found with id: " + id
+                : kind + " not found with id: " + id + " for course id: " + courseId;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.courses.service;
+
+import com.example.courses.dto.CourseView;
+import com.example.courses.dto.SubjectView;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Immutable copy of the catalog in direct (off-heap) buffers, so holding it costs the garbage collector a few objects
+// whatever the catalog size. Records have a fixed size and are kept in id order, with an id -> record index map per
+// type; names and titles are UTF-8. Views are decoded per lookup and are garbage as soon as the response is written.
+//   courses:  id, version, name offset, name length, first subject slot, subject count  (COURSE_BYTES each)
+//   subjects: id, course id (0: none), version, title offset, title length               (SUBJECT_BYTES each)
+//   slots:    subject record index per course subject, grouped by course in subject id order (4 bytes each)
+//   text:     the UTF-8 names and titles
+final class OffHeapCatalog {
+
+    private static final int COURSE_BYTES = 32;
+    private static final int SUBJECT_BYTES = 32;
+    private static final int SLOT_BYTES = 4;
+
+    private final ByteBuffer buffer;
+    private final int courseCount;
+    private final int subjectCount;
+    private final int subjectsAt;
+    private final int slotsAt;
+    private final int textAt;
+    private final LongIntMap courseIndex;
+    private final LongIntMap subjectIndex;
+
+    private OffHeapCatalog(ByteBuffer buffer, int courseCount, int subjectCount, int slotCount,
+                           LongIntMap courseIndex, LongIntMap subjectIndex) {
+        this.buffer = buffer;
+        this.courseCount = courseCount;
+        this.subjectCount = subjectCount;
+        this.subjectsAt = courseCount * COURSE_BYTES;
+        this.slotsAt = subjectsAt + subjectCount * SUBJECT_BYTES;
+        this.textAt = slotsAt + slotCount * SLOT_BYTES;
+        this.courseIndex = courseIndex;
+        this.subjectIndex = subjectIndex;
+    }
+
+    int courseCount() {
+        return courseCount;
+    }
+
+    int subjectCount() {
+        return subjectCount;
+    }
+
+    // Off-heap bytes held by this copy, id maps included
+    long byteSize() {
+        return (long) buffer.capacity() + courseIndex.byteSize() + subjectIndex.byteSize();
+    }
+
+    // --- Courses ---
+
+    CourseView course(long id) {
+        int index = courseIndex.get(id);
+        return index < 0 ? null : courseAt(index);
+    }
+
+    Long courseVersion(long id) {
+        int index = courseIndex.get(id);
+        return index < 0 ? null : buffer.getLong(index * COURSE_BYTES + 8);
+    }
+
+    // The subjects of a course, or null when there is no such course
+    List<SubjectView> subjectsOfCourse(long courseId) {
+        int index = courseIndex.get(courseId);
+        return index < 0 ? null : subjectsOf(index * COURSE_BYTES);
+    }
+
+    List<CourseView> coursesAfter(long afterId, int limit) {
+        List<CourseView> courses = new ArrayList<>(Math.min(limit, courseCount));
+        for (int index = firstAfter(afterId, 0, courseCount, COURSE_BYTES);
+             index < courseCount && courses.size() < limit; index++) {
+            courses.add(courseAt(index));
+        }
+        return courses;
+    }
+
+    Map<Long, CourseView> courses(Collection<Long> ids) {
+        Map<Long, CourseView> courses = new LinkedHashMap<>();
+        for (Long id : ids) {
+            CourseView course = course(id);
+            if (course != null) {
+                courses.put(id, course);
+            }
+        }
+        return courses;
+    }
+
+    void forEachCourse(Consumer<CourseView> consumer) {
+        for (int index = 0; index < courseCount; index++) {
+            consumer.accept(courseAt(index));
+        }
+    }
+
+    private CourseView courseAt(int index) {
+        int at = index * COURSE_BYTES;
+        return new CourseView(buffer.getLong(at), text(buffer.getInt(at + 16), buffer.getInt(at + 20)),
+                subjectsOf(at), buffer.getLong(at + 8));
+    }
+
+    private List<SubjectView> subjectsOf(int courseAt) {
+        int first = buffer.getInt(courseAt + 24);
+        int count = buffer.getInt(courseAt + 28);
+        SubjectView[] subjects = new SubjectView[count];
+        for (int i = 0; i < count; i++) {
+            subjects[i] = subjectAt(buffer.getInt(slotsAt + (first + i) * SLOT_BYTES));
+        }
+        return List.of(subjects);
+    }
+
+    // --- Subjects ---
+
+    SubjectView subject(long id) {
+        int index = subjectIndex.get(id);
+        return index < 0 ? null : subjectAt(index);
+    }
+
+    List<SubjectView> subjectsAfter(long afterId, int limit) {
+        List<SubjectView> subjects = new ArrayList<>(Math.min(limit, subjectCount));
+        for (int index = firstAfter(afterId, subjectsAt, subjectCount, SUBJECT_BYTES);
+             index < subjectCount && subjects.size() < limit; index++) {
+            subjects.add(subjectAt(index));
+        }
+        return subjects;
+    }
+
+    Map<Long, SubjectView> subjects(Collection<Long> ids) {
+        Map<Long, SubjectView> subjects = new LinkedHashMap<>();
+        for (Long id : ids) {
+            SubjectView subject = subject(id);
+            if (subject != null) {
+                subjects.put(id, subject);
+            }
+        }
+        return subjects;
+    }
+
+    void forEachSubject(Consumer<SubjectView> consumer) {
+        for (int index = 0; index < subjectCount; index++) {
+            consumer.accept(subjectAt(index));
+        }
+    }
+
+    private SubjectView subjectAt(int index) {
+        int at = subjectsAt + index * SUBJECT_BYTES;
+        long courseId = buffer.getLong(at + 8);
+        return new SubjectView(buffer.getLong(at), text(buffer.getInt(at + 24), buffer.getInt(at + 28)),
+                courseId != 0 ? courseId : null, buffer.getLong(at + 16));
+    }
+
+    // --- Helpers ---
+
+    // Index of the first record (of 'count' records of 'size' bytes from 'from') whose id is greater than afterId
+    private int firstAfter(long afterId, int from, int count, int size) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getLong(from + middle * size) <= afterId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private String text(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(textAt + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Collects courses (in id order, each followed by its subjects) and the subjects of no course, then lays them
+    // out in a buffer of exactly the size they need
+    static final class Builder {
+
+        private long[] courses = new long[4 * 64];
+        private long[] subjects = new long[4 * 256];
+        private String[] subjectTitles = new String[256];
+        private int[] slots = new int[256];
+        private int courseCount;
+        private int subjectCount;
+        private int slotCount;
+        private final List<String> courseNames = new ArrayList<>();
+        private long lastCourseId = Long.MIN_VALUE;
+
+        // Courses have to be added in id order, each with its subjects in id order (as a course/subject join
+        // ordered by course id and subject id yields them)
+        void addCourse(long id, String name, long version) {
+            if (id <= lastCourseId) {
+                throw new IllegalStateException("Courses must be added in increasing id order");
+            }
+            lastCourseId = id;
+            courses = ensure(courses, courseCount * 4 + 4);
+            int at = courseCount++ * 4;
+            courses[at] = id;
+            courses[at + 1] = version;
+            courses[at + 2] = slotCount;
+            courses[at + 3] = 0;
+            courseNames.add(name);
+        }
+
+        void addSubjectOfLastCourse(long id, String title, long version) {
+            slots = ensure(slots, slotCount + 1);
+            slots[slotCount++] = addSubject(id, lastCourseId, title, version);
+            courses[(courseCount - 1) * 4 + 3]++;
+        }
+
+        void addSubjectWithoutCourse(long id, String title, long version) {
+            addSubject(id, 0, title, version);
+        }
+
+        private int addSubject(long id, long courseId, String title, long version) {
+            subjects = ensure(subjects, subjectCount * 3 + 3);
+            subjectTitles = ensure(subjectTitles, subjectCount + 1);
+            int at = subjectCount * 3;
+            subjects[at] = id;
+            subjects[at + 1] = courseId;
+            subjects[at + 2] = version;
+            subjectTitles[subjectCount] = title;
+            return subjectCount++;
+        }
+
+        OffHeapCatalog build() {
+            // Subject records go in id order; slots were taken in course order, so renumber them to match
+            Integer[] order = new Integer[subjectCount];
+            for (int i = 0; i < subjectCount; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(subjects[a * 3], subjects[b * 3]));
+            int[] position = new int[subjectCount];
+            for (int i = 0; i < subjectCount; i++) {
+                position[order[i]] = i;
+            }
+
+            ByteArrayOutputStream text = new ByteArrayOutputStream();
+            int[] courseText = new int[courseCount * 2];
+            for (int i = 0; i < courseCount; i++) {
+                appendText(text, courseNames.get(i), courseText, i);
+            }
+            int[] subjectText = new int[subjectCount * 2];
+            for (int i = 0; i < subjectCount; i++) {
+                appendText(text, subjectTitles[order[i]], subjectText, i);
+            }
+
+            int size = courseCount * COURSE_BYTES + subjectCount * SUBJECT_BYTES + slotCount * SLOT_BYTES + text.size();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+            LongIntMap courseIndex = new LongIntMap(courseCount);
+            for (int i = 0; i < courseCount; i++) {
+                buffer.putLong(courses[i * 4]).putLong(courses[i * 4 + 1])
+                        .putInt(courseText[i * 2]).putInt(courseText[i * 2 + 1])
+                        .putInt((int) courses[i * 4 + 2]).putInt((int) courses[i * 4 + 3]);
+                courseIndex.put(courses[i * 4], i);
+            }
+            LongIntMap subjectIndex = new LongIntMap(subjectCount);
+            for (int i = 0; i < subjectCount; i++) {
+                int from = order[i] * 3;
+                buffer.putLong(subjects[from]).putLong(subjects[from + 1]).putLong(subjects[from + 2])
+                        .putInt(subjectText[i * 2]).putInt(subjectText[i * 2 + 1]);
+                subjectIndex.put(subjects[from], i);
+            }
+            for (int i = 0; i < slotCount; i++) {
+                buffer.putInt(position[slots[i]]);
+            }
+            buffer.put(text.toByteArray());
+            return new OffHeapCatalog(buffer.clear(), courseCount, subjectCount, slotCount, courseIndex, subjectIndex);
+        }
+
+        private static void appendText(ByteArrayOutputStream text, String value, int[] offsets, int index) {
+            byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+            offsets[index * 2] = text.size();
+            offsets[index * 2 + 1] = bytes.length;
+            text.writeBytes(bytes);
+        }
+
+        private static long[] ensure(long[] array, int size) {
+            return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+        }
+
+        private static int[] ensure(int[] array, int size) {
+            return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+        }
+
+        private static String[] ensure(String[] array, int size) {
+            return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+        }
+    }
+
+    // Open-addressing map from a long id to a record index, off-heap like the records: one direct buffer of
+    // (key, value) slots, no boxing and no entry objects. Filled once while building and only read afterwards.
+    static final class LongIntMap {
+
+        private static final long EMPTY = 0;
+        private static final int SLOT_BYTES = Long.BYTES + Integer.BYTES;
+
+        private final ByteBuffer slots;
+        private final int mask;
+
+        LongIntMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+            slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+            mask = capacity - 1;
+        }
+
+        // Ids are positive, so 0 can mark an empty slot
+        void put(long key, int value) {
+            int slot = slot(key);
+            while (keyAt(slot) != EMPTY && keyAt(slot) != key) {
+                slot = (slot + 1) & mask;
+            }
+            slots.putLong(slot * SLOT_BYTES, key);
+            slots.putInt(slot * SLOT_BYTES + Long.BYTES, value);
+        }
+
+        // The index for a key, or -1
+        int get(long key) {
+            if (key == EMPTY) {
+                return -1;
+            }
+            for (int slot = slot(key); keyAt(slot) != EMPTY; slot = (slot + 1) & mask) {
+                if (keyAt(slot) == key) {
+                    return slots.getInt(slot * SLOT_BYTES + Long.BYTES);
+                }
+            }
+            return -1;
+        }
+
+        int byteSize() {
+            return slots.capacity();
+        }
+
+        private long keyAt(int slot) {
+            return slots.getLong(slot * SLOT_BYTES);
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
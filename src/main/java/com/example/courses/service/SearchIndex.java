@@ -0,0 +1,368 @@
+package com.example.courses.service;
+
+import com.example.courses.dto.CourseRow;
+import com.example.courses.dto.SearchHit;
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.example.courses.repository.CourseRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+// In-process inverted index over course names and subject titles, behind GET /api/search. Text is split into
+// lower-cased letter/digit tokens; each query term matches every token it is a prefix of ("learn" matches
+// "learning"), and a result has to match all of the terms. The index is loaded from the database at startup and
+// then follows every committed insert, update and delete through Hibernate post-commit listeners, like NameIndex,
+// so the service write methods, write-behind batches, imports and cascaded deletes all reach it.
+@Component
+public class SearchIndex implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    public static final int MAX_TERMS = 8;
+    public static final int MAX_OFFSET = 10_000;
+
+    private static final String COURSE = "course";
+    private static final String SUBJECT = "subject";
+    private static final String[] NO_TOKENS = new String[0];
+
+    // Best score first; ties go to courses, then to shorter text, then to the lower id, so pages are stable
+    private static final Comparator<Scored> RANKING = Comparator.comparingDouble(Scored::score).reversed()
+            .thenComparing(scored -> !COURSE.equals(scored.entry().type))
+            .thenComparingInt(scored -> scored.entry().text.length())
+            .thenComparingLong(scored -> scored.entry().id);
+
+    private final CourseRepository courseRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean backgroundLoad;
+
+    // token -> entries holding it, sorted so a prefix is a contiguous range of keys
+    private final NavigableMap<String, Set<Entry>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entry> courses = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> subjects = new ConcurrentHashMap<>();
+
+    public SearchIndex(EntityManagerFactory entityManagerFactory, CourseRepository courseRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${courses.search.background-load:false}") boolean backgroundLoad) {
+        this.courseRepository = courseRepository;
+        this.backgroundLoad = backgroundLoad;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Listen before loading, so no write can fall between the snapshot and the first event
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        if (!backgroundLoad) {
+            rebuild();
+        }
+    }
+
+    // With courses.search.background-load the initial load runs once the application is ready, so startup does not
+    // wait for (or need) the database; until it finishes, searches only see what has been written since startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        if (backgroundLoad) {
+            Thread.ofPlatform().name("search-index-loader").daemon().start(this::rebuild);
+        }
+    }
+
+    // Reload everything from the database in one pass over the course/subject rows; writes that bypass Hibernate
+    // events (bulk SQL) are only picked up this way. Searches running meanwhile may miss entries.
+    public synchronized void rebuild() {
+        postings.clear();
+        courses.clear();
+        subjects.clear();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<CourseRow> rows = courseRepository.streamAllRows()) {
+                rows.forEach(row -> {
+                    if (!courses.containsKey(row.courseId())) {
+                        putCourse(row.courseId(), row.courseName());
+                    }
+                    if (row.subjectId() != null) {
+                        putSubject(row.subjectId(), row.subjectTitle(), row.courseId());
+                    }
+                });
+            }
+        });
+    }
+
+    public int size() {
+        return courses.size() + subjects.size();
+    }
+
+    // Up to 'limit' hits in rank order, after skipping the first 'offset'
+    @Timed(value = "courses.service", histogram = true)
+    public List<SearchHit> search(String query, int offset, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0) {
+            throw new IllegalArgumentException("Search query must contain at least one letter or digit");
+        }
+        if (terms.length > MAX_TERMS) {
+            throw new IllegalArgumentException("Search query can have at most " + MAX_TERMS + " terms");
+        }
+        if (offset < 0 || offset > MAX_OFFSET) {
+            throw new IllegalArgumentException("Search results can only be paged up to offset " + MAX_OFFSET);
+        }
+
+        // Scan the postings of the most selective term; the others are checked against each candidate's tokens
+        String driver = null;
+        long fewest = Long.MAX_VALUE;
+        for (String term : terms) {
+            long candidates = countCandidates(term, fewest);
+            if (candidates < fewest) {
+                fewest = candidates;
+                driver = term;
+            }
+        }
+        if (fewest == 0) {
+            return List.of();
+        }
+
+        // Keep only the best offset + limit candidates, worst at the head
+        int keep = offset + limit;
+        PriorityQueue<Scored> top = new PriorityQueue<>(Math.min(keep, (int) fewest) + 1, RANKING.reversed());
+        for (Map.Entry<String, Set<Entry>> posting : prefixRange(driver).entrySet()) {
+            for (Entry entry : posting.getValue()) {
+                // An entry with several tokens in the range is listed under each; score it under the first only
+                if (!posting.getKey().equals(entry.firstTokenStartingWith(driver))) {
+                    continue;
+                }
+                double score = entry.score(terms);
+                if (score > 0 && (top.size() < keep || score >= top.peek().score())) {
+                    Scored scored = new Scored(entry, score);
+                    if (top.size() < keep) {
+                        top.add(scored);
+                    } else if (RANKING.compare(scored, top.peek()) < 0) {
+                        top.poll();
+                        top.add(scored);
+                    }
+                }
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        List<SearchHit> hits = new ArrayList<>(Math.max(ranked.size() - offset, 0));
+        for (int i = offset; i < ranked.size(); i++) {
+            hits.add(toHit(ranked.get(i)));
+        }
+        return hits;
+    }
+
+    private long countCandidates(String term, long atMost) {
+        long count = 0;
+        for (Set<Entry> entries : prefixRange(term).values()) {
+            count += entries.size();
+            if (count >= atMost) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private NavigableMap<String, Set<Entry>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private SearchHit toHit(Scored scored) {
+        Entry entry = scored.entry();
+        if (COURSE.equals(entry.type)) {
+            return new SearchHit(COURSE, entry.id, entry.text, null, null, scored.score());
+        }
+        Entry course = entry.courseId != null ? courses.get(entry.courseId) : null;
+        return new SearchHit(SUBJECT, entry.id, entry.text, entry.courseId,
+                course != null ? course.text : null, scored.score());
+    }
+
+    // Lower-cased runs of letters and digits, each distinct token once, in order of appearance
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return NO_TOKENS;
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inToken = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inToken && start < 0) {
+                start = i;
+            } else if (!inToken && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens.toArray(NO_TOKENS);
+    }
+
+    // --- Index maintenance (callers hold the monitor) ---
+
+    private void putCourse(Long id, String name) {
+        put(courses, new Entry(COURSE, id, name, null));
+    }
+
+    private void putSubject(Long id, String title, Long courseId) {
+        put(subjects, new Entry(SUBJECT, id, title, courseId));
+    }
+
+    // Link the new entry before unlinking the one it replaces, so a concurrent search always finds one of them.
+    // Tokens are swapped for the postings key already in the map, so every entry shares one copy of each word.
+    private void put(Map<Long, Entry> entries, Entry entry) {
+        for (int i = 0; i < entry.tokens.length; i++) {
+            Map.Entry<String, Set<Entry>> posting = postings.ceilingEntry(entry.tokens[i]);
+            if (posting != null && posting.getKey().equals(entry.tokens[i])) {
+                entry.tokens[i] = posting.getKey();
+                posting.getValue().add(entry);
+            } else {
+                Set<Entry> holders = ConcurrentHashMap.newKeySet();
+                holders.add(entry);
+                postings.put(entry.tokens[i], holders);
+            }
+        }
+        Entry previous = entries.put(entry.id, entry);
+        if (previous != null) {
+            unlink(previous);
+        }
+    }
+
+    private void unlink(Entry entry) {
+        for (String token : entry.tokens) {
+            postings.computeIfPresent(token, (key, entries) -> {
+                entries.remove(entry);
+                return entries.isEmpty() ? null : entries;
+            });
+        }
+    }
+
+    // --- Hibernate post-commit events ---
+
+    @Override
+    public synchronized void onPostInsert(PostInsertEvent event) {
+        index(event.getEntity());
+    }
+
+    @Override
+    public synchronized void onPostUpdate(PostUpdateEvent event) {
+        index(event.getEntity());
+    }
+
+    @Override
+    public synchronized void onPostDelete(PostDeleteEvent event) {
+        Entry removed = null;
+        if (event.getEntity() instanceof Course course) {
+            removed = courses.remove(course.getId());
+        } else if (event.getEntity() instanceof Subject subject) {
+            removed = subjects.remove(subject.getId());
+        }
+        if (removed != null) {
+            unlink(removed);
+        }
+    }
+
+    private void index(Object entity) {
+        if (entity instanceof Course course) {
+            putCourse(course.getId(), course.getName());
+        } else if (entity instanceof Subject subject) {
+            putSubject(subject.getId(), subject.getTitle(),
+                    subject.getCourse() != null ? subject.getCourse().getId() : null);
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    // An indexed course or subject; identity equality, so a replaced entry never collides with its successor
+    private static final class Entry {
+
+        final String type;
+        final long id;
+        final String text;
+        final Long courseId;
+        final String[] tokens;
+
+        Entry(String type, long id, String text, Long courseId) {
+            this.type = type;
+            this.id = id;
+            this.text = text;
+            this.courseId = courseId;
+            this.tokens = tokenize(text);
+        }
+
+        String firstTokenStartingWith(String prefix) {
+            for (String token : tokens) {
+                if (token.startsWith(prefix)) {
+                    return token;
+                }
+            }
+            return null;
+        }
+
+        // 2 per term equal to a token and 1 per term that is only a prefix of one, plus the share of the text's
+        // tokens the query covers; 0 when some term matches nothing
+        double score(String[] terms) {
+            int score = 0;
+            for (String term : terms) {
+                int best = 0;
+                for (String token : tokens) {
+                    if (token.equals(term)) {
+                        best = 2;
+                        break;
+                    }
+                    if (best == 0 && token.startsWith(term)) {
+                        best = 1;
+                    }
+                }
+                if (best == 0) {
+                    return 0;
+                }
+                score += best;
+            }
+            return score + (double) Math.min(terms.length, tokens.length) / tokens.length;
+        }
+    }
+
+    private record Scored(Entry entry, double score) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.courses.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+// A response body serialized once as UTF-8 JSON, with the version its ETag is built from. The gzip variant is
+// compressed on first use and kept; bodies below GZIP_MIN_SIZE are never compressed, since the gzip framing and
+// the Content-Encoding round trip outweigh what so few bytes would save.
+public final class SerializedView {
+
+    static final int GZIP_MIN_SIZE = 256;
+
+    private final byte[] json;
+    private final long version;
+    private volatile byte[] gzip;
+
+    SerializedView(byte[] json, long version) {
+        this.json = json;
+        this.version = version;
+    }
+
+    // The returned arrays are shared by every request that hits the cache and must not be modified
+
+    public byte[] json() {
+        return json;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    // The gzip-compressed body, or null when it is too small to be worth compressing
+    public byte[] gzip() {
+        if (json.length < GZIP_MIN_SIZE) {
+            return null;
+        }
+        byte[] compressed = gzip;
+        if (compressed == null) {
+            // Two requests may both compress on a race; they produce the same bytes
+            compressed = compress(json);
+            gzip = compressed;
+        }
+        return compressed;
+    }
+
+    private static byte[] compress(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+}
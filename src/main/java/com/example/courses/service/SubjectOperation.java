@@ -0,0 +1,85 @@
+package com.example.courses.service;
+
+import java.util.UUID;
+
+// A subject mutation accepted in write-behind mode; its status moves from PENDING to APPLIED or FAILED once a
+// writer has run it, and clients poll it at GET /api/courses/operations/{id}
+public final class SubjectOperation {
+
+    public enum Type { ADD, UPDATE, DELETE }
+
+    public enum Status { PENDING, APPLIED, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Type type;
+    private final Long courseId;
+    private final String title;
+    private final Long expectedVersion;
+    private volatile Long subjectId;
+    private volatile Status status = Status.PENDING;
+    private volatile String message;
+
+    private SubjectOperation(Type type, Long courseId, Long subjectId, String title, Long expectedVersion) {
+        this.type = type;
+        this.courseId = courseId;
+        this.subjectId = subjectId;
+        this.title = title;
+        this.expectedVersion = expectedVersion;
+    }
+
+    public static SubjectOperation add(Long courseId, String title) {
+        return new SubjectOperation(Type.ADD, courseId, null, title, null);
+    }
+
+    // expectedVersion (from If-Match, null for none) is checked when the operation is applied
+    public static SubjectOperation update(Long courseId, Long subjectId, String title, Long expectedVersion) {
+        return new SubjectOperation(Type.UPDATE, courseId, subjectId, title, expectedVersion);
+    }
+
+    public static SubjectOperation delete(Long courseId, Long subjectId, Long expectedVersion) {
+        return new SubjectOperation(Type.DELETE, courseId, subjectId, null, expectedVersion);
+    }
+
+    void applied(Long subjectId) {
+        this.subjectId = subjectId;
+        this.status = Status.APPLIED;
+    }
+
+    void failed(String message) {
+        this.message = message;
+        this.status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    // The new subject's id is known only once an ADD has been applied
+    public Long getSubjectId() {
+        return subjectId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
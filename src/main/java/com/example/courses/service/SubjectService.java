@@ -1,21 +1,43 @@
 package com.example.courses.service;
 
+import com.example.courses.dto.SubjectView;
+import com.example.courses.model.NameKeys;
 import com.example.courses.model.Subject;
+import com.example.courses.repository.CourseRepository;
 import com.example.courses.repository.SubjectRepository;
-import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+// Every public method is timed as courses.service{class,method}, with a percentile histogram. Methods run in a
+// read-only transaction (served by the read replica when one is configured) unless they are marked @Transactional.
 @Service
+@Timed(value = "courses.service", histogram = true)
+@Transactional(readOnly = true)
 @Validated
 public class SubjectService {
 
     @Autowired
     private SubjectRepository subjectRepository;
 
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private NameIndex nameIndex;
+
     // --- GET Operations ---
 
     // Retrieve all subjects from the database
@@ -23,51 +45,103 @@ public class SubjectService {
         return subjectRepository.findAll();
     }
 
-    // Retrieve a subject by its ID
-    public Subject getSubjectById(Long id) {
-        return subjectRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Subject not found with id: " + id));
+    // Retrieve up to 'limit' subjects whose id is greater than the cursor (null starts from the beginning)
+    public List<SubjectView> getSubjectsAfter(Long afterId, int limit) {
+        return subjectRepository.findViewsAfter(afterId != null ? afterId : 0L, Limit.of(limit));
+    }
+
+    // Hand every subject to the consumer in id order straight off the database cursor
+    public void streamAllSubjects(Consumer<SubjectView> consumer) {
+        try (Stream<SubjectView> subjects = subjectRepository.streamAllViews()) {
+            subjects.forEach(consumer);
+        }
+    }
+
+    // Retrieve a subject by its ID (served from the catalog cache when possible)
+    public SubjectView getSubjectById(Long id) {
+        return catalogCache.getSubject(id, key -> subjectRepository.findViewById(key)
+                .orElseThrow(() -> NotFoundException.subject(id)));
+    }
+
+    // Retrieve many subjects by id: cached ones from the catalog cache and all the others in one query (ids with no
+    // subject are left out)
+    public Map<Long, SubjectView> getSubjectsByIds(Collection<Long> ids) {
+        return catalogCache.getSubjects(ids, subjectRepository::findViewsByIdIn);
     }
 
     // --- POST Operations ---
 
     // Create a new subject, ensuring no duplicate titles
+    @Transactional
     public Subject createSubject(Subject subject) {
         if (subject.getTitle() == null || subject.getTitle().trim().isEmpty()) {
             throw new IllegalArgumentException("Subject title cannot be null or empty");
         }
-        subjectRepository.findByTitle(subject.getTitle())
-                .ifPresent(existing -> {
-                    throw new IllegalArgumentException("Subject with title '" + subject.getTitle() + "' already exists");
-                });
-        return subjectRepository.save(subject);
+        if (findSubjectIdByTitle(subject.getTitle()) != null) {
+            throw new IllegalArgumentException("Subject with title '" + subject.getTitle() + "' already exists");
+        }
+        Subject savedSubject = subjectRepository.save(subject);
+        evictCourseOf(savedSubject);
+        return savedSubject;
     }
 
     // --- PUT Operations ---
 
-    // Update an existing subject
-    public Subject updateSubject(Long id, Subject subjectDetails) {
+    // Update an existing subject; a non-null expectedVersion (If-Match) must still be its current version
+    @Transactional
+    public Subject updateSubject(Long id, Subject subjectDetails, Long expectedVersion) {
         if (subjectDetails.getTitle() == null || subjectDetails.getTitle().trim().isEmpty()) {
             throw new IllegalArgumentException("Subject title cannot be null or empty");
         }
+        lockCourseOf(id);
         Subject subject = subjectRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Subject not found with id: " + id));
-        subjectRepository.findByTitle(subjectDetails.getTitle())
-                .ifPresent(existing -> {
-                    if (!existing.getId().equals(id)) {
-                        throw new IllegalArgumentException("Subject with title '" + subjectDetails.getTitle() + "' already exists");
-                    }
-                });
+                .orElseThrow(() -> NotFoundException.subject(id));
+        VersionMismatchException.check(expectedVersion, subject.getVersion(), "Subject " + id);
+        Long existingId = findSubjectIdByTitle(subjectDetails.getTitle());
+        if (existingId != null && !existingId.equals(id)) {
+            throw new IllegalArgumentException("Subject with title '" + subjectDetails.getTitle() + "' already exists");
+        }
         subject.setTitle(subjectDetails.getTitle());
-        return subjectRepository.save(subject);
+        Subject savedSubject = subjectRepository.save(subject);
+        catalogCache.evictSubject(id);
+        evictCourseOf(savedSubject);
+        return savedSubject;
     }
 
     // --- DELETE Operations ---
 
-    // Delete a subject by its ID
-    public void deleteSubject(Long id) {
-        subjectRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Subject not found with id: " + id));
-        subjectRepository.deleteById(id);
+    // Delete a subject by its ID; a non-null expectedVersion (If-Match) must still be its current version
+    @Transactional
+    public void deleteSubject(Long id, Long expectedVersion) {
+        lockCourseOf(id);
+        Subject subject = subjectRepository.findById(id)
+                .orElseThrow(() -> NotFoundException.subject(id));
+        VersionMismatchException.check(expectedVersion, subject.getVersion(), "Subject " + id);
+        subjectRepository.delete(subject);
+        catalogCache.evictSubject(id);
+        evictCourseOf(subject);
+    }
+
+    // Look up the id of the subject with the given title, compared by normalized key, or null if there is none
+    // (with the name index on, a title it does not hold costs no query at all)
+    private Long findSubjectIdByTitle(String title) {
+        String titleKey = NameKeys.normalize(title);
+        if (nameIndex.isEnabled() && !nameIndex.mayHaveSubjectTitle(titleKey)) {
+            return null;
+        }
+        return subjectRepository.findIdByTitleKey(titleKey).orElse(null);
+    }
+
+    // A course's representation embeds its subjects, so a subject change bumps the owning course's version (ETag).
+    // The course is locked before the subject is loaded, the same order the course-scoped subject writes use.
+    private void lockCourseOf(Long subjectId) {
+        subjectRepository.findCourseIdById(subjectId).ifPresent(courseRepository::lockForSubjectChange);
+    }
+
+    // A cached course embeds its subjects, so any subject change invalidates the owning course too
+    private void evictCourseOf(Subject subject) {
+        if (subject.getCourse() != null) {
+            catalogCache.evictCourse(subject.getCourse().getId());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+package com.example.courses.service;
+
+import com.example.courses.model.Subject;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Write-behind mode for subject mutations (courses.write-behind.enabled). Operations are partitioned by course id
+// over bounded queues, each drained by one writer thread, so a course's operations are applied in submission order.
+// A writer applies whatever has queued up as one transaction. A full partition rejects new operations after
+// offer-timeout (backpressure), and stopping the context drains every queue before the datasource goes away.
+@Component
+public class SubjectWriteQueue implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubjectWriteQueue.class);
+
+    private final CourseService courseService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration offerTimeout;
+    private final Duration drainTimeout;
+    private final List<BlockingQueue<SubjectOperation>> partitions = new ArrayList<>();
+    private final Cache<String, SubjectOperation> operationsById;
+    private final List<Thread> writers = new ArrayList<>();
+    private final AtomicInteger submitting = new AtomicInteger();
+    private volatile boolean running;
+
+    public SubjectWriteQueue(CourseService courseService, PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${courses.write-behind.enabled:false}") boolean enabled,
+                             @Value("${courses.write-behind.workers:4}") int workers,
+                             @Value("${courses.write-behind.capacity:1000}") int capacity,
+                             @Value("${courses.write-behind.batch-size:100}") int batchSize,
+                             @Value("${courses.write-behind.offer-timeout:100ms}") Duration offerTimeout,
+                             @Value("${courses.write-behind.drain-timeout:30s}") Duration drainTimeout,
+                             @Value("${courses.write-behind.retention:10m}") Duration retention) {
+        this.courseService = courseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+        this.drainTimeout = drainTimeout;
+        for (int i = 0; i < workers; i++) {
+            partitions.add(new ArrayBlockingQueue<>(capacity));
+        }
+        this.operationsById = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(retention)
+                .build();
+        Gauge.builder("courses.write_behind.queued", partitions, queues -> queues.stream().mapToInt(BlockingQueue::size).sum())
+                .description("Subject mutations waiting for a write-behind writer")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Queue an operation, waiting at most offer-timeout for room in its course's partition
+    public SubjectOperation submit(SubjectOperation operation) {
+        submitting.incrementAndGet();
+        try {
+            if (!running) {
+                throw new SubjectWriteRejectedException("Subject write queue is not accepting operations");
+            }
+            operationsById.put(operation.getId(), operation);
+            if (!offer(partitionOf(operation.getCourseId()), operation)) {
+                operationsById.invalidate(operation.getId());
+                throw new SubjectWriteRejectedException("Subject write queue is full, retry later");
+            }
+            return operation;
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    // Retrieve a queued or recently finished operation by its ID
+    public SubjectOperation getOperation(String id) {
+        SubjectOperation operation = operationsById.getIfPresent(id);
+        if (operation == null) {
+            throw NotFoundException.operation(id);
+        }
+        return operation;
+    }
+
+    private BlockingQueue<SubjectOperation> partitionOf(Long courseId) {
+        return partitions.get(Math.floorMod(courseId.hashCode(), partitions.size()));
+    }
+
+    private boolean offer(BlockingQueue<SubjectOperation> partition, SubjectOperation operation) {
+        try {
+            return partition.offer(operation, offerTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // --- Writers ---
+
+    private void drain(BlockingQueue<SubjectOperation> partition) {
+        List<SubjectOperation> batch = new ArrayList<>(batchSize);
+        while (true) {
+            SubjectOperation first;
+            try {
+                first = partition.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                logger.warn("Subject writer interrupted with {} operations still queued", partition.size());
+                return;
+            }
+            if (first == null) {
+                // running is cleared before submitters are counted, so an empty queue here stays empty
+                if (!running && submitting.get() == 0 && partition.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            batch.add(first);
+            partition.drainTo(batch, batchSize - 1);
+            apply(batch);
+            batch.clear();
+        }
+    }
+
+    // One transaction per batch, so operations on the same course share one persistence context and one flush.
+    // If the batch cannot commit as a whole, each operation is replayed in its own transaction, in order, so a
+    // failing operation only fails itself.
+    private void apply(List<SubjectOperation> batch) {
+        try {
+            List<Long> subjectIds = transactionTemplate.execute(status -> batch.stream().map(this::applyOne).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).applied(subjectIds.get(i));
+            }
+        } catch (RuntimeException batchFailure) {
+            for (SubjectOperation operation : batch) {
+                try {
+                    operation.applied(transactionTemplate.execute(status -> applyOne(operation)));
+                } catch (RuntimeException ex) {
+                    operation.failed(ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private Long applyOne(SubjectOperation operation) {
+        switch (operation.getType()) {
+            case ADD -> {
+                Subject subject = new Subject();
+                subject.setTitle(operation.getTitle());
+                return courseService.addSubjectToCourse(operation.getCourseId(), subject).getId();
+            }
+            case UPDATE -> {
+                Subject subject = new Subject();
+                subject.setTitle(operation.getTitle());
+                return courseService.updateSubjectInCourse(operation.getCourseId(), operation.getSubjectId(), subject,
+                        operation.getExpectedVersion()).getId();
+            }
+            default -> {
+                courseService.deleteSubjectInCourse(operation.getCourseId(), operation.getSubjectId(),
+                        operation.getExpectedVersion());
+                return operation.getSubjectId();
+            }
+        }
+    }
+
+    // --- Lifecycle ---
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < partitions.size(); i++) {
+            BlockingQueue<SubjectOperation> partition = partitions.get(i);
+            writers.add(Thread.ofPlatform().name("subject-writer-" + i).start(() -> drain(partition)));
+        }
+    }
+
+    // Stop taking operations and wait up to drain-timeout for the writers to apply everything already queued
+    @Override
+    public void stop() {
+        running = false;
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        for (Thread writer : writers) {
+            try {
+                if (!writer.join(Duration.ofNanos(Math.max(1, deadline - System.nanoTime())))) {
+                    writer.interrupt();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                writer.interrupt();
+            }
+        }
+        writers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Starts before and stops after the embedded web server, so requests still in flight can queue their writes
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
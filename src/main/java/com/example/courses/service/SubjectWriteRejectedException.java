@@ -0,0 +1,9 @@
+package com.example.courses.service;
+
+// The write-behind queue could not take a subject mutation (its partition is full, or the service is shutting down)
+public class SubjectWriteRejectedException extends RuntimeException {
+
+    public SubjectWriteRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.courses.service;
+
+// A conditional write (If-Match) named a version of the course or subject that is no longer current
+public class VersionMismatchException extends RuntimeException {
+
+    public VersionMismatchException(String message) {
+        super(message);
+    }
+
+    // Reject the write when the If-Match version (null: unconditional) is not the current one
+    static void check(Long expectedVersion, Long currentVersion, String resource) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new VersionMismatchException(resource + " is at version " + currentVersion
+                    + ", not " + expectedVersion);
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package com.example.courses.test;
 
-import com.example.courses.client.CourseFeignClient;
+import com.example.courses.client.ResilientCourseClient;
 import com.example.courses.model.Course;
 import feign.FeignException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -18,33 +17,24 @@ import java.util.List;
 public class FeignClientTestController {
 
     @Autowired
-    private CourseFeignClient courseFeignClient;
+    private ResilientCourseClient courseClient;
 
+    // An unavailable course-service with no fallback value is answered with 503 by GlobalExceptionHandler
     @GetMapping("/courses")
     public ResponseEntity<List<Course>> getAllCoursesViaFeign() {
         try {
-            return ResponseEntity.ok(courseFeignClient.getAllCourses());
+            return ResponseEntity.ok(courseClient.getAllCourses());
         } catch (FeignException ex) {
-            int status = ex.status();
-            if (status == -1) {
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                        .body(null); // or return a custom error DTO
-            }
-            return ResponseEntity.status(status).build();
+            return ResponseEntity.status(ex.status()).build();
         }
     }
 
     @GetMapping("/courses/{id}")
     public ResponseEntity<Course> getCourseByIdViaFeign(@PathVariable Long id) {
         try {
-            return ResponseEntity.ok(courseFeignClient.getCourseById(id));
+            return ResponseEntity.ok(courseClient.getCourseById(id));
         } catch (FeignException ex) {
-            int status = ex.status();
-            if (status == -1) {
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                        .body(null); // or return a custom error DTO
-            }
-            return ResponseEntity.status(status).build();
+            return ResponseEntity.status(ex.status()).build();
         }
     }
 }
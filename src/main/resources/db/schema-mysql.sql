@@ -0,0 +1,57 @@
+-- Catalog schema for deployments that keep schema management out of the boot path (fast-startup profile, which
+-- runs with spring.jpa.hibernate.ddl-auto=none). Applied by the one-shot setup job (setup profile); every statement
+-- is idempotent, so the job can run before each rollout. Keep in step with the Course and Subject mappings.
+-- Tables created by an older version are brought up to date by db/upgrade-mysql.sql, which the job runs next.
+
+create table if not exists course (
+    id bigint not null,
+    version bigint default 0 not null,
+    name varchar(255) not null,
+    name_key varchar(255),
+    primary key (id),
+    constraint uk_course_name_key unique (name_key)
+) engine=InnoDB;
+
+create table if not exists course_seq (
+    next_val bigint
+) engine=InnoDB;
+
+-- Past the ids already in use (a database that used IDENTITY ids): with allocationSize 50 the pooled optimizer
+-- takes a value v as the ids v - 49 .. v. Never moved backwards, so a second run changes nothing.
+insert into course_seq (next_val) select (select coalesce(max(id), 0) + 50 from course) from dual
+    where not exists (select 1 from course_seq);
+update course_seq set next_val = greatest(next_val, (select coalesce(max(id), 0) + 50 from course));
+
+create table if not exists subject (
+    course_id bigint,
+    id bigint not null,
+    version bigint default 0 not null,
+    title varchar(255) not null,
+    title_key varchar(255),
+    primary key (id),
+    constraint uk_subject_title_key unique (title_key),
+    constraint FKnxhd764cm1ie783v26t3jsdlx foreign key (course_id) references course (id)
+) engine=InnoDB;
+
+create table if not exists subject_seq (
+    next_val bigint
+) engine=InnoDB;
+
+-- Past the ids already in use, as for course_seq
+insert into subject_seq (next_val) select (select coalesce(max(id), 0) + 50 from subject) from dual
+    where not exists (select 1 from subject_seq);
+update subject_seq set next_val = greatest(next_val, (select coalesce(max(id), 0) + 50 from subject));
+
+create table if not exists catalog_change (
+    id bigint not null auto_increment,
+    created_at bigint not null,
+    entity_type varchar(16) not null,
+    operation varchar(16) not null,
+    entity_id bigint not null,
+    course_id bigint,
+    version bigint,
+    name varchar(255),
+    title varchar(255),
+    primary key (id),
+    index idx_catalog_change_created_at (created_at)
+) engine=InnoDB;
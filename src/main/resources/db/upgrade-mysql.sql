@@ -0,0 +1,49 @@
+-- Brings course and subject tables created by an older version (IDENTITY ids, no optimistic locking, no normalized
+-- name keys) up to the current mappings; run by the setup job after db/schema-mysql.sql. MySQL has no
+-- "add column if not exists", so each change looks itself up in information_schema first and runs as a prepared
+-- statement, or as a no-op when it is already there. Safe to run any number of times. Keys of existing rows are
+-- filled in by the seeder that the job runs next (NameKeyBackfill); the unique constraints can go on first because
+-- the keys are still NULL, and rows whose names only differ in case or surrounding whitespace (or a subject title
+-- used in several courses) are given distinct keys and reported there rather than failing the job.
+
+set @ddl = (select if(count(*) = 0, 'alter table course add column version bigint default 0 not null', 'do 0')
+    from information_schema.columns
+    where table_schema = database() and table_name = 'course' and column_name = 'version');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+set @ddl = (select if(count(*) = 0, 'alter table course add column name_key varchar(255)', 'do 0')
+    from information_schema.columns
+    where table_schema = database() and table_name = 'course' and column_name = 'name_key');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+set @ddl = (select if(count(*) = 0, 'alter table course add constraint uk_course_name_key unique (name_key)', 'do 0')
+    from information_schema.table_constraints
+    where table_schema = database() and table_name = 'course' and constraint_name = 'uk_course_name_key');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+set @ddl = (select if(count(*) = 0, 'alter table subject add column version bigint default 0 not null', 'do 0')
+    from information_schema.columns
+    where table_schema = database() and table_name = 'subject' and column_name = 'version');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+set @ddl = (select if(count(*) = 0, 'alter table subject add column title_key varchar(255)', 'do 0')
+    from information_schema.columns
+    where table_schema = database() and table_name = 'subject' and column_name = 'title_key');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+set @ddl = (select if(count(*) = 0, 'alter table subject add constraint uk_subject_title_key unique (title_key)', 'do 0')
+    from information_schema.table_constraints
+    where table_schema = database() and table_name = 'subject' and constraint_name = 'uk_subject_title_key');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
@@ -0,0 +1,26 @@
+package com.example.courses;
+
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+
+// Unsaved courses and subjects for tests to create through the services or repositories
+public final class CatalogFixtures {
+
+    private CatalogFixtures() {
+    }
+
+    public static Course course(String name, String... subjectTitles) {
+        Course course = new Course();
+        course.setName(name);
+        for (String title : subjectTitles) {
+            course.addSubject(subject(title));
+        }
+        return course;
+    }
+
+    public static Subject subject(String title) {
+        Subject subject = new Subject();
+        subject.setTitle(title);
+        return subject;
+    }
+}
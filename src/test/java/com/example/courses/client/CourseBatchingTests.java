@@ -0,0 +1,126 @@
+package com.example.courses.client;
+
+import com.example.courses.model.Course;
+import com.sun.net.httpserver.HttpServer;
+import feign.FeignException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class CourseBatchingTests {
+
+    private static final HttpServer stub = startStub();
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static final Pattern ID = Pattern.compile("\\d+");
+
+    @Autowired
+    private ResilientCourseClient courseClient;
+
+    @DynamicPropertySource
+    static void courseService(DynamicPropertyRegistry registry) {
+        registry.add("course-service.url", () -> "http://localhost:" + stub.getAddress().getPort());
+        registry.add("course-service.batching.enabled", () -> "true");
+        registry.add("course-service.batching.window", () -> "200ms");
+        registry.add("course-service.batching.max-size", () -> "8");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        hits.set(0);
+        courseClient.circuitBreaker().reset();
+    }
+
+    @Test
+    void concurrentLookupsOfDifferentCoursesShareOneBatch() throws Exception {
+        List<Future<Course>> calls = callConcurrently(8, 100);
+
+        assertEquals(1, hits.get());
+        for (int n = 0; n < calls.size(); n++) {
+            assertEquals("Course " + (100 + n), calls.get(n).resultNow().getName());
+        }
+    }
+
+    @Test
+    void aMissingCourseIsNotFound() {
+        assertThrows(FeignException.NotFound.class, () -> courseClient.getCourseById(0L));
+        assertEquals(1, hits.get());
+    }
+
+    private List<Future<Course>> callConcurrently(int callers, long firstId) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Course>> calls = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int n = 0; n < callers; n++) {
+                long id = firstId + n;
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    return courseClient.getCourseById(id);
+                }));
+            }
+            start.countDown();
+        }
+        return calls;
+    }
+
+    // Downstream stand-in: POST /api/courses/batch-get knows every course but id 0
+    private static HttpServer startStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 64);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/api/courses/batch-get", exchange -> {
+                hits.incrementAndGet();
+                try (InputStream in = exchange.getRequestBody()) {
+                    Matcher ids = ID.matcher(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                    List<String> entries = new ArrayList<>();
+                    while (ids.find()) {
+                        String id = ids.group();
+                        entries.add("\"" + id + "\":" + (id.equals("0")
+                                ? "{\"found\":false}"
+                                : "{\"found\":true,\"item\":{\"id\":" + id + ",\"name\":\"Course " + id + "\",\"subjects\":[]}}"));
+                    }
+                    byte[] body = ("{" + String.join(",", entries) + "}").getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                } finally {
+                    exchange.close();
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.courses.client;
+
+import com.example.courses.model.Course;
+import com.sun.net.httpserver.HttpServer;
+import feign.FeignException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ResilientCourseClientTests {
+
+    // Listed courses get ids of their own, so they are not in the fallback of the lookups by id below
+    private static final int LISTED_COURSES = 2500;
+    private static final int FIRST_LISTED_ID = 100_001;
+
+    private static final HttpServer stub = startStub();
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger peakInFlight = new AtomicInteger();
+    private static volatile int status;
+    private static volatile long delayMillis;
+
+    @Autowired
+    private ResilientCourseClient courseClient;
+
+    @DynamicPropertySource
+    static void courseService(DynamicPropertyRegistry registry) {
+        registry.add("course-service.url", () -> "http://localhost:" + stub.getAddress().getPort());
+        registry.add("spring.cloud.openfeign.client.config.course-service.read-timeout", () -> "1000");
+        registry.add("course-service.circuit-breaker.sliding-window-size", () -> "4");
+        registry.add("course-service.circuit-breaker.minimum-calls", () -> "4");
+        registry.add("course-service.circuit-breaker.wait-in-open-state", () -> "1h");
+        registry.add("course-service.bulkhead.max-concurrent-calls", () -> "2");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        status = 200;
+        delayMillis = 0;
+        hits.set(0);
+        peakInFlight.set(0);
+        courseClient.circuitBreaker().reset();
+    }
+
+    @Test
+    void concurrentLookupsOfOneCourseShareOneRequest() throws Exception {
+        delayMillis = 300;
+        List<Course> courses = callConcurrently(8, n -> 1L);
+
+        assertEquals(1, hits.get());
+        assertEquals(8, courses.size());
+        courses.forEach(course -> assertEquals("Course 1", course.getName()));
+    }
+
+    @Test
+    void failuresAreAnsweredWithTheLastKnownGoodCourse() {
+        assertEquals("Course 2", courseClient.getCourseById(2L).getName());
+
+        status = 500;
+        assertEquals("Course 2", courseClient.getCourseById(2L).getName());
+        assertThrows(CourseServiceUnavailableException.class, () -> courseClient.getCourseById(3L));
+    }
+
+    @Test
+    void repeatedFailuresOpenTheCircuit() {
+        status = 500;
+        for (long id = 10; id < 14; id++) {
+            long courseId = id;
+            assertThrows(CourseServiceUnavailableException.class, () -> courseClient.getCourseById(courseId));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, courseClient.circuitBreaker().getState());
+
+        hits.set(0);
+        status = 200;
+        assertThrows(CourseServiceUnavailableException.class, () -> courseClient.getCourseById(14L));
+        assertEquals(0, hits.get());
+    }
+
+    @Test
+    void notFoundIsPassedThroughWithoutCountingAsAFailure() {
+        status = 404;
+        for (int i = 0; i < 6; i++) {
+            assertThrows(FeignException.NotFound.class, () -> courseClient.getCourseById(20L));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, courseClient.circuitBreaker().getState());
+    }
+
+    @Test
+    void allCoursesFollowsTheNextCursorToTheLastPage() {
+        List<Course> courses = courseClient.getAllCourses();
+
+        assertEquals(LISTED_COURSES, courses.size());
+        assertEquals(FIRST_LISTED_ID + LISTED_COURSES - 1, courses.get(LISTED_COURSES - 1).getId());
+        assertEquals(3, hits.get());
+
+        status = 500;
+        assertEquals(LISTED_COURSES, courseClient.getAllCourses().size());
+    }
+
+    @Test
+    void slowCallsTimeOut() {
+        delayMillis = 3000;
+        long start = System.nanoTime();
+        assertThrows(CourseServiceUnavailableException.class, () -> courseClient.getCourseById(30L));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 2500);
+    }
+
+    @Test
+    void callsBeyondTheBulkheadAreShedInsteadOfQueued() throws Exception {
+        delayMillis = 500;
+        List<Course> courses = callConcurrently(6, n -> 40L + n);
+
+        assertTrue(peakInFlight.get() <= 2, "peak concurrent downstream calls " + peakInFlight.get());
+        assertTrue(courses.size() <= 2, "answered " + courses.size());
+        assertEquals(courses.size(), hits.get());
+    }
+
+    private interface IdForCaller {
+        long id(int caller);
+    }
+
+    // Starts all callers together and collects the courses that were answered (failed calls are dropped)
+    private List<Course> callConcurrently(int callers, IdForCaller ids) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Course>> calls = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int n = 0; n < callers; n++) {
+                long id = ids.id(n);
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    return courseClient.getCourseById(id);
+                }));
+            }
+            start.countDown();
+        }
+        List<Course> courses = new ArrayList<>();
+        for (Future<Course> call : calls) {
+            if (call.state() == Future.State.SUCCESS) {
+                courses.add(call.resultNow());
+            }
+        }
+        return courses;
+    }
+
+    // Downstream stand-in: GET /api/courses/{id} answers with the configured status after the configured delay;
+    // GET /api/courses pages through LISTED_COURSES courses, the cursor being the count already listed
+    private static HttpServer startStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 64);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/api/courses", exchange -> {
+                hits.incrementAndGet();
+                try (exchange) {
+                    Map<String, String> query = new HashMap<>();
+                    for (String param : exchange.getRequestURI().getQuery().split("&")) {
+                        String[] pair = param.split("=", 2);
+                        query.put(pair[0], pair[1]);
+                    }
+                    int after = Integer.parseInt(query.getOrDefault("cursor", "0"));
+                    int last = Math.min(LISTED_COURSES, after + Integer.parseInt(query.get("limit")));
+                    StringJoiner page = new StringJoiner(",", "[", "]");
+                    for (int id = FIRST_LISTED_ID + after; id < FIRST_LISTED_ID + last; id++) {
+                        page.add("{\"id\":" + id + ",\"name\":\"Course " + id + "\",\"subjects\":[]}");
+                    }
+                    byte[] body = (status == 200 ? page.toString() : "{\"error\":" + status + "}")
+                            .getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    if (status == 200 && last < LISTED_COURSES) {
+                        exchange.getResponseHeaders().add("X-Next-Cursor", Integer.toString(last));
+                    }
+                    exchange.sendResponseHeaders(status, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+            });
+            server.createContext("/api/courses/", exchange -> {
+                hits.incrementAndGet();
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(delayMillis);
+                    String id = exchange.getRequestURI().getPath().substring("/api/courses/".length());
+                    byte[] body = (status == 200
+                            ? "{\"id\":" + id + ",\"name\":\"Course " + id + "\",\"subjects\":[]}"
+                            : "{\"error\":" + status + "}").getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(status, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException ex) {
+                    // The client gave up (read timeout); nothing left to answer
+                } finally {
+                    inFlight.decrementAndGet();
+                    exchange.close();
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.courses.config;
+
+import com.example.courses.model.Course;
+import com.example.courses.repository.CatalogChangeRepository;
+import com.example.courses.service.CatalogCache;
+import com.example.courses.service.CourseService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Two embedded databases: the replica gets the catalog schema but none of the primary's rows, so where a read was
+// answered from shows in what it finds
+@SpringBootTest(properties = {
+        "courses.datasource.replica.url=jdbc:h2:mem:replica-${random.uuid};MODE=MySQL;DB_CLOSE_DELAY=-1;"
+                + "INIT=RUNSCRIPT FROM 'classpath:db/schema-mysql.sql'",
+        "courses.datasource.replica.username=sa",
+        "courses.datasource.replica.password=",
+        "courses.datasource.replica.max-lag=1s"})
+class ReadReplicaTests {
+
+    private static final long REPLICA_ONLY_ID = 900_001L;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CatalogChangeRepository changeRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Test
+    void readsGoToTheReplicaExceptRightAfterAWrite() throws Exception {
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.update("insert into course (id, version, name) values (?, 0, 'Replica only')", REPLICA_ONLY_ID);
+        // Startup seeding wrote to the primary; wait until reads have left it
+        Thread.sleep(1_200);
+
+        catalogCache.evictAll();
+        assertEquals("Replica only", courseService.getCourseById(REPLICA_ONLY_ID).name());
+
+        Course course = new Course();
+        course.setName("Primary only");
+        Long id = courseService.createCourse(course).getId();
+        assertEquals(1, primary.queryForObject("select count(*) from course where id = ?", Integer.class, id));
+        assertEquals(0, replica.queryForObject("select count(*) from course where id = ?", Integer.class, id));
+
+        // Within max-lag of the write, reads are answered by the primary
+        catalogCache.evictAll();
+        assertEquals("Primary only", courseService.getCourseById(id).name());
+        assertThrows(EntityNotFoundException.class, () -> courseService.getCourseById(REPLICA_ONLY_ID));
+
+        Thread.sleep(1_200);
+        catalogCache.evictAll();
+        assertThrows(EntityNotFoundException.class, () -> courseService.getCourseById(id));
+        assertEquals("Replica only", courseService.getCourseById(REPLICA_ONLY_ID).name());
+    }
+
+    @Test
+    void changeFeedReadsStayOnThePrimary() throws Exception {
+        Course course = new Course();
+        course.setName("Feed on primary");
+        courseService.createCourse(course);
+        Thread.sleep(1_200);
+
+        assertFalse(changeRepository.findAfter(0, Limit.of(1)).isEmpty());
+    }
+
+    @Test
+    void bothPoolsPublishMetrics() {
+        courseService.getCoursesAfter(null, 1);
+        for (String pool : new String[]{"primary", "replica"}) {
+            assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", pool).gauge(), pool);
+            assertNotNull(meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool).timer(), pool);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.courses.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SequenceTablesTests {
+
+    // A course table filled through IDENTITY ids, and the sequence table ddl-auto=update adds next to it
+    @Test
+    void sequenceTablesStartPastExistingIdsAndNeverMoveBack() {
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:sequences-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("create table course (id bigint not null primary key)");
+        jdbc.execute("create table course_seq (next_val bigint)");
+        jdbc.update("insert into course (id) values (1), (2), (1234)");
+        jdbc.update("insert into course_seq (next_val) values (1)");
+
+        SequenceTables.align(jdbc, "course");
+        assertEquals(1234 + SequenceTables.ALLOCATION_SIZE, next(jdbc, "course_seq"));
+        SequenceTables.align(jdbc, "course");
+        assertEquals(1234 + SequenceTables.ALLOCATION_SIZE, next(jdbc, "course_seq"));
+
+        // Ids handed out since then are not taken back
+        jdbc.update("update course_seq set next_val = 5000");
+        SequenceTables.align(jdbc, "course");
+        assertEquals(5000, next(jdbc, "course_seq"));
+
+        // An empty sequence table gets its row; an empty entity table starts the first block at 1
+        jdbc.execute("create table subject (id bigint not null primary key)");
+        jdbc.execute("create table subject_seq (next_val bigint)");
+        SequenceTables.align(jdbc, "subject");
+        SequenceTables.align(jdbc, "subject");
+        assertEquals(1, jdbc.queryForObject("select count(*) from subject_seq", Integer.class));
+        assertEquals(SequenceTables.ALLOCATION_SIZE, next(jdbc, "subject_seq"));
+        jdbc.execute("shutdown");
+    }
+
+    private static long next(JdbcTemplate jdbc, String sequence) {
+        return jdbc.queryForObject("select next_val from " + sequence, Long.class);
+    }
+}
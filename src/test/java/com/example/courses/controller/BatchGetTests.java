@@ -0,0 +1,113 @@
+package com.example.courses.controller;
+
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.example.courses.service.CourseService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static com.example.courses.CatalogFixtures.course;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchGetTests {
+
+    private static final long MISSING_ID = 9_000_000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void coursesComeBackKeyedByIdInRequestOrderWithSubjects() throws Exception {
+        Course first = courseService.createCourse(course("Batch first", "Batch topic A", "Batch topic B"));
+        Course second = courseService.createCourse(course("Batch second"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        JsonNode result = batchGet("/api/courses/batch-get", List.of(second.getId(), MISSING_ID, first.getId(), second.getId()));
+
+        // One query for all the courses and their subjects
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(List.of(Long.toString(second.getId()), Long.toString(MISSING_ID), Long.toString(first.getId())),
+                fieldNames(result));
+        JsonNode found = result.get(Long.toString(first.getId()));
+        assertTrue(found.get("found").asBoolean());
+        assertEquals("Batch first", found.get("item").get("name").asText());
+        assertEquals(2, found.get("item").get("subjects").size());
+        assertEquals(0, result.get(Long.toString(second.getId())).get("item").get("subjects").size());
+        JsonNode missing = result.get(Long.toString(MISSING_ID));
+        assertFalse(missing.get("found").asBoolean());
+        assertFalse(missing.has("item"));
+
+        // Now cached: the same batch needs no query at all
+        statistics.clear();
+        batchGet("/api/courses/batch-get", List.of(first.getId(), second.getId()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void subjectsComeBackKeyedById() throws Exception {
+        Course course = courseService.createCourse(course("Batch subjects", "Batch subject A", "Batch subject B"));
+        Subject subject = course.getSubjects().get(1);
+
+        JsonNode result = batchGet("/api/subjects/batch-get", List.of(subject.getId(), MISSING_ID));
+
+        JsonNode found = result.get(Long.toString(subject.getId()));
+        assertTrue(found.get("found").asBoolean());
+        assertEquals("Batch subject B", found.get("item").get("title").asText());
+        assertFalse(result.get(Long.toString(MISSING_ID)).get("found").asBoolean());
+    }
+
+    @Test
+    void oversizedOrEmptyBatchesAreRejected() throws Exception {
+        List<Long> tooMany = LongStream.rangeClosed(1, BatchGets.MAX_IDS + 1).boxed().toList();
+        mockMvc.perform(post("/api/courses/batch-get").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tooMany)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/subjects/batch-get").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/subjects/batch-get").contentType(MediaType.APPLICATION_JSON).content("[1, null]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode batchGet(String uri, List<Long> ids) throws Exception {
+        String body = mockMvc.perform(post(uri).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
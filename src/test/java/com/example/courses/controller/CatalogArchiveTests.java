@@ -0,0 +1,116 @@
+package com.example.courses.controller;
+
+import com.example.courses.dto.CourseView;
+import com.example.courses.dto.SubjectView;
+import com.example.courses.model.Course;
+import com.example.courses.service.CatalogArchiveJob;
+import com.example.courses.service.CatalogArchiveResult;
+import com.example.courses.service.CourseService;
+import com.example.courses.service.SubjectService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.courses.CatalogFixtures.course;
+import static com.example.courses.CatalogFixtures.subject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogArchiveTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private SubjectService subjectService;
+
+    @Autowired
+    private CatalogArchiveJob catalogArchiveJob;
+
+    @Test
+    void anExportRestoresWhatWasDeletedAndSkipsTheRest() throws Exception {
+        Course course = courseService.createCourse(
+                course("Archive Ünïcode ✓", "Archive α", "Archive β", "Archive γ"));
+        Long looseId = subjectService.createSubject(subject("Archive loose subject")).getId();
+        courseService.createCourse(course("Archive bare course"));
+
+        byte[] archive = export();
+        courseService.deleteCourse(course.getId(), null);
+        subjectService.deleteSubject(looseId, null);
+
+        mockMvc.perform(post("/api/courses/import").contentType(CourseController.CATALOG_ARCHIVE_VALUE).content(archive))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courses").value(1))
+                .andExpect(jsonPath("$.subjects").value(4));
+
+        CourseView restored = courseService.getCoursesAfter(null, 10_000).stream()
+                .filter(view -> view.name().equals("Archive Ünïcode ✓"))
+                .findFirst().orElseThrow();
+        assertEquals(List.of("Archive α", "Archive β", "Archive γ"),
+                restored.subjects().stream().map(SubjectView::title).toList());
+        assertEquals(1, subjectService.getSubjectsAfter(null, 100_000).stream()
+                .filter(subject -> subject.title().equals("Archive loose subject") && subject.courseId() == null)
+                .count());
+    }
+
+    @Test
+    void malformedOrTruncatedArchivesAreRejected() throws Exception {
+        courseService.createCourse(course("Archive truncated course", "Archive truncated subject"));
+        byte[] archive = export();
+
+        mockMvc.perform(post("/api/courses/import").contentType(CourseController.CATALOG_ARCHIVE_VALUE)
+                        .content("{\"name\": \"not an archive\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Not a catalog archive"));
+        mockMvc.perform(post("/api/courses/import").contentType(CourseController.CATALOG_ARCHIVE_VALUE)
+                        .content(Arrays.copyOf(archive, archive.length - 3)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Catalog archive is truncated"));
+    }
+
+    @Test
+    void theCommandLineJobWritesAFileThatLoadsBackAsDuplicates(@TempDir Path directory) throws Exception {
+        courseService.createCourse(course("Archive file course", "Archive file subject"));
+        Path file = directory.resolve("catalog.ccat");
+
+        CatalogArchiveResult exported = catalogArchiveJob.exportTo(file);
+        assertFalse(Files.exists(directory.resolve("catalog.ccat.partial")));
+        CatalogArchiveResult imported = catalogArchiveJob.importFrom(file);
+
+        assertEquals(0, imported.courses());
+        assertEquals(0, imported.subjects());
+        assertEquals(exported.courses(), imported.skippedCourses());
+        assertEquals(exported.subjects(), imported.skippedSubjects());
+    }
+
+    private byte[] export() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/courses/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CourseController.CATALOG_ARCHIVE_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.courses.controller;
+
+import com.example.courses.dto.CourseView;
+import com.example.courses.dto.SubjectView;
+import com.example.courses.model.Course;
+import com.example.courses.service.CatalogSnapshot;
+import com.example.courses.service.CourseService;
+import com.example.courses.service.SubjectService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.courses.CatalogFixtures.course;
+import static com.example.courses.CatalogFixtures.subject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The refresh interval is long, so the snapshot only changes when a commit (or the test) rebuilds it
+@SpringBootTest(properties = {"courses.snapshot.enabled=true", "courses.snapshot.refresh-interval=1h"})
+@AutoConfigureMockMvc
+class CatalogSnapshotTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private SubjectService subjectService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void readsAreServedWithoutAQueryAndMatchTheDatabase() throws Exception {
+        Course course = courseService.createCourse(course("Snapshot Ünïcode ✓", "Snapshot α", "Snapshot β"));
+        Long looseId = subjectService.createSubject(subject("Snapshot loose")).getId();
+        catalogSnapshot.rebuild();
+        Long id = course.getId();
+
+        double statementsBefore = requestStatements();
+        String body = mockMvc.perform(get("/api/courses/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETags.of(course.getVersion())))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        mockMvc.perform(get("/api/courses/" + id + "/subjects")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/subjects/" + looseId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/courses").param("limit", "2")).andExpect(status().isOk());
+        mockMvc.perform(post("/api/subjects/batch-get").contentType(MediaType.APPLICATION_JSON)
+                .content("[" + looseId + ", 999999]")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/courses/999999")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/courses/" + id + "/subjects/" + looseId)).andExpect(status().isNotFound());
+        // Counted on the request threads only, so a rebuild running meanwhile does not count
+        assertEquals(statementsBefore, requestStatements());
+
+        assertEquals(objectMapper.writeValueAsString(courseService.getCourseById(id)), body);
+        assertEquals(subjectService.getSubjectById(looseId), catalogSnapshot.getSubjectById(looseId));
+        JsonNode json = objectMapper.readTree(body);
+        assertEquals("Snapshot Ünïcode ✓", json.get("name").asText());
+        assertEquals("Snapshot β", json.get("subjects").get(1).get("title").asText());
+    }
+
+    @Test
+    void pagesAndStreamsFollowIdOrder() throws Exception {
+        courseService.createCourse(course("Snapshot paging", "Snapshot page one", "Snapshot page two"));
+        catalogSnapshot.rebuild();
+
+        List<CourseView> expected = courseService.getCoursesAfter(null, 1_000);
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/courses").param("limit", "3");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MockHttpServletResponse response = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            for (JsonNode node : objectMapper.readTree(response.getContentAsString())) {
+                paged.add(node.get("id").asLong());
+            }
+            cursor = response.getHeader(CursorPages.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        assertEquals(expected.stream().map(CourseView::id).toList(), paged);
+
+        List<SubjectView> streamed = new ArrayList<>();
+        catalogSnapshot.streamAllSubjects(streamed::add);
+        assertEquals(subjectService.getSubjectsAfter(null, 10_000), streamed);
+    }
+
+    @Test
+    void aCommitSwapsInANewSnapshot() throws Exception {
+        Course course = courseService.createCourse(course("Snapshot swapped"));
+        long deadline = System.currentTimeMillis() + 10_000;
+        int status;
+        do {
+            Thread.sleep(20);
+            status = mockMvc.perform(get("/api/courses/" + course.getId())).andReturn().getResponse().getStatus();
+        } while (status != 200 && System.currentTimeMillis() < deadline);
+        assertEquals(200, status);
+        assertTrue(catalogSnapshot.isServing());
+    }
+
+    private double requestStatements() {
+        return meterRegistry.find("courses.request.sql.statements").summaries().stream()
+                .mapToDouble(DistributionSummary::totalAmount)
+                .sum();
+    }
+}
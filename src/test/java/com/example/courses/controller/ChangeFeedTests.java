@@ -0,0 +1,165 @@
+package com.example.courses.controller;
+
+import com.example.courses.dto.ChangeEvent;
+import com.example.courses.model.Course;
+import com.example.courses.repository.CatalogChangeRepository;
+import com.example.courses.service.ChangeFeed;
+import com.example.courses.service.CourseService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static com.example.courses.CatalogFixtures.course;
+import static com.example.courses.CatalogFixtures.subject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(properties = "courses.changes.poll-interval=50ms")
+@AutoConfigureMockMvc
+class ChangeFeedTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private CatalogChangeRepository changeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void everyMutationIsRecordedInItsTransaction() {
+        long since = lastOffset();
+        Course course = courseService.createCourse(course("Outbox Course", "Outbox A", "Outbox B"));
+        Long subjectId = course.getSubjects().get(0).getId();
+        Course renamed = new Course();
+        renamed.setName("Outbox Course Renamed");
+        renamed.setSubjects(List.of(subject("Outbox B")));
+        Course updated = courseService.updateCourse(course.getId(), renamed, null);
+
+        List<ChangeEvent> changes = changeRepository.findAfter(since, Limit.of(100));
+        assertEquals(5, changes.size());
+        assertEquals(List.of("COURSE CREATED", "SUBJECT CREATED", "SUBJECT CREATED", "COURSE UPDATED", "SUBJECT DELETED"),
+                changes.stream().map(change -> change.type() + " " + change.operation()).toList());
+        ChangeEvent rename = changes.get(3);
+        assertEquals("Outbox Course Renamed", rename.name());
+        assertEquals(updated.getVersion(), rename.version());
+        assertEquals(subjectId, changes.get(4).id());
+        assertEquals(course.getId(), changes.get(4).courseId());
+
+        // A transaction that rolls back leaves no change behind
+        long beforeRollback = lastOffset();
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            courseService.createCourse(course("Outbox Rolled Back", "Outbox C"));
+            throw new IllegalStateException("roll back");
+        }));
+        assertEquals(beforeRollback, lastOffset());
+    }
+
+    @Test
+    void deliveryWaitsAtARecentGapAndSkipsAnOldOne() {
+        long now = System.currentTimeMillis();
+        insertChange(7_000_001L, now);
+        insertChange(7_000_003L, now);
+
+        assertEquals(List.of(7_000_001L), offsets(changeFeed.readAfter(7_000_000L, 10)));
+
+        jdbcTemplate.update("update catalog_change set created_at = ? where id = ?",
+                now - Duration.ofMinutes(1).toMillis(), 7_000_003L);
+        assertEquals(List.of(7_000_001L, 7_000_003L), offsets(changeFeed.readAfter(7_000_000L, 10)));
+    }
+
+    @Test
+    void aLateCommitIntoASkippedGapResetsStreamsPastIt() throws Exception {
+        long old = System.currentTimeMillis() - Duration.ofMinutes(1).toMillis();
+        insertChange(8_000_001L, old);
+        insertChange(8_000_003L, old);
+        MockHttpServletResponse stream = mockMvc.perform(get("/api/courses/changes").param("since", "8000000")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        assertFalse(awaitContent(stream, "id:8000003").contains("id:8000002"));
+
+        insertChange(8_000_002L, old);
+
+        String delivered = awaitContent(stream, "event:reset");
+        assertFalse(delivered.contains("id:8000002"));
+        assertEquals(List.of(8_000_002L, 8_000_003L), offsets(changeFeed.readAfter(8_000_001L, 10)));
+    }
+
+    @Test
+    void streamDeliversChangesAndResumesFromLastEventId() throws Exception {
+        long since = lastOffset();
+        MockHttpServletResponse stream = mockMvc.perform(get("/api/courses/changes").param("since", Long.toString(since))
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        Course course = courseService.createCourse(course("Streamed Course"));
+        String delivered = awaitContent(stream, "Streamed Course");
+        assertTrue(delivered.contains("event:change"));
+        long offset = lastOffset();
+        assertTrue(delivered.contains("id:" + offset));
+
+        MockHttpServletResponse resumed = mockMvc.perform(get("/api/courses/changes").header("Last-Event-ID", Long.toString(offset))
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        courseService.deleteCourse(course.getId(), null);
+
+        String afterResume = awaitContent(resumed, "\"operation\":\"DELETED\"");
+        assertFalse(afterResume.contains("Streamed Course"));
+    }
+
+    private long lastOffset() {
+        return jdbcTemplate.queryForObject("select coalesce(max(id), 0) from catalog_change", Long.class);
+    }
+
+    private void insertChange(long id, long createdAt) {
+        jdbcTemplate.update("insert into catalog_change (id, created_at, entity_type, operation, entity_id) "
+                + "values (?, ?, 'COURSE', 'UPDATED', 1)", id, createdAt);
+    }
+
+    private static List<Long> offsets(List<ChangeEvent> events) {
+        return events.stream().map(ChangeEvent::offset).toList();
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        Instant deadline = Instant.now().plusSeconds(10);
+        while (Instant.now().isBefore(deadline)) {
+            String content = response.getContentAsString();
+            if (content.contains(expected)) {
+                return content;
+            }
+            Thread.sleep(20);
+        }
+        return fail("Stream did not deliver " + expected + "; got: " + response.getContentAsString());
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.example.courses.controller;
+
+import com.example.courses.model.Course;
+import com.example.courses.service.CatalogCache;
+import com.example.courses.service.CourseService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.example.courses.CatalogFixtures.course;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalRequestTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void unchangedCourseIsAnswered304FromTheVersionAlone() throws Exception {
+        Course course = courseService.createCourse(course("Conditional Course", "Conditional A", "Conditional B"));
+        String uri = "/api/courses/" + course.getId();
+        String eTag = eTagOf(uri);
+
+        catalogCache.evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        mockMvc.perform(get(uri + "/subjects").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void everySubjectChangeMovesTheCourseETag() throws Exception {
+        Course course = courseService.createCourse(course("Versioned Course", "Versioned A"));
+        Long subjectId = course.getSubjects().get(0).getId();
+        String uri = "/api/courses/" + course.getId();
+        String initial = eTagOf(uri);
+
+        mockMvc.perform(put(uri + "/subjects/" + subjectId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Versioned A renamed\"}"))
+                .andExpect(status().isOk());
+        String afterRename = eTagOf(uri);
+        assertNotEquals(initial, afterRename);
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, initial))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subjects[0].title").value("Versioned A renamed"));
+
+        mockMvc.perform(put("/api/subjects/" + subjectId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Versioned A again\"}"))
+                .andExpect(status().isOk());
+        String afterSubjectPut = eTagOf(uri);
+        assertNotEquals(afterRename, afterSubjectPut);
+
+        mockMvc.perform(put(uri).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Versioned Course\", \"subjects\": [{\"title\": \"Versioned B\"}]}"))
+                .andExpect(status().isOk());
+        assertNotEquals(afterSubjectPut, eTagOf(uri));
+    }
+
+    @Test
+    void staleIfMatchIsRejectedWith412() throws Exception {
+        Course course = courseService.createCourse(course("Guarded Course", "Guarded A"));
+        Long subjectId = course.getSubjects().get(0).getId();
+        String uri = "/api/courses/" + course.getId();
+        String stale = eTagOf(uri);
+        String current = mockMvc.perform(put(uri).header(HttpHeaders.IF_MATCH, stale)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"Guarded Course 2\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(stale, current);
+
+        // A second writer still holding the old ETag no longer overwrites the first one's change
+        mockMvc.perform(put(uri).header(HttpHeaders.IF_MATCH, stale)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"Lost update\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete(uri).header(HttpHeaders.IF_MATCH, stale))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(get(uri)).andExpect(jsonPath("$.name").value("Guarded Course 2"));
+
+        mockMvc.perform(delete(uri).header(HttpHeaders.IF_MATCH, current))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get(uri)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void subjectWritesHonourIfMatch() throws Exception {
+        Course course = courseService.createCourse(course("Guarded Subjects", "Guarded S"));
+        Long subjectId = course.getSubjects().get(0).getId();
+        String uri = "/api/courses/" + course.getId() + "/subjects/" + subjectId;
+        String stale = eTagOf(uri);
+        mockMvc.perform(get("/api/subjects/" + subjectId).header(HttpHeaders.IF_NONE_MATCH, stale))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put(uri).header(HttpHeaders.IF_MATCH, stale)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\": \"Guarded S2\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/subjects/" + subjectId).header(HttpHeaders.IF_MATCH, stale)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\": \"Guarded S3\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete(uri).header(HttpHeaders.IF_MATCH, stale))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete(uri).header(HttpHeaders.IF_MATCH, "*"))
+                .andExpect(status().isNoContent());
+    }
+
+    private String eTagOf(String uri) throws Exception {
+        String eTag = mockMvc.perform(get(uri)).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isNotModified());
+        return eTag;
+    }
+}
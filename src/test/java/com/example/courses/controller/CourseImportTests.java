@@ -0,0 +1,68 @@
+package com.example.courses.controller;
+
+import com.example.courses.repository.CourseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CourseImportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Test
+    void importsJsonArrayWithPerRowResults() throws Exception {
+        String body = """
+                [
+                  {"name": "Import A", "subjects": [{"title": "Import A1"}, {"title": "Import A2"}]},
+                  {"name": "DBDA"},
+                  {"name": "Import A"},
+                  {"name": " "},
+                  {"name": "Import B", "subjects": [{"title": ""}]}
+                ]
+                """;
+        mockMvc.perform(post("/api/courses/import").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[1].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$[2].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$[3].status").value("INVALID"))
+                .andExpect(jsonPath("$[4].status").value("INVALID"));
+
+        assertEquals(2, courseRepository.findAllWithSubjects().stream()
+                .filter(course -> course.getName().equals("Import A"))
+                .findFirst().orElseThrow().getSubjects().size());
+    }
+
+    @Test
+    void importsNdjsonAcrossSeveralChunks() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1200; i++) {
+            body.append("{\"name\":\"Ndjson course ").append(i).append("\",\"subjects\":[{\"title\":\"Ndjson subject ")
+                    .append(i).append("\"}]}\n");
+        }
+        mockMvc.perform(post("/api/courses/import").contentType(MediaType.APPLICATION_NDJSON).content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1200))
+                .andExpect(jsonPath("$[1199].index").value(1199))
+                .andExpect(jsonPath("$[1199].status").value("CREATED"));
+
+        assertTrue(courseRepository.findIdByNameKey("ndjson course 1199").isPresent());
+    }
+}
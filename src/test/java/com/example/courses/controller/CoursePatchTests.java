@@ -0,0 +1,163 @@
+package com.example.courses.controller;
+
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.example.courses.repository.CourseRepository;
+import com.example.courses.service.CourseService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.example.courses.CatalogFixtures.course;
+import static com.example.courses.CatalogFixtures.subject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Course writes are proportional to the change: renames and subject edits touch only the rows that differ
+@SpringBootTest
+@AutoConfigureMockMvc
+class CoursePatchTests {
+
+    private static final int SUBJECTS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void renameLeavesSubjectRowsAlone() throws Exception {
+        Course course = largeCourse("Patch rename");
+        Map<String, Long> idsBefore = subjectIds(course.getId());
+
+        statistics.clear();
+        String eTag = mockMvc.perform(patch("/api/courses/" + course.getId())
+                        .contentType(CourseController.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"name\": \"Patch renamed\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(idsBefore, subjectIds(course.getId()));
+        assertEquals("Patch renamed", courseRepository.findById(course.getId()).orElseThrow().getName());
+        assertNotEquals(ETags.of(course.getVersion()), eTag);
+    }
+
+    @Test
+    void subjectPatchWritesOnlyTheSubjectsThatChanged() throws Exception {
+        Course course = largeCourse("Patch subjects");
+        Map<String, Long> idsBefore = subjectIds(course.getId());
+        List<Map<String, Object>> subjects = new ArrayList<>();
+        for (int i = 1; i < SUBJECTS; i++) {
+            subjects.add(Map.of("title", "Patch subjects topic " + i));
+        }
+        // Retitle one subject by id, drop topic 0 and add a new one
+        subjects.set(0, Map.of("id", idsBefore.get("Patch subjects topic 1"), "title", "Patch subjects retitled"));
+        subjects.add(Map.of("title", "Patch subjects added"));
+
+        statistics.clear();
+        String eTag = mockMvc.perform(patch("/api/courses/" + course.getId())
+                        .contentType(CourseController.MERGE_PATCH_JSON_VALUE)
+                        .content(objectMapper.writeValueAsString(Map.of("subjects", subjects))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getEntityDeleteCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        Map<String, Long> idsAfter = subjectIds(course.getId());
+        assertEquals(SUBJECTS, idsAfter.size());
+        assertEquals(idsBefore.get("Patch subjects topic 1"), idsAfter.get("Patch subjects retitled"));
+        for (int i = 2; i < SUBJECTS; i++) {
+            assertEquals(idsBefore.get("Patch subjects topic " + i), idsAfter.get("Patch subjects topic " + i));
+        }
+        assertNotNull(idsAfter.get("Patch subjects added"));
+        // Subject-only changes still move the course ETag
+        assertNotEquals(ETags.of(course.getVersion()), eTag);
+    }
+
+    @Test
+    void unchangedPutWritesNothing() throws Exception {
+        Course course = largeCourse("Patch unchanged");
+        List<Map<String, Object>> subjects = new ArrayList<>();
+        for (int i = 0; i < SUBJECTS; i++) {
+            subjects.add(Map.of("title", "Patch unchanged topic " + i));
+        }
+
+        statistics.clear();
+        String eTag = mockMvc.perform(put("/api/courses/" + course.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("name", "Patch unchanged", "subjects", subjects))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertEquals(ETags.of(course.getVersion()), eTag);
+    }
+
+    @Test
+    void nullSubjectsEmptyTheCourseAndNullNameIsRejected() throws Exception {
+        Course course = largeCourse("Patch nulls");
+        String uri = "/api/courses/" + course.getId();
+
+        mockMvc.perform(patch(uri).contentType(CourseController.MERGE_PATCH_JSON_VALUE).content("{\"name\": null}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch(uri).contentType(CourseController.MERGE_PATCH_JSON_VALUE).content("{\"subjects\": null}"))
+                .andExpect(status().isOk());
+
+        assertEquals(Map.of(), subjectIds(course.getId()));
+        assertEquals("Patch nulls", courseRepository.findById(course.getId()).orElseThrow().getName());
+    }
+
+    private Course largeCourse(String name) {
+        Course course = course(name);
+        for (int i = 0; i < SUBJECTS; i++) {
+            course.addSubject(subject(name + " topic " + i));
+        }
+        return courseService.createCourse(course);
+    }
+
+    private Map<String, Long> subjectIds(Long courseId) {
+        return courseRepository.findWithSubjectsById(courseId).orElseThrow().getSubjects().stream()
+                .collect(Collectors.toMap(Subject::getTitle, Subject::getId));
+    }
+}
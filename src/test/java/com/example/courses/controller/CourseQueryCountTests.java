@@ -0,0 +1,117 @@
+package com.example.courses.controller;
+
+import com.example.courses.model.Course;
+import com.example.courses.repository.CourseRepository;
+import com.example.courses.service.CatalogCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.example.courses.CatalogFixtures.course;
+import static com.example.courses.CatalogFixtures.subject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Guards the read endpoints against N+1 regressions: the SQL statement count per request must not grow with data
+@SpringBootTest
+@AutoConfigureMockMvc
+class CourseQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void statementCountPerEndpointStaysFixedAsDataGrows() throws Exception {
+        Course course = courseRepository.findAllWithSubjects().get(0);
+        Long courseId = course.getId();
+        Long subjectId = course.getSubjects().get(0).getId();
+
+        Map<String, Long> small = measureEndpoints(courseId, subjectId);
+
+        addCourses(40, 8);
+        course = courseRepository.findWithSubjectsById(courseId).orElseThrow();
+        for (int i = 0; i < 20; i++) {
+            course.addSubject(subject("Extra subject " + i));
+        }
+        courseRepository.save(course);
+
+        Map<String, Long> large = measureEndpoints(courseId, subjectId);
+
+        assertEquals(small, large);
+        assertEquals(2L, large.get("GET /api/courses"));
+        assertEquals(1L, large.get("GET /api/courses/{id}"));
+        assertEquals(2L, large.get("GET /api/courses/{id}/subjects"));
+        assertEquals(1L, large.get("GET /api/courses/{id}/subjects/{subjectId}"));
+        assertEquals(1L, large.get("GET /api/subjects"));
+        assertEquals(1L, large.get("GET /api/courses/stream"));
+        assertEquals(1L, large.get("GET /api/subjects/stream"));
+    }
+
+    private Map<String, Long> measureEndpoints(Long courseId, Long subjectId) throws Exception {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("GET /api/courses", countStatements("/api/courses?limit=1000"));
+        counts.put("GET /api/courses/{id}", countStatements("/api/courses/" + courseId));
+        counts.put("GET /api/courses/{id}/subjects", countStatements("/api/courses/" + courseId + "/subjects"));
+        counts.put("GET /api/courses/{id}/subjects/{subjectId}",
+                countStatements("/api/courses/" + courseId + "/subjects/" + subjectId));
+        counts.put("GET /api/subjects", countStatements("/api/subjects?limit=1000"));
+        counts.put("GET /api/subjects/{id}", countStatements("/api/subjects/" + subjectId));
+        counts.put("GET /api/courses/stream", countStreamingStatements("/api/courses/stream"));
+        counts.put("GET /api/subjects/stream", countStreamingStatements("/api/subjects/stream"));
+        return counts;
+    }
+
+    // Measures a cold request: the catalog cache is emptied first so every lookup reaches the database
+    private long countStatements(String uri) throws Exception {
+        catalogCache.evictAll();
+        statistics.clear();
+        mockMvc.perform(get(uri)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long countStreamingStatements(String uri) throws Exception {
+        statistics.clear();
+        MvcResult result = mockMvc.perform(get(uri)).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addCourses(int courses, int subjectsPerCourse) {
+        for (int c = 0; c < courses; c++) {
+            Course course = course("Query count course " + c);
+            for (int s = 0; s < subjectsPerCourse; s++) {
+                course.addSubject(subject("Query count subject " + c + "-" + s));
+            }
+            courseRepository.save(course);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.courses.controller;
+
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.example.courses.service.CourseService;
+import com.example.courses.service.SubjectService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+
+import static com.example.courses.CatalogFixtures.course;
+import static com.example.courses.CatalogFixtures.subject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CourseStatsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private SubjectService subjectService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void countsFollowWritesWithoutRecounting() throws Exception {
+        JsonNode before = stats(3);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Course big = createCourse("Stats big", 60);
+        Course small = createCourse("Stats small", 2);
+        Subject moved = small.getSubjects().get(0);
+
+        statistics.clear();
+        JsonNode after = stats(3);
+        // Answered from the counts the commits adjusted: no query at all
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(before.get("courses").asLong() + 2, after.get("courses").asLong());
+        assertEquals(before.get("subjects").asLong() + 62, after.get("subjects").asLong());
+        assertEquals(3, after.get("topCourses").size());
+        JsonNode top = after.get("topCourses").get(0);
+        assertEquals(big.getId(), top.get("id").asLong());
+        assertEquals(60, top.get("subjects").asLong());
+        assertEquals(2, subjectCount(after, small.getId()));
+
+        subjectService.deleteSubject(moved.getId(), null);
+        courseService.deleteCourse(big.getId(), null);
+
+        JsonNode afterDeletes = stats(3);
+        assertEquals(before.get("courses").asLong() + 1, afterDeletes.get("courses").asLong());
+        assertEquals(before.get("subjects").asLong() + 1, afterDeletes.get("subjects").asLong());
+        assertEquals(1, subjectCount(afterDeletes, small.getId()));
+        assertEquals(-1, subjectCount(afterDeletes, big.getId()));
+    }
+
+    @Test
+    void topIsBounded() throws Exception {
+        mockMvc.perform(get("/api/courses/stats").param("top", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/courses/stats").param("top", "101")).andExpect(status().isBadRequest());
+        JsonNode stats = stats(1);
+        assertTrue(stats.get("topCourses").size() <= 1);
+    }
+
+    private JsonNode stats(int top) throws Exception {
+        String body = mockMvc.perform(get("/api/courses/stats").param("top", Integer.toString(top)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static long subjectCount(JsonNode stats, Long courseId) {
+        for (JsonNode count : stats.get("subjectCounts")) {
+            if (count.get("id").asLong() == courseId) {
+                return count.get("subjects").asLong();
+            }
+        }
+        return -1;
+    }
+
+    private Course createCourse(String name, int subjects) {
+        Course course = course(name);
+        for (int i = 0; i < subjects; i++) {
+            course.addSubject(subject(name + " topic " + i));
+        }
+        return courseService.createCourse(course);
+    }
+}
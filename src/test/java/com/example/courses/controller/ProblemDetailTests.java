@@ -0,0 +1,76 @@
+package com.example.courses.controller;
+
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.example.courses.service.CourseService;
+import com.example.courses.service.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.example.courses.CatalogFixtures.course;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProblemDetailTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Test
+    void missingResourcesAreAnsweredWithProblemDetails() throws Exception {
+        mockMvc.perform(get("/api/courses/{id}", 9_000_000))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.title").value("Not Found"))
+                .andExpect(jsonPath("$.detail").value("Course not found with id: 9000000"))
+                .andExpect(jsonPath("$.instance").value("/api/courses/9000000"));
+
+        Long courseId = courseService.createCourse(course("Problem detail course", "Problem detail subject")).getId();
+        mockMvc.perform(get("/api/courses/{courseId}/subjects/{subjectId}", courseId, 9_000_000))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail")
+                        .value("Subject not found with id: 9000000 for course id: " + courseId));
+        mockMvc.perform(get("/api/subjects/{id}", 9_000_000))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("Subject not found with id: 9000000"));
+    }
+
+    @Test
+    void otherErrorsAreProblemDetailsToo() throws Exception {
+        mockMvc.perform(get("/api/courses").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.detail").isNotEmpty());
+
+        Course created = courseService.createCourse(course("Problem detail guarded course"));
+        mockMvc.perform(put("/api/courses/{id}", created.getId())
+                        .header("If-Match", "\"" + (created.getVersion() + 5) + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Problem detail renamed\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+    }
+
+    @Test
+    void notFoundExceptionsCarryNoStackTrace() {
+        NotFoundException ex = assertThrows(NotFoundException.class, () -> courseService.getCourseById(9_000_000L));
+        assertEquals(0, ex.getStackTrace().length);
+        assertEquals("Course not found with id: 9000000", ex.getMessage());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.courses.controller;
+
+import com.example.courses.model.Course;
+import com.example.courses.service.CourseService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.courses.CatalogFixtures.course;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The reactive read path answers like the servlet GET endpoints it mirrors
+@SpringBootTest(properties = {"courses.reactive.enabled=true", "courses.reactive.port=0"})
+@AutoConfigureMockMvc
+class ReactiveReadTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private ReactiveServer reactiveServer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveServer.getPort()).build();
+    }
+
+    @Test
+    void courseMatchesTheServletAnswerAndHonoursItsETag() throws Exception {
+        Course course = courseService.createCourse(course("Reactive Course", "Reactive B", "Reactive A"));
+        String uri = "/api/courses/" + course.getId();
+        String servletBody = mockMvc.perform(get(uri)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        byte[] body = client.get().uri(ReactiveRoutes.PREFIX + uri).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ETags.of(course.getVersion()))
+                .expectBody().returnResult().getResponseBody();
+        assertEquals(objectMapper.readTree(servletBody), objectMapper.readTree(body));
+
+        client.get().uri(ReactiveRoutes.PREFIX + uri).header(HttpHeaders.IF_NONE_MATCH, ETags.of(course.getVersion()))
+                .exchange()
+                .expectStatus().isNotModified();
+        client.get().uri(ReactiveRoutes.PREFIX + uri + "/subjects").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[1].title").isEqualTo("Reactive A");
+        Long subjectId = course.getSubjects().get(0).getId();
+        client.get().uri(ReactiveRoutes.PREFIX + uri + "/subjects/" + subjectId).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.title").isEqualTo("Reactive B");
+    }
+
+    @Test
+    void pagesAndStreamsCoverEveryCourse() throws Exception {
+        courseService.createCourse(course("Reactive Paged 1", "Reactive Paged topic"));
+        courseService.createCourse(course("Reactive Paged 2"));
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            String uri = ReactiveRoutes.PREFIX + "/api/courses?limit=2" + (cursor != null ? "&cursor=" + cursor : "");
+            var result = client.get().uri(uri).exchange().expectStatus().isOk().expectBody().returnResult();
+            objectMapper.readTree(result.getResponseBody()).forEach(course -> paged.add(course.get("id").asLong()));
+            cursor = result.getResponseHeaders().getFirst(CursorPages.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        String stream = new String(client.get().uri(ReactiveRoutes.PREFIX + "/api/courses/stream")
+                .accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody());
+        List<Long> streamed = new ArrayList<>();
+        for (String line : stream.split("\n")) {
+            JsonNode course = objectMapper.readTree(line);
+            assertNotNull(course.get("subjects"));
+            streamed.add(course.get("id").asLong());
+        }
+        assertTrue(paged.size() >= 2);
+        assertEquals(paged, streamed);
+        assertEquals(paged.stream().sorted().distinct().toList(), paged);
+    }
+
+    @Test
+    void missingAndMalformedRequestsAreRejectedLikeTheServletPath() {
+        client.get().uri(ReactiveRoutes.PREFIX + "/api/courses/9000000").exchange().expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody().jsonPath("$.detail").isEqualTo("Course not found with id: 9000000")
+                .jsonPath("$.instance").isEqualTo(ReactiveRoutes.PREFIX + "/api/courses/9000000");
+        client.get().uri(ReactiveRoutes.PREFIX + "/api/courses/9000000/subjects").exchange().expectStatus().isNotFound();
+        client.get().uri(ReactiveRoutes.PREFIX + "/api/subjects/9000000").exchange().expectStatus().isNotFound();
+        client.get().uri(ReactiveRoutes.PREFIX + "/api/courses?limit=0").exchange().expectStatus().isBadRequest();
+        client.get().uri(ReactiveRoutes.PREFIX + "/api/subjects?cursor=%%%").exchange().expectStatus().isBadRequest();
+        client.get().uri(ReactiveRoutes.PREFIX + "/api/courses/abc").exchange().expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.courses.controller;
+
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.example.courses.service.CourseService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static com.example.courses.CatalogFixtures.course;
+import static com.example.courses.CatalogFixtures.subject;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SearchTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Test
+    void prefixOfAWordFindsTheSubjectUnderItsCourse() throws Exception {
+        mockMvc.perform(get("/api/search").param("q", "learn"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("subject"))
+                .andExpect(jsonPath("$[0].text").value("Machine Learning"))
+                .andExpect(jsonPath("$[0].courseName").value("DBDA"));
+
+        mockMvc.perform(get("/api/search").param("q", "MACHINE lea"))
+                .andExpect(jsonPath("$[0].text").value("Machine Learning"));
+        mockMvc.perform(get("/api/search").param("q", "machine databases"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void wholeWordMatchesRankAbovePrefixMatches() throws Exception {
+        courseService.createCourse(course("Search Ranking", "Graph Theory", "Graphics Programming"));
+
+        mockMvc.perform(get("/api/search").param("q", "graph"))
+                .andExpect(jsonPath("$[0].text").value("Graph Theory"))
+                .andExpect(jsonPath("$[1].text").value("Graphics Programming"));
+    }
+
+    @Test
+    void pagesFollowTheNextCursor() throws Exception {
+        courseService.createCourse(course("Paging Course", "Paging Alpha", "Paging Beta", "Paging Gamma"));
+
+        MvcResult first = mockMvc.perform(get("/api/search").param("q", "paging").param("limit", "3"))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].type").value("course"))
+                .andExpect(header().exists(CursorPages.NEXT_CURSOR_HEADER))
+                .andReturn();
+        String cursor = first.getResponse().getHeader(CursorPages.NEXT_CURSOR_HEADER);
+        assertNotNull(cursor);
+
+        mockMvc.perform(get("/api/search").param("q", "paging").param("limit", "3").param("cursor", cursor))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist(CursorPages.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void indexFollowsCourseAndSubjectWrites() throws Exception {
+        Course created = courseService.createCourse(course("Quantum Basics"));
+        mockMvc.perform(get("/api/search").param("q", "quantum"))
+                .andExpect(jsonPath("$[*].text", hasItem("Quantum Basics")));
+
+        courseService.updateCourse(created.getId(), course("Photonics Basics"), null);
+        mockMvc.perform(get("/api/search").param("q", "quantum"))
+                .andExpect(jsonPath("$.length()").value(0));
+
+        Subject added = courseService.addSubjectToCourse(created.getId(), subject("Waveguides"));
+        mockMvc.perform(get("/api/search").param("q", "wave"))
+                .andExpect(jsonPath("$[0].id").value(added.getId()))
+                .andExpect(jsonPath("$[0].courseName").value("Photonics Basics"));
+
+        courseService.updateSubjectInCourse(created.getId(), added.getId(), subject("Beam Splitters"), null);
+        mockMvc.perform(get("/api/search").param("q", "waveguides"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/search").param("q", "splitter"))
+                .andExpect(jsonPath("$[0].id").value(added.getId()));
+
+        courseService.deleteCourse(created.getId(), null);
+        mockMvc.perform(get("/api/search").param("q", "photonics"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/search").param("q", "splitter"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void queryWithoutWordsIsRejected() throws Exception {
+        mockMvc.perform(get("/api/search").param("q", " -- ")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/search")).andExpect(status().isBadRequest());
+    }
+
+}
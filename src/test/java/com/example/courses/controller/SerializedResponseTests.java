@@ -0,0 +1,187 @@
+package com.example.courses.controller;
+
+import com.example.courses.model.Course;
+import com.example.courses.service.CatalogCache;
+import com.example.courses.service.CourseService;
+import com.example.courses.service.SubjectService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static com.example.courses.CatalogFixtures.course;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SerializedResponseTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private SubjectService subjectService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void repeatedReadsAreWrittenFromTheCachedJson() throws Exception {
+        Course course = courseService.createCourse(course("Serialized Ünïcode ✓", "Serialized A", "Serialized B"));
+        Long subjectId = course.getSubjects().get(0).getId();
+        String uri = "/api/courses/" + course.getId();
+        catalogCache.evictAll();
+
+        byte[] first = mockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+        mockMvc.perform(get(uri + "/subjects")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/subjects/" + subjectId)).andExpect(status().isOk());
+
+        double statementsBefore = requestStatements();
+        MockHttpServletResponse cached = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String subjects = mockMvc.perform(get(uri + "/subjects"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        String subject = mockMvc.perform(get("/api/subjects/" + subjectId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertEquals(statementsBefore, requestStatements());
+
+        assertArrayEquals(first, cached.getContentAsByteArray());
+        assertEquals(objectMapper.writeValueAsString(courseService.getCourseById(course.getId())),
+                cached.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, cached.getContentType());
+        assertEquals(ETags.of(course.getVersion()), cached.getHeader(HttpHeaders.ETAG));
+        assertEquals(objectMapper.writeValueAsString(courseService.getSubjectsByCourseId(course.getId())), subjects);
+        assertEquals(objectMapper.writeValueAsString(subjectService.getSubjectById(subjectId)), subject);
+    }
+
+    @Test
+    void largeBodiesAreSentGzippedToClientsThatAcceptIt() throws Exception {
+        String[] titles = new String[40];
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = "Serialized gzip subject number " + i;
+        }
+        Course course = courseService.createCourse(course("Serialized gzip course", titles));
+        String uri = "/api/courses/" + course.getId();
+
+        byte[] plain = mockMvc.perform(get(uri)).andReturn().getResponse().getContentAsByteArray();
+        MockHttpServletResponse gzipped = mockMvc.perform(get(uri).header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("gzip", gzipped.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(gzipped.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        assertTrue(gzipped.getContentAsByteArray().length < plain.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertArrayEquals(plain, in.readAllBytes());
+        }
+
+        // Refused with q=0, and never for a body too small to be worth it
+        assertNull(mockMvc.perform(get(uri).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andReturn().getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(mockMvc.perform(get("/api/subjects/" + course.getSubjects().get(0).getId())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    // The two codings are two representations, each with its own strong validator; either one is current
+    @Test
+    void theGzipVariantHasItsOwnETagAndBothAreValidatedAgain() throws Exception {
+        String[] titles = new String[40];
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = "Serialized validator subject number " + i;
+        }
+        Course course = courseService.createCourse(course("Serialized validator course", titles));
+        String uri = "/api/courses/" + course.getId();
+
+        String plainTag = mockMvc.perform(get(uri)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String gzipTag = mockMvc.perform(get(uri).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(ETags.of(course.getVersion()), plainTag);
+        assertEquals(ETags.ofGzip(course.getVersion()), gzipTag);
+        assertNotEquals(plainTag, gzipTag);
+
+        for (String path : new String[] {uri, uri + "/subjects"}) {
+            mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, plainTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, plainTag));
+            mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, gzipTag)
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, gzipTag));
+        }
+
+        // Either tag is a precondition for a write; after it, neither is current
+        mockMvc.perform(put(uri).header(HttpHeaders.IF_MATCH, gzipTag).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Serialized validator course renamed\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, gzipTag + ", " + plainTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETags.of(course.getVersion() + 1)));
+        mockMvc.perform(put(uri).header(HttpHeaders.IF_MATCH, plainTag).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Serialized validator course again\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void writesThroughTheServicesReplaceTheCachedJson() throws Exception {
+        Course course = courseService.createCourse(course("Serialized stale course", "Serialized stale subject"));
+        Long subjectId = course.getSubjects().get(0).getId();
+        String uri = "/api/courses/" + course.getId();
+        mockMvc.perform(get(uri)).andExpect(status().isOk());
+        mockMvc.perform(get(uri + "/subjects")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/subjects/" + subjectId)).andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/subjects/" + subjectId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Serialized fresh subject\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(uri))
+                .andExpect(jsonPath("$.subjects[0].title").value("Serialized fresh subject"));
+        mockMvc.perform(get(uri + "/subjects"))
+                .andExpect(jsonPath("$[0].title").value("Serialized fresh subject"));
+        mockMvc.perform(get("/api/subjects/" + subjectId))
+                .andExpect(jsonPath("$.title").value("Serialized fresh subject"));
+
+        courseService.deleteCourse(course.getId(), null);
+        mockMvc.perform(get(uri)).andExpect(status().isNotFound());
+        mockMvc.perform(get(uri + "/subjects")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/subjects/" + subjectId)).andExpect(status().isNotFound());
+    }
+
+    private double requestStatements() {
+        return meterRegistry.find("courses.request.sql.statements").summaries().stream()
+                .mapToDouble(DistributionSummary::totalAmount)
+                .sum();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.courses.metrics;
+
+import com.example.courses.service.CatalogCache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class RequestMetricsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        catalogCache.evictAll();
+    }
+
+    @Test
+    void recordsDatabaseWorkPerEndpoint() throws Exception {
+        mockMvc.perform(get("/api/courses/{id}", 1)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/courses/{id}/subjects", 1)).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("courses.request.sql.statements")
+                .tag("method", "GET").tag("uri", "/api/courses/{id}").summary();
+        assertTrue(statements.count() >= 1);
+        assertTrue(statements.max() >= 1);
+        assertTrue(meterRegistry.get("courses.request.jdbc").tag("uri", "/api/courses/{id}").timer()
+                .totalTime(TimeUnit.NANOSECONDS) > 0);
+        // Read endpoints are served from projections, so no entity is loaded
+        assertEquals(0, meterRegistry.get("courses.request.entities.loaded")
+                .tag("uri", "/api/courses/{courseId}/subjects").summary().totalAmount());
+    }
+
+    @Test
+    void countsEntitiesLoadedByWrites() throws Exception {
+        mockMvc.perform(put("/api/courses/{courseId}/subjects/{subjectId}", 1, 1)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"Data Structures\"}"))
+                .andExpect(status().isOk());
+
+        assertTrue(meterRegistry.get("courses.request.entities.loaded")
+                .tag("uri", "/api/courses/{courseId}/subjects/{subjectId}").summary().totalAmount() >= 1);
+    }
+
+    @Test
+    void timesServiceMethodsAndPublishesHistograms() throws Exception {
+        mockMvc.perform(get("/api/subjects")).andExpect(status().isOk());
+
+        Timer serviceTimer = meterRegistry.get("courses.service")
+                .tag("class", "com.example.courses.service.SubjectService").tag("method", "getSubjectsAfter").timer();
+        assertTrue(serviceTimer.count() >= 1);
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("courses_service_seconds_bucket")))
+                .andExpect(content().string(containsString("courses_request_sql_statements_bucket")));
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.courses.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A slow rate, so no bucket refills between the requests of one test
+@SpringBootTest(properties = {"courses.rate-limit.enabled=true", "courses.rate-limit.requests-per-second=0.1",
+        "courses.rate-limit.burst=2", "courses.concurrency-limit.enabled=true"})
+@AutoConfigureMockMvc
+class LoadSheddingTests {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void aClientOverItsRateGets429WhileOthersAreServed() throws Exception {
+        double rejected = meterRegistry.get("courses.rate_limit.rejected").counter().count();
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/courses/{id}", 1).with(from("10.0.0.1"))).andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/subjects/{id}", 1).with(from("10.0.0.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"))
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.title").value("Too Many Requests"))
+                .andExpect(jsonPath("$.detail").value("Rate limit exceeded"))
+                .andExpect(jsonPath("$.instance").value("/api/subjects/1"));
+
+        mockMvc.perform(get("/api/courses/{id}", 1).with(from("10.0.0.2"))).andExpect(status().isOk());
+        assertEquals(rejected + 1, meterRegistry.get("courses.rate_limit.rejected").counter().count());
+        assertTrue(meterRegistry.get("courses.rate_limit.clients").gauge().value() >= 2);
+        assertEquals(0, meterRegistry.get("courses.concurrency_limit.in_flight").gauge().value());
+    }
+
+    // Unless a trusted gateway sets it, the client header is the client's own choice and no key
+    @Test
+    void aClientCannotGetFreshBucketsByChangingItsClientHeader() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/courses/{id}", 1).with(from("10.0.0.3")).header("X-Client-Id", "client " + i))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/courses/{id}", 1).with(from("10.0.0.3")).header("X-Client-Id", "client 2"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void behindATrustedGatewayClientsAreKeyedOnTheClientHeader() throws Exception {
+        LoadSheddingFilter filter = new LoadSheddingFilter(new SimpleMeterRegistry(), new ObjectMapper(), true, true, "X-Client-Id",
+                0.1, 2, 1000, false, 20, 5, 200, 1.5, Duration.ofSeconds(1));
+        for (int i = 0; i < 2; i++) {
+            assertEquals(200, filterThrough(filter, "flooding client").getStatus());
+        }
+        assertEquals(429, filterThrough(filter, "flooding client").getStatus());
+        assertEquals(200, filterThrough(filter, "quiet client").getStatus());
+    }
+
+    @Test
+    void otherEndpointsAreNotLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/api/search").param("q", "course").with(from("10.0.0.4")))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void refilledBucketsAreDroppedAndClientsPastTheMaximumShareBuckets() {
+        // 10 per second, a burst of 2: a bucket refills within 200ms, and is swept after a second
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 2, 2, 0);
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(100_000_000, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("b", 0));
+        assertEquals(0, limiter.tryAcquire("c", 0));
+        assertEquals(2, limiter.clients());
+
+        assertEquals(0, limiter.tryAcquire("a", SECOND));
+        assertEquals(1, limiter.clients());
+    }
+
+    // A limit of one, taken by the outer request while the inner one arrives
+    @Test
+    void aRequestPastTheConcurrencyLimitGets503AsAProblemDetail() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        LoadSheddingFilter filter = new LoadSheddingFilter(new SimpleMeterRegistry(), objectMapper, false, false,
+                "X-Client-Id", 20, 40, 1000, true, 1, 1, 1, 1.5, Duration.ofSeconds(1));
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/courses/1"), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/api/courses/2"), shed,
+                        new MockFilterChain()));
+
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON_VALUE, shed.getContentType());
+        JsonNode problem = objectMapper.readTree(shed.getContentAsByteArray());
+        assertEquals(503, problem.get("status").asInt());
+        assertEquals("Service Unavailable", problem.get("title").asText());
+        assertEquals("Service is at its concurrency limit", problem.get("detail").asText());
+        assertEquals("/api/courses/2", problem.get("instance").asText());
+    }
+
+    @Test
+    void requestsPastTheConcurrencyLimitAreTurnedAway() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 1.5, Duration.ofSeconds(1), 0);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        limit.release(1_000_000, true, 1);
+        assertTrue(limit.tryAcquire());
+        assertEquals(2, limit.inFlight());
+    }
+
+    @Test
+    void theConcurrencyLimitGrowsWhileLatencyHoldsAndShrinksWhenItClimbs() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 10, 100, 1.5, Duration.ofSeconds(1), 0);
+        long now = 0;
+        for (int window = 0; window < 10; window++) {
+            now += SECOND;
+            saturate(limit, 10, now);
+        }
+        int grown = limit.limit();
+        assertTrue(grown > 20, "limit " + grown);
+
+        // Smoothed, about a tenth off per window, until the slower latency has become the long-term baseline
+        for (int window = 0; window < 5; window++) {
+            now += SECOND;
+            saturate(limit, 100, now);
+        }
+        assertTrue(limit.limit() < grown * 4 / 5, "limit " + limit.limit());
+        assertTrue(limit.limit() >= 10);
+
+        // Far below the limit, low latency is no reason to raise it
+        int idle = limit.limit();
+        for (int window = 0; window < 10; window++) {
+            now += SECOND;
+            for (int request = 0; request < 10; request++) {
+                assertTrue(limit.tryAcquire());
+                limit.release(10_000_000, true, request == 9 ? now : now - SECOND / 2);
+            }
+        }
+        assertTrue(limit.limit() <= idle, "limit " + limit.limit());
+    }
+
+    // Every request from the gateway's address, told apart only by the header it set
+    private static MockHttpServletResponse filterThrough(LoadSheddingFilter filter, String client) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/courses/1");
+        request.setRemoteAddr("10.0.1.1");
+        request.addHeader("X-Client-Id", client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static RequestPostProcessor from(String remoteAddress) {
+        return request -> {
+            request.setRemoteAddr(remoteAddress);
+            return request;
+        };
+    }
+
+    // Fill every slot, then finish them all with the given latency; the last one closes the window
+    private static void saturate(AdaptiveConcurrencyLimit limit, long latencyMillis, long windowEnd) {
+        int admitted = 0;
+        while (limit.tryAcquire()) {
+            admitted++;
+        }
+        for (int request = 1; request <= admitted; request++) {
+            limit.release(latencyMillis * 1_000_000, true, request == admitted ? windowEnd : windowEnd - SECOND / 2);
+        }
+    }
+}
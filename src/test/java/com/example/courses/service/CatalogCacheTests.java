@@ -0,0 +1,87 @@
+package com.example.courses.service;
+
+import com.example.courses.model.Course;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static com.example.courses.CatalogFixtures.course;
+import static com.example.courses.CatalogFixtures.subject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CatalogCacheTests {
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private SubjectService subjectService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        catalogCache.evictAll();
+    }
+
+    @Test
+    void repeatedLookupsAreServedWithoutTheDatabase() {
+        Course course = courseService.createCourse(course("Cache course", "Cache subject"));
+        Long subjectId = course.getSubjects().get(0).getId();
+
+        courseService.getCourseById(course.getId());
+        subjectService.getSubjectById(subjectId);
+        statistics.clear();
+        courseService.getCourseById(course.getId());
+        courseService.getSubjectByCourseAndSubjectId(course.getId(), subjectId);
+        subjectService.getSubjectById(subjectId);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        double hits = meterRegistry.get("cache.gets").tag("cache", "courses").tag("result", "hit")
+                .functionCounter().count();
+        assertTrue(hits >= 1);
+    }
+
+    @Test
+    void writesInvalidateTheEntriesTheyTouch() {
+        Course course = courseService.createCourse(course("Invalidation course", "Invalidation subject"));
+        Long courseId = course.getId();
+        Long subjectId = course.getSubjects().get(0).getId();
+        courseService.getCourseById(courseId);
+        subjectService.getSubjectById(subjectId);
+
+        courseService.updateSubjectInCourse(courseId, subjectId, subject("Renamed subject"), null);
+        assertEquals("Renamed subject", subjectService.getSubjectById(subjectId).title());
+        assertEquals("Renamed subject", courseService.getCourseById(courseId).subjects().get(0).title());
+
+        courseService.addSubjectToCourse(courseId, subject("Added subject"));
+        assertEquals(2, courseService.getCourseById(courseId).subjects().size());
+
+        courseService.deleteSubjectInCourse(courseId, subjectId, null);
+        assertThrows(EntityNotFoundException.class, () -> subjectService.getSubjectById(subjectId));
+        assertEquals(1, courseService.getCourseById(courseId).subjects().size());
+
+        courseService.deleteCourse(courseId, null);
+        assertThrows(EntityNotFoundException.class, () -> courseService.getCourseById(courseId));
+        courseService.createCourse(course("Invalidation course", "Recreated subject"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.courses.service;
+
+import com.example.courses.repository.CourseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class CatalogSeederTests {
+
+    @Autowired
+    private CatalogSeeder catalogSeeder;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private NameKeyBackfill nameKeyBackfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seedingAgainCreatesNothing() {
+        // The default mode seeded the catalog while the context started
+        assertEquals(4, courseRepository.findExistingNameKeys(List.of("dbda", "embedded", "dac", "electronics")).size());
+
+        assertEquals(0, catalogSeeder.seed());
+        assertEquals(4, courseRepository.findExistingNameKeys(List.of("dbda", "embedded", "dac", "electronics")).size());
+    }
+
+    // Rows from before the key columns get the same keys the application computes: SQL trim() would keep the tab
+    // and the em space
+    @Test
+    void keysAreBackfilledTheWayTheApplicationNormalizes() {
+        jdbcTemplate.update("insert into course (id, version, name) values (?, 0, ?)", 950_001L, "\tLegacy Course\u2003");
+        jdbcTemplate.update("insert into subject (id, version, title, course_id) values (?, 0, ?, ?)",
+                950_002L, " Legacy SUBJECT\n", 950_001L);
+
+        assertEquals(2, nameKeyBackfill.backfill());
+        assertEquals("legacy course",
+                jdbcTemplate.queryForObject("select name_key from course where id = ?", String.class, 950_001L));
+        assertEquals("legacy subject",
+                jdbcTemplate.queryForObject("select title_key from subject where id = ?", String.class, 950_002L));
+        assertEquals(0, nameKeyBackfill.backfill());
+    }
+
+    // Older versions compared names exactly and let a subject title repeat across courses: the lowest id (or a row
+    // already keyed, like the seeded DBDA) keeps the key, the rest are keyed apart and the job carries on
+    @Test
+    void keysThatCollideAfterNormalizationAreKeyedApart() {
+        jdbcTemplate.update("insert into course (id, version, name) values (?, 0, ?)", 960_001L, "Math");
+        jdbcTemplate.update("insert into course (id, version, name) values (?, 0, ?)", 960_002L, "math ");
+        jdbcTemplate.update("insert into course (id, version, name) values (?, 0, ?)", 960_003L, "DBDA");
+        for (long course = 960_001L; course <= 960_003L; course++) {
+            jdbcTemplate.update("insert into subject (id, version, title, course_id) values (?, 0, ?, ?)",
+                    course + 100, "Algebra", course);
+        }
+
+        assertEquals(6, nameKeyBackfill.backfill());
+        assertEquals(List.of("math", "math#960002", "dbda#960003"), jdbcTemplate.queryForList(
+                "select name_key from course where id between 960001 and 960003 order by id", String.class));
+        assertEquals(List.of("algebra", "algebra#960102", "algebra#960103"), jdbcTemplate.queryForList(
+                "select title_key from subject where id between 960101 and 960103 order by id", String.class));
+        // Still found by the duplicate checks
+        assertEquals(List.of("math"), courseRepository.findExistingNameKeys(List.of("math")));
+        assertEquals(0, nameKeyBackfill.backfill());
+    }
+
+    // The setup job applies the schema script before every rollout, so it must run cleanly against its own result
+    @Test
+    void schemaScriptCanBeAppliedTwice() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:schema-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("db/schema-mysql.sql"));
+        populator.execute(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("insert into course (id, version, name) values (1234, 0, 'Existing course')");
+        populator.execute(dataSource);
+
+        assertEquals(1, jdbc.queryForObject("select count(*) from course_seq", Integer.class));
+        assertEquals(1, jdbc.queryForObject("select count(*) from subject_seq", Integer.class));
+        // The next id block starts past the ids already in use
+        assertEquals(1284, jdbc.queryForObject("select next_val from course_seq", Long.class));
+        assertEquals(50, jdbc.queryForObject("select next_val from subject_seq", Long.class));
+        jdbc.execute("shutdown");
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.courses.service;
+
+import com.example.courses.model.Course;
+import com.example.courses.repository.CourseRepository;
+import com.example.courses.repository.SubjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static com.example.courses.CatalogFixtures.course;
+import static com.example.courses.CatalogFixtures.subject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Runs with the in-memory name index on: concurrent creators all find the name free in the index, so the unique
+// constraints alone must stop the duplicates
+@SpringBootTest(properties = "courses.name-index.enabled=true")
+class NameUniquenessTests {
+
+    private static final int WRITERS = 16;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private SubjectService subjectService;
+
+    @Autowired
+    private NameIndex nameIndex;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Test
+    void namesDifferingOnlyInCaseOrSurroundingSpaceAreDuplicates() {
+        courseService.createCourse(course("Distributed Systems"));
+
+        assertThrows(IllegalArgumentException.class, () -> courseService.createCourse(course("  distributed SYSTEMS ")));
+        subjectService.createSubject(subject("Consensus"));
+        assertThrows(IllegalArgumentException.class, () -> subjectService.createSubject(subject("CONSENSUS ")));
+    }
+
+    @Test
+    void concurrentCreatesOfTheSameCourseNameLeaveOneRow() throws Exception {
+        int created = race(n -> () -> courseService.createCourse(course(variant("Concurrent course", n))));
+
+        assertEquals(1, created);
+        assertEquals(1, courseRepository.findExistingNameKeys(List.of("concurrent course")).size());
+    }
+
+    @Test
+    void concurrentCreatesOfTheSameSubjectTitleLeaveOneRow() throws Exception {
+        int created = race(n -> () -> subjectService.createSubject(subject(variant("Concurrent subject", n))));
+
+        assertEquals(1, created);
+        assertEquals(1, subjectRepository.findExistingTitleKeys(List.of("concurrent subject")).size());
+    }
+
+    @Test
+    void nameIndexFollowsCommittedWrites() {
+        Course course = courseService.createCourse(course("Indexed course", "Indexed subject"));
+        assertTrue(nameIndex.mayHaveCourseName("indexed course"));
+        assertTrue(nameIndex.mayHaveSubjectTitle("indexed subject"));
+
+        Course rename = course("Renamed indexed course", "Replacement subject");
+        courseService.updateCourse(course.getId(), rename, null);
+        assertFalse(nameIndex.mayHaveCourseName("indexed course"));
+        assertTrue(nameIndex.mayHaveCourseName("renamed indexed course"));
+        assertFalse(nameIndex.mayHaveSubjectTitle("indexed subject"));
+        assertTrue(nameIndex.mayHaveSubjectTitle("replacement subject"));
+
+        courseService.deleteCourse(course.getId(), null);
+        assertFalse(nameIndex.mayHaveCourseName("renamed indexed course"));
+        assertFalse(nameIndex.mayHaveSubjectTitle("replacement subject"));
+        // A failed create leaves nothing behind in the index
+        courseService.createCourse(course("Indexed again"));
+        assertThrows(IllegalArgumentException.class, () -> courseService.createCourse(course("INDEXED AGAIN")));
+        assertEquals(1, courseRepository.findExistingNameKeys(List.of("indexed again")).size());
+    }
+
+    // Starts all writers together; each either wins, sees the winner (400) or loses on the unique constraint (409)
+    private static int race(Function<Integer, Callable<?>> writer) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writes = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(WRITERS)) {
+            for (int n = 0; n < WRITERS; n++) {
+                Callable<?> write = writer.apply(n);
+                writes.add(executor.submit(() -> {
+                    start.await();
+                    return write.call();
+                }));
+            }
+            start.countDown();
+        }
+        int created = 0;
+        for (Future<?> write : writes) {
+            try {
+                write.get();
+                created++;
+            } catch (ExecutionException ex) {
+                if (!(ex.getCause() instanceof IllegalArgumentException)
+                        && !(ex.getCause() instanceof DataIntegrityViolationException)) {
+                    fail("Unexpected failure", ex.getCause());
+                }
+            }
+        }
+        return created;
+    }
+
+    // The same name in a different case and padding for every writer
+    private static String variant(String name, int n) {
+        String cased = n % 2 == 0 ? name.toUpperCase() : name.toLowerCase();
+        return " ".repeat(n % 3) + cased + " ".repeat(n % 4);
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.example.courses.service;
+
+import com.example.courses.dto.SubjectView;
+import com.example.courses.model.Course;
+import com.example.courses.model.Subject;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.courses.CatalogFixtures.course;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "courses.write-behind.enabled=true")
+@AutoConfigureMockMvc
+class SubjectWriteQueueTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private SubjectWriteQueue subjectWriteQueue;
+
+    @Test
+    void subjectMutationsAreAcceptedThenAppliedInOrder() throws Exception {
+        Course course = courseService.createCourse(course("Write-behind course", "Original", "Doomed"));
+        Long courseId = course.getId();
+        Long renamedId = course.getSubjects().get(0).getId();
+        Long deletedId = course.getSubjects().get(1).getId();
+
+        List<String> operations = new ArrayList<>();
+        for (String title : List.of("First", "Second", "Third")) {
+            operations.add(accepted(mockMvc.perform(put("/api/courses/{courseId}/subjects/{subjectId}", courseId, renamedId)
+                    .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"" + title + "\"}")).andReturn()));
+        }
+        operations.add(accepted(mockMvc.perform(post("/api/courses/{courseId}/subjects", courseId)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"Added\"}")).andReturn()));
+        operations.add(accepted(mockMvc.perform(delete("/api/courses/{courseId}/subjects/{subjectId}", courseId, deletedId))
+                .andReturn()));
+
+        for (String location : operations) {
+            assertEquals("APPLIED", awaitOperation(location).get("status").asText());
+        }
+        assertEquals(List.of("Third", "Added"),
+                courseService.getCourseById(courseId).subjects().stream().map(SubjectView::title).toList());
+    }
+
+    @Test
+    void aFailingOperationOnlyFailsItself() throws Exception {
+        Long courseId = courseService.createCourse(course("Write-behind failures", "Kept")).getId();
+
+        SubjectOperation missing = subjectWriteQueue.submit(SubjectOperation.update(courseId, Long.MAX_VALUE, "Nope", null));
+        SubjectOperation added = subjectWriteQueue.submit(SubjectOperation.add(courseId, "Also kept"));
+
+        awaitDone(missing);
+        awaitDone(added);
+        assertEquals(SubjectOperation.Status.FAILED, missing.getStatus());
+        assertTrue(missing.getMessage().contains("Subject not found"));
+        assertEquals(SubjectOperation.Status.APPLIED, added.getStatus());
+        assertEquals(2, courseService.getCourseById(courseId).subjects().size());
+    }
+
+    @Test
+    void fullQueueRejectsAndStopDrainsWhatWasQueued() throws Exception {
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CourseService slowService = mock(CourseService.class);
+        when(slowService.addSubjectToCourse(anyLong(), any(Subject.class))).thenAnswer(invocation -> {
+            writerBusy.countDown();
+            release.await();
+            Subject subject = invocation.getArgument(1);
+            subject.setId(1L);
+            return subject;
+        });
+        SubjectWriteQueue queue = new SubjectWriteQueue(slowService, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), true, 1, 2, 1, Duration.ofMillis(10), Duration.ofSeconds(10),
+                Duration.ofMinutes(1));
+        queue.start();
+
+        List<SubjectOperation> accepted = new ArrayList<>();
+        accepted.add(queue.submit(SubjectOperation.add(1L, "Taken by the writer")));
+        assertTrue(writerBusy.await(5, TimeUnit.SECONDS));
+        accepted.add(queue.submit(SubjectOperation.add(1L, "Queued 1")));
+        accepted.add(queue.submit(SubjectOperation.add(1L, "Queued 2")));
+        assertThrows(SubjectWriteRejectedException.class, () -> queue.submit(SubjectOperation.add(1L, "No room")));
+
+        Thread stopping = Thread.ofPlatform().start(queue::stop);
+        release.countDown();
+        stopping.join(10_000);
+
+        accepted.forEach(operation -> assertEquals(SubjectOperation.Status.APPLIED, operation.getStatus()));
+        assertThrows(SubjectWriteRejectedException.class, () -> queue.submit(SubjectOperation.add(1L, "Too late")));
+    }
+
+    private static String accepted(MvcResult result) throws Exception {
+        status().isAccepted().match(result);
+        header().exists("Location").match(result);
+        return result.getResponse().getHeader("Location");
+    }
+
+    private JsonNode awaitOperation(String location) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            JsonNode operation = objectMapper.readTree(mockMvc.perform(get(location)).andReturn().getResponse()
+                    .getContentAsString());
+            if (!"PENDING".equals(operation.get("status").asText()) || System.nanoTime() > deadline) {
+                return operation;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static void awaitDone(SubjectOperation operation) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (operation.getStatus() == SubjectOperation.Status.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}